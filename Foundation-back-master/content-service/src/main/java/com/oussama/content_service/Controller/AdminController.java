@@ -2,15 +2,20 @@ package com.oussama.content_service.Controller;
 
 import com.oussama.content_service.Dto.*;
 import com.oussama.content_service.service.AdminContentService;
+import com.oussama.content_service.service.ImageStorageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -23,6 +28,7 @@ import java.util.List;
 public class AdminController {
 
     private final AdminContentService adminContentService;
+    private final ImageStorageService imageStorageService;
 
     // News CRUD
     @GetMapping("/news")
@@ -33,6 +39,16 @@ public class AdminController {
         return ResponseEntity.ok(news);
     }
 
+    @GetMapping(value = "/news/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Export news", description = "Streams all news articles as a JSON array")
+    public ResponseEntity<StreamingResponseBody> exportNews() {
+        log.info("Exporting all news");
+        StreamingResponseBody body = adminContentService::exportNews;
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"news-export.json\"")
+                .body(body);
+    }
+
     @GetMapping("/news/{id}")
     @Operation(summary = "Get news by ID", description = "Returns a specific news article by ID")
     public ResponseEntity<NewsDto> getNewsById(@PathVariable Long id) {
@@ -196,4 +212,14 @@ public class AdminController {
         ContactMessageDto handledMessage = adminContentService.handleContactMessage(id);
         return ResponseEntity.ok(handledMessage);
     }
+
+    // Images
+    @PostMapping(value = "/images", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Upload image", description = "Stores an image and generates its thumbnails in the background")
+    public ResponseEntity<ImageUploadResponse> uploadImage(
+            @Parameter(description = "Image file (JPG, PNG, GIF)") @RequestParam("file") MultipartFile file) {
+        log.info("Uploading image: {}", file.getOriginalFilename());
+        ImageUploadResponse response = imageStorageService.storeImage(file);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
 }
@@ -2,6 +2,7 @@ package com.oussama.content_service.Controller;
 
 import com.oussama.content_service.Dto.FoundationInfoDto;
 import com.oussama.content_service.enums.InfoType;
+import com.oussama.content_service.service.FoundationInfoCache;
 import com.oussama.content_service.service.FoundationInfoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -9,7 +10,9 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -63,6 +66,21 @@ public class FoundationInfoController {
         return ResponseEntity.ok(activeInfo);
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Obtenir la page complète", description = "Récupère toutes les informations actives groupées par type en une seule réponse")
+    public ResponseEntity<byte[]> getFoundationPage(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        FoundationInfoCache.Page page = foundationInfoService.getFoundationPage();
+        if (page.etag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(page.etag()).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(page.etag())
+                .body(page.payload());
+    }
+
     @GetMapping("/type/{type}")
     @Operation(summary = "Obtenir une information par type", description = "Récupère une information active par son type")
     public ResponseEntity<FoundationInfoDto> getFoundationInfoByType(
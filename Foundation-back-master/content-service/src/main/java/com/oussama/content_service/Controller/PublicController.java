@@ -34,15 +34,15 @@ public class PublicController {
     }
 
     @GetMapping("/news")
-    @Operation(summary = "Get published news", description = "Returns paginated list of published news with optional filters")
-    public ResponseEntity<PageResponse<NewsDto>> getPublishedNews(
+    @Operation(summary = "Get published news", description = "Returns paginated list of published news summaries (excerpt instead of body) with optional filters")
+    public ResponseEntity<PageResponse<NewsSummaryDto>> getPublishedNews(
             @Parameter(description = "Search query") @RequestParam(required = false) String query,
             @Parameter(description = "News category") @RequestParam(required = false) String category,
             @Parameter(description = "Page number (1-based)") @RequestParam(defaultValue = "1") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size) {
         
         log.info("Getting published news - query: {}, category: {}, page: {}, size: {}", query, category, page, size);
-        PageResponse<NewsDto> news = publicContentService.getPublishedNews(query, category, page, size);
+        PageResponse<NewsSummaryDto> news = publicContentService.getPublishedNews(query, category, page, size);
         return ResponseEntity.ok(news);
     }
 
@@ -0,0 +1,19 @@
+package com.oussama.content_service.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageUploadResponse {
+    private String originalUrl;
+
+    // Largeur en pixels -> URL de la miniature (générée en arrière-plan)
+    private Map<Integer, String> thumbnailUrls;
+}
@@ -0,0 +1,34 @@
+package com.oussama.content_service.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Élément de liste des actualités : le corps complet n'est pas transmis, seulement un extrait.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NewsSummaryDto {
+    private Long id;
+
+    private String title;
+
+    private String slug;
+
+    private String excerpt;
+
+    private String imageUrl;
+
+    private String category;
+
+    private List<String> tags;
+
+    private LocalDateTime publishedAt;
+}
@@ -1,13 +1,22 @@
 package com.oussama.content_service.config;
 
 
+import com.oussama.content_service.service.ImageStorageService;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
+    private final ImageStorageService imageStorageService;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -16,4 +25,14 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedHeaders("*")
                 .allowCredentials(true);
     }
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // Les noms de fichiers sont des UUID jamais réécrits : cache navigateur/CDN d'un an.
+        // Le ResourceHttpRequestHandler gère ETag/Last-Modified et les requêtes Range.
+        String location = imageStorageService.getUploadPath().toUri().toString();
+        registry.addResourceHandler(ImageStorageService.PUBLIC_URL_PREFIX + "**")
+                .addResourceLocations(location.endsWith("/") ? location : location + "/")
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable());
+    }
 }
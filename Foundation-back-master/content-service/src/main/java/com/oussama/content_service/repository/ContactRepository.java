@@ -3,6 +3,7 @@ package com.oussama.content_service.repository;
 
 import com.oussama.content_service.entity.Contact;
 import com.oussama.content_service.enums.ContactStatus;
+import com.oussama.content_service.repository.projection.ContactListItem;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -15,25 +16,41 @@ import java.time.LocalDateTime;
 @Repository
 public interface ContactRepository extends JpaRepository<Contact, Long> {
 
-    // Méthodes existantes (si déjà présentes)
-    Page<Contact> findByStatusOrderByCreatedAtDesc(ContactStatus status, Pageable pageable);
+    // Colonnes des listes : le message et la réponse (TEXT) ne sont lus qu'en détail
+    String LIST_ITEM_SELECT = "SELECT c.id AS id, c.name AS name, c.email AS email, c.phoneNumber AS phoneNumber, " +
+            "c.subject AS subject, c.status AS status, c.respondedAt AS respondedAt, c.respondedBy AS respondedBy, " +
+            "c.createdAt AS createdAt, c.updatedAt AS updatedAt FROM Contact c ";
 
-    // Nouvelles méthodes à ajouter
-    Page<Contact> findAllByOrderByCreatedAtDesc(Pageable pageable);
+    // Projections pour les listes
+    @Query(value = LIST_ITEM_SELECT + "ORDER BY c.createdAt DESC",
+            countQuery = "SELECT COUNT(c) FROM Contact c")
+    Page<ContactListItem> findListItems(Pageable pageable);
 
-    @Query("SELECT c FROM Contact c WHERE " +
+    @Query(value = LIST_ITEM_SELECT + "WHERE c.status = :status ORDER BY c.createdAt DESC",
+            countQuery = "SELECT COUNT(c) FROM Contact c WHERE c.status = :status")
+    Page<ContactListItem> findListItemsByStatus(@Param("status") ContactStatus status, Pageable pageable);
+
+    @Query(value = LIST_ITEM_SELECT + "WHERE " +
             "(LOWER(c.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(c.email) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(c.subject) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
-            "ORDER BY c.createdAt DESC")
-    Page<Contact> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
-
-    @Query("SELECT c FROM Contact c WHERE " +
+            "ORDER BY c.createdAt DESC",
+            countQuery = "SELECT COUNT(c) FROM Contact c WHERE " +
+                    "(LOWER(c.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+                    "LOWER(c.email) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+                    "LOWER(c.subject) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+    Page<ContactListItem> searchListItems(@Param("keyword") String keyword, Pageable pageable);
+
+    @Query(value = LIST_ITEM_SELECT + "WHERE " +
             "(:status IS NULL OR c.status = :status) AND " +
             "(:startDate IS NULL OR c.createdAt >= :startDate) AND " +
             "(:endDate IS NULL OR c.createdAt <= :endDate) " +
-            "ORDER BY c.createdAt DESC")
-    Page<Contact> findByStatusAndDateRange(
+            "ORDER BY c.createdAt DESC",
+            countQuery = "SELECT COUNT(c) FROM Contact c WHERE " +
+                    "(:status IS NULL OR c.status = :status) AND " +
+                    "(:startDate IS NULL OR c.createdAt >= :startDate) AND " +
+                    "(:endDate IS NULL OR c.createdAt <= :endDate)")
+    Page<ContactListItem> findListItemsByStatusAndDateRange(
             @Param("status") ContactStatus status,
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate,
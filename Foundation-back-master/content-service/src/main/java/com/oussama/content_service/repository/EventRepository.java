@@ -1,6 +1,7 @@
 package com.oussama.content_service.repository;
 
 import com.oussama.content_service.entity.Event;
+import com.oussama.content_service.repository.projection.EventListItem;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -16,9 +17,11 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     
     Page<Event> findByPublishedTrue(Pageable pageable);
     
-    @Query("SELECT e FROM Event e WHERE e.published = true AND e.startDate >= :fromDate ORDER BY e.startDate ASC")
-    List<Event> findUpcomingEvents(@Param("fromDate") LocalDateTime fromDate);
-    
     @Query("SELECT e FROM Event e WHERE e.published = true AND e.startDate >= :fromDate ORDER BY e.startDate ASC")
     Page<Event> findUpcomingEventsPageable(@Param("fromDate") LocalDateTime fromDate, Pageable pageable);
+
+    @Query("SELECT e.id AS id, e.title AS title, e.startDate AS startDate, e.endDate AS endDate, " +
+            "e.location AS location, e.imageUrl AS imageUrl, e.publishedAt AS publishedAt, e.published AS published " +
+            "FROM Event e WHERE e.published = true AND e.startDate >= :fromDate ORDER BY e.startDate ASC")
+    List<EventListItem> findUpcomingEventListItems(@Param("fromDate") LocalDateTime fromDate);
 }
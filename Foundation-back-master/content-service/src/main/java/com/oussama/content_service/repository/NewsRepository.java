@@ -2,17 +2,24 @@ package com.oussama.content_service.repository;
 
 import com.oussama.content_service.entity.News;
 import com.oussama.content_service.enums.ContentStatus;
+import com.oussama.content_service.repository.projection.NewsListItem;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface NewsRepository extends JpaRepository<News, Long> {
@@ -23,11 +30,19 @@ public interface NewsRepository extends JpaRepository<News, Long> {
 
     Page<News> findByPublishedTrue(Pageable pageable);
 
-    @Query("SELECT n FROM News n WHERE n.published = true AND " +
+    // Liste publique : projection sans le corps complet (seulement ses premiers caractères pour l'extrait)
+    @Query(value = "SELECT n.id AS id, n.title AS title, n.slug AS slug, SUBSTRING(n.body, 1, 600) AS bodyStart, " +
+            "n.imageUrl AS imageUrl, n.category AS category, n.tagsJson AS tagsJson, n.publishedAt AS publishedAt " +
+            "FROM News n WHERE n.published = true AND " +
             "(:query IS NULL OR LOWER(n.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
             "LOWER(n.body) LIKE LOWER(CONCAT('%', :query, '%'))) AND " +
-            "(:category IS NULL OR n.category = :category)")
-    Page<News> findPublishedNewsWithFilters(
+            "(:category IS NULL OR n.category = :category) " +
+            "ORDER BY n.publishedAt DESC, n.id DESC",
+            countQuery = "SELECT COUNT(n) FROM News n WHERE n.published = true AND " +
+                    "(:query IS NULL OR LOWER(n.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+                    "LOWER(n.body) LIKE LOWER(CONCAT('%', :query, '%'))) AND " +
+                    "(:category IS NULL OR n.category = :category)")
+    Page<NewsListItem> findPublishedNewsListItems(
             @Param("query") String query,
             @Param("category") String category,
             Pageable pageable
@@ -59,4 +74,12 @@ public interface NewsRepository extends JpaRepository<News, Long> {
 
     @Query("SELECT n FROM News n WHERE n.status = :status ORDER BY n.viewCount DESC")
     List<News> findTop5ByStatusOrderByViewCountDesc(@Param("status") ContentStatus status);
+
+    // Export : lecture en flux, Integer.MIN_VALUE active le streaming ligne par ligne du driver MySQL
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT n FROM News n ORDER BY n.id")
+    Stream<News> streamAllForExport();
 }
@@ -0,0 +1,30 @@
+package com.oussama.content_service.repository.projection;
+
+import com.oussama.content_service.enums.ContactStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection de liste des contacts, sans le message ni la réponse (colonnes TEXT).
+ */
+public interface ContactListItem {
+    Long getId();
+
+    String getName();
+
+    String getEmail();
+
+    String getPhoneNumber();
+
+    String getSubject();
+
+    ContactStatus getStatus();
+
+    LocalDateTime getRespondedAt();
+
+    Long getRespondedBy();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
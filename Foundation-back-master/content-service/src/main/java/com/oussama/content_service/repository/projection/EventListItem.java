@@ -0,0 +1,24 @@
+package com.oussama.content_service.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection de liste des événements, sans la description (colonne TEXT).
+ */
+public interface EventListItem {
+    Long getId();
+
+    String getTitle();
+
+    LocalDateTime getStartDate();
+
+    LocalDateTime getEndDate();
+
+    String getLocation();
+
+    String getImageUrl();
+
+    LocalDateTime getPublishedAt();
+
+    Boolean getPublished();
+}
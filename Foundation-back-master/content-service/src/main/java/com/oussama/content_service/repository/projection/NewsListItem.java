@@ -0,0 +1,25 @@
+package com.oussama.content_service.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection de liste des actualités : seul le début du corps (colonne TEXT) est lu,
+ * et aucune entité managée n'est créée dans le contexte de persistance.
+ */
+public interface NewsListItem {
+    Long getId();
+
+    String getTitle();
+
+    String getSlug();
+
+    String getBodyStart();
+
+    String getImageUrl();
+
+    String getCategory();
+
+    String getTagsJson();
+
+    LocalDateTime getPublishedAt();
+}
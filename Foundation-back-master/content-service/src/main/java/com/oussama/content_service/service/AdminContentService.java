@@ -3,6 +3,8 @@ package com.oussama.content_service.service;
 import com.oussama.content_service.Dto.*;
 import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface AdminContentService {
@@ -15,6 +17,7 @@ public interface AdminContentService {
     void deleteNews(Long id);
     NewsDto publishNews(Long id);
     NewsDto unpublishNews(Long id);
+    void exportNews(OutputStream outputStream) throws IOException;
     
     // Event CRUD
     List<EventDto> getAllEvents();
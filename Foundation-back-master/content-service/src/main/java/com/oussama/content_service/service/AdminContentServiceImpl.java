@@ -1,19 +1,26 @@
 package com.oussama.content_service.service;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.oussama.content_service.Dto.*;
 import com.oussama.content_service.entity.*;
 import com.oussama.content_service.repository.*;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -25,6 +32,8 @@ public class AdminContentServiceImpl implements AdminContentService {
     private final PartnerRepository partnerRepository;
     private final ContactMessageRepository contactMessageRepository;
     private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final PartnerDirectory partnerDirectory;
 
     // News CRUD
     @Override
@@ -118,6 +127,28 @@ public class AdminContentServiceImpl implements AdminContentService {
         return convertNewsToDto(unpublishedNews);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void exportNews(OutputStream outputStream) throws IOException {
+        // Sérialisation élément par élément : ni la liste complète ni l'arbre JSON ne sont gardés en mémoire
+        try (Stream<News> newsStream = newsRepository.streamAllForExport();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            int count = 0;
+            Iterator<News> iterator = newsStream.iterator();
+            while (iterator.hasNext()) {
+                News news = iterator.next();
+                generator.writeObject(convertNewsToDto(news));
+                entityManager.detach(news);
+                if (++count % 100 == 0) {
+                    generator.flush();
+                }
+            }
+            generator.writeEndArray();
+            log.info("Exported {} news", count);
+        }
+    }
+
     // Event CRUD
     @Override
     @Transactional(readOnly = true)
@@ -240,6 +271,7 @@ public class AdminContentServiceImpl implements AdminContentService {
                 .build();
         
         Partner savedPartner = partnerRepository.save(partner);
+        partnerDirectory.refreshAfterCommit();
         log.info("Created partner: {}", savedPartner.getName());
         return convertPartnerToDto(savedPartner);
     }
@@ -258,6 +290,7 @@ public class AdminContentServiceImpl implements AdminContentService {
         partner.setEmail(partnerDto.getEmail());
         
         Partner updatedPartner = partnerRepository.save(partner);
+        partnerDirectory.refreshAfterCommit();
         log.info("Updated partner: {}", updatedPartner.getName());
         return convertPartnerToDto(updatedPartner);
     }
@@ -269,6 +302,7 @@ public class AdminContentServiceImpl implements AdminContentService {
             throw new RuntimeException("Partner not found");
         }
         partnerRepository.deleteById(id);
+        partnerDirectory.refreshAfterCommit();
         log.info("Deleted partner ID: {}", id);
     }
 
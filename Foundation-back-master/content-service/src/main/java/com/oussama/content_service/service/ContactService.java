@@ -6,6 +6,7 @@ import com.oussama.content_service.entity.response.PageResponse;
 import com.oussama.content_service.enums.ContactStatus;
 import com.oussama.content_service.mapper.ContentMapper;
 import com.oussama.content_service.repository.ContactRepository;
+import com.oussama.content_service.repository.projection.ContactListItem;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -86,26 +87,26 @@ public class ContactService {
 
     @Transactional(readOnly = true)
     public PageResponse<ContactDto> getAllContacts(Pageable pageable) {
-        Page<Contact> contactPage = contactRepository.findAllByOrderByCreatedAtDesc(pageable);
+        Page<ContactListItem> contactPage = contactRepository.findListItems(pageable);
         return buildPageResponse(contactPage);
     }
 
     @Transactional(readOnly = true)
     public PageResponse<ContactDto> getContactsByStatus(ContactStatus status, Pageable pageable) {
-        Page<Contact> contactPage = contactRepository.findByStatusOrderByCreatedAtDesc(status, pageable);
+        Page<ContactListItem> contactPage = contactRepository.findListItemsByStatus(status, pageable);
         return buildPageResponse(contactPage);
     }
 
     @Transactional(readOnly = true)
     public PageResponse<ContactDto> searchContacts(String keyword, Pageable pageable) {
-        Page<Contact> contactPage = contactRepository.searchByKeyword(keyword, pageable);
+        Page<ContactListItem> contactPage = contactRepository.searchListItems(keyword, pageable);
         return buildPageResponse(contactPage);
     }
 
     @Transactional(readOnly = true)
     public PageResponse<ContactDto> getContactsByDateRange(LocalDateTime startDate, LocalDateTime endDate,
                                                            ContactStatus status, Pageable pageable) {
-        Page<Contact> contactPage = contactRepository.findByStatusAndDateRange(status, startDate, endDate, pageable);
+        Page<ContactListItem> contactPage = contactRepository.findListItemsByStatusAndDateRange(status, startDate, endDate, pageable);
         return buildPageResponse(contactPage);
     }
 
@@ -119,7 +120,23 @@ public class ContactService {
         log.info("Contact deleted successfully: {}", id);
     }
 
-    private PageResponse<ContactDto> buildPageResponse(Page<Contact> contactPage) {
-        return PageResponse.from(contactPage).map(contentMapper::toContactDto);
+    private PageResponse<ContactDto> buildPageResponse(Page<ContactListItem> contactPage) {
+        return PageResponse.from(contactPage).map(this::toListDto);
+    }
+
+    // Le message et la réponse ne sont pas chargés pour les listes : voir getContactById
+    private ContactDto toListDto(ContactListItem contact) {
+        return ContactDto.builder()
+                .id(contact.getId())
+                .name(contact.getName())
+                .email(contact.getEmail())
+                .phoneNumber(contact.getPhoneNumber())
+                .subject(contact.getSubject())
+                .status(contact.getStatus())
+                .respondedAt(contact.getRespondedAt())
+                .respondedBy(contact.getRespondedBy())
+                .createdAt(contact.getCreatedAt())
+                .updatedAt(contact.getUpdatedAt())
+                .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.oussama.content_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oussama.content_service.Dto.FoundationInfoDto;
+import com.oussama.content_service.enums.InfoType;
+import com.oussama.content_service.mapper.ContentMapper;
+import com.oussama.content_service.repository.FoundationInfoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache versionné des informations actives de la fondation, groupées par type et triées
+ * par ordre d'affichage. La page "À propos" complète est sérialisée une seule fois par version.
+ * Chaque écriture incrémente la version après commit ; la lecture suivante reconstruit le cache.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FoundationInfoCache {
+
+    private final FoundationInfoRepository foundationInfoRepository;
+    private final ContentMapper contentMapper;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public List<FoundationInfoDto> getActive() {
+        return currentSnapshot().active();
+    }
+
+    public List<FoundationInfoDto> getActiveByType(InfoType type) {
+        return currentSnapshot().byType().getOrDefault(type, List.of());
+    }
+
+    public List<FoundationInfoDto> getActiveByTypes(List<InfoType> types) {
+        Snapshot current = currentSnapshot();
+        // Même ordre que la requête d'origine : ordre d'affichage global, tous types confondus
+        return current.active().stream()
+                .filter(info -> types.contains(info.getType()))
+                .toList();
+    }
+
+    /**
+     * Page complète pré-sérialisée en JSON et son ETag.
+     */
+    public Page getPage() {
+        Snapshot current = currentSnapshot();
+        return new Page(current.pagePayload(), current.etag());
+    }
+
+    public void invalidateAfterCommit() {
+        TransactionHooks.afterCommit(version::incrementAndGet);
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null || current.version() != version.get()) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null || current.version() != version.get()) {
+                    current = build();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot build() {
+        // Version lue avant la requête : une écriture concurrente provoquera une nouvelle reconstruction
+        long buildVersion = version.get();
+
+        List<FoundationInfoDto> active = foundationInfoRepository.findByIsActiveTrueOrderByDisplayOrderAsc()
+                .stream()
+                .map(contentMapper::toFoundationInfoDto)
+                .toList();
+
+        Map<InfoType, List<FoundationInfoDto>> grouped = new EnumMap<>(InfoType.class);
+        for (FoundationInfoDto info : active) {
+            if (info.getType() != null) {
+                grouped.computeIfAbsent(info.getType(), type -> new ArrayList<>()).add(info);
+            }
+        }
+        Map<InfoType, List<FoundationInfoDto>> byType = new EnumMap<>(InfoType.class);
+        grouped.forEach((type, infos) -> byType.put(type, List.copyOf(infos)));
+
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("sections", byType);
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(page);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize foundation info page", e);
+        }
+        String etag = "\"" + DigestUtils.md5DigestAsHex(payload) + "\"";
+
+        log.info("Foundation info cache rebuilt: {} active items, version {}", active.size(), buildVersion);
+        return new Snapshot(buildVersion, active, Collections.unmodifiableMap(byType), payload, etag);
+    }
+
+    public record Page(byte[] payload, String etag) {
+    }
+
+    // Les DTO du cache sont partagés entre requêtes : ils ne doivent être que sérialisés
+    private record Snapshot(long version,
+                            List<FoundationInfoDto> active,
+                            Map<InfoType, List<FoundationInfoDto>> byType,
+                            byte[] pagePayload,
+                            String etag) {
+    }
+}
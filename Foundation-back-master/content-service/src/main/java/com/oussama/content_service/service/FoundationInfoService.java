@@ -8,6 +8,7 @@ import com.oussama.content_service.repository.FoundationInfoRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -21,6 +22,7 @@ public class FoundationInfoService {
 
     private final FoundationInfoRepository foundationInfoRepository;
     private final ContentMapper contentMapper;
+    private final FoundationInfoCache foundationInfoCache;
 
     public FoundationInfoDto createFoundationInfo(FoundationInfoDto foundationInfoDto) {
         log.info("Creating foundation info: {}", foundationInfoDto.getTitle());
@@ -41,6 +43,7 @@ public class FoundationInfoService {
         }
 
         foundationInfo = foundationInfoRepository.save(foundationInfo);
+        foundationInfoCache.invalidateAfterCommit();
         log.info("Foundation info created with ID: {}", foundationInfo.getId());
 
         return contentMapper.toFoundationInfoDto(foundationInfo);
@@ -72,6 +75,7 @@ public class FoundationInfoService {
         // Ne pas mettre à jour : id, createdAt, updatedAt
 
         foundationInfo = foundationInfoRepository.save(foundationInfo);
+        foundationInfoCache.invalidateAfterCommit();
 
         log.info("Foundation info updated successfully: {}", id);
         return contentMapper.toFoundationInfoDto(foundationInfo);
@@ -85,26 +89,25 @@ public class FoundationInfoService {
         return contentMapper.toFoundationInfoDto(foundationInfo);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<FoundationInfoDto> getAllActiveFoundationInfo() {
-        return foundationInfoRepository.findByIsActiveTrueOrderByDisplayOrderAsc()
-                .stream()
-                .map(contentMapper::toFoundationInfoDto)
-                .toList();
+        return foundationInfoCache.getActive();
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<FoundationInfoDto> getFoundationInfoByType(InfoType type) {
-        return foundationInfoRepository.findByTypeAndIsActiveTrue(type)
-                .map(contentMapper::toFoundationInfoDto);
+        return foundationInfoCache.getActiveByType(type).stream().findFirst();
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<FoundationInfoDto> getFoundationInfoByTypes(List<InfoType> types) {
-        return foundationInfoRepository.findByTypeInAndIsActiveTrueOrderByDisplayOrderAsc(types)
-                .stream()
-                .map(contentMapper::toFoundationInfoDto)
-                .toList();
+        return foundationInfoCache.getActiveByTypes(types);
+    }
+
+    // Page "À propos" complète, déjà sérialisée
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public FoundationInfoCache.Page getFoundationPage() {
+        return foundationInfoCache.getPage();
     }
 
     @Transactional(readOnly = true)
@@ -123,6 +126,7 @@ public class FoundationInfoService {
 
         foundationInfo.setIsActive(true);
         foundationInfo = foundationInfoRepository.save(foundationInfo);
+        foundationInfoCache.invalidateAfterCommit();
 
         log.info("Foundation info activated successfully: {}", id);
         return contentMapper.toFoundationInfoDto(foundationInfo);
@@ -136,6 +140,7 @@ public class FoundationInfoService {
 
         foundationInfo.setIsActive(false);
         foundationInfo = foundationInfoRepository.save(foundationInfo);
+        foundationInfoCache.invalidateAfterCommit();
 
         log.info("Foundation info deactivated successfully: {}", id);
         return contentMapper.toFoundationInfoDto(foundationInfo);
@@ -152,6 +157,7 @@ public class FoundationInfoService {
             foundationInfo.setDisplayOrder(i + 1);
             foundationInfoRepository.save(foundationInfo);
         }
+        foundationInfoCache.invalidateAfterCommit();
 
         log.info("Foundation info items reordered successfully");
     }
@@ -163,6 +169,7 @@ public class FoundationInfoService {
                 .orElseThrow(() -> new RuntimeException("Foundation info not found with ID: " + id));
 
         foundationInfoRepository.delete(foundationInfo);
+        foundationInfoCache.invalidateAfterCommit();
         log.info("Foundation info deleted successfully: {}", id);
     }
 }
@@ -0,0 +1,183 @@
+package com.oussama.content_service.service;
+
+import com.oussama.content_service.Dto.ImageUploadResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stocke les images originales (actualités, événements, logos partenaires) sur le disque local
+ * et génère les miniatures JPEG en arrière-plan sur un pool dédié.
+ */
+@Service
+@Slf4j
+public class ImageStorageService {
+
+    public static final String PUBLIC_URL_PREFIX = "/files/images/";
+    public static final String THUMBNAIL_DIR = "thumbs";
+
+    private final TaskExecutor imageProcessingExecutor;
+    private final Path uploadPath;
+    private final long maxImageSize;
+    private final List<Integer> thumbnailWidths;
+    private final float jpegQuality;
+
+    public ImageStorageService(@Qualifier("imageProcessingExecutor") TaskExecutor imageProcessingExecutor,
+                               @Value("${upload.image.dir:./uploads/images}") String imageUploadDir,
+                               @Value("${upload.image.max-size:5242880}") long maxImageSize,
+                               @Value("${upload.image.thumbnail-widths:320,800}") Integer[] thumbnailWidths,
+                               @Value("${upload.image.jpeg-quality:0.8}") float jpegQuality) {
+        this.imageProcessingExecutor = imageProcessingExecutor;
+        this.uploadPath = Paths.get(imageUploadDir).toAbsolutePath().normalize();
+        this.maxImageSize = maxImageSize;
+        this.thumbnailWidths = Arrays.asList(thumbnailWidths);
+        this.jpegQuality = jpegQuality;
+    }
+
+    public ImageUploadResponse storeImage(MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new RuntimeException("Image file cannot be empty");
+        }
+
+        if (file.getSize() > maxImageSize) {
+            throw new RuntimeException("Image file size exceeds maximum limit of " + (maxImageSize / 1024 / 1024) + "MB");
+        }
+
+        String originalFilename = file.getOriginalFilename();
+        String fileExtension = originalFilename != null && originalFilename.contains(".")
+                ? originalFilename.substring(originalFilename.lastIndexOf(".")).toLowerCase()
+                : "";
+
+        if (!isValidImageExtension(fileExtension)) {
+            throw new RuntimeException("Invalid file type. Only JPG, PNG, and GIF are allowed");
+        }
+
+        String baseName = UUID.randomUUID().toString();
+        String filename = baseName + fileExtension;
+
+        try {
+            Files.createDirectories(uploadPath.resolve(THUMBNAIL_DIR));
+
+            Path originalPath = uploadPath.resolve(filename);
+            file.transferTo(originalPath);
+
+            Map<Integer, String> thumbnailUrls = new LinkedHashMap<>();
+            for (Integer width : thumbnailWidths) {
+                thumbnailUrls.put(width, PUBLIC_URL_PREFIX + THUMBNAIL_DIR + "/" + thumbnailName(baseName, width));
+            }
+
+            scheduleThumbnails(originalPath, baseName);
+
+            log.info("Image stored: {}", filename);
+            return ImageUploadResponse.builder()
+                    .originalUrl(PUBLIC_URL_PREFIX + filename)
+                    .thumbnailUrls(thumbnailUrls)
+                    .build();
+
+        } catch (IOException e) {
+            log.error("Error storing image", e);
+            throw new RuntimeException("Failed to store image", e);
+        }
+    }
+
+    public Path getUploadPath() {
+        return uploadPath;
+    }
+
+    private void scheduleThumbnails(Path originalPath, String baseName) {
+        try {
+            imageProcessingExecutor.execute(() -> generateThumbnails(originalPath, baseName));
+        } catch (TaskRejectedException e) {
+            // Le pool est saturé : l'original reste servi, les miniatures ne seront pas générées
+            log.warn("Thumbnail generation rejected for {}: worker queue is full", originalPath.getFileName());
+        }
+    }
+
+    private void generateThumbnails(Path originalPath, String baseName) {
+        try {
+            BufferedImage source = ImageIO.read(originalPath.toFile());
+            if (source == null) {
+                log.warn("Unreadable image, no thumbnails generated: {}", originalPath.getFileName());
+                return;
+            }
+
+            for (Integer width : thumbnailWidths) {
+                BufferedImage resized = resize(source, width);
+                Path target = uploadPath.resolve(THUMBNAIL_DIR).resolve(thumbnailName(baseName, width));
+                writeJpeg(resized, target);
+            }
+            log.info("Thumbnails generated for: {}", originalPath.getFileName());
+
+        } catch (IOException e) {
+            log.error("Error generating thumbnails for {}", originalPath.getFileName(), e);
+        }
+    }
+
+    private BufferedImage resize(BufferedImage source, int targetWidth) {
+        int width = Math.min(targetWidth, source.getWidth());
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+
+        // JPEG ne gère pas la transparence : fond blanc pour les PNG/GIF
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        // Écriture dans un fichier temporaire puis déplacement atomique :
+        // une miniature partiellement écrite n'est jamais servie
+        Path tmp = Files.createTempFile(target.getParent(), "thumb-", ".tmp");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(tmp.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private String thumbnailName(String baseName, int width) {
+        return baseName + "-w" + width + ".jpg";
+    }
+
+    private boolean isValidImageExtension(String extension) {
+        return extension.matches("\\.(jpg|jpeg|png|gif)$");
+    }
+}
@@ -0,0 +1,86 @@
+package com.oussama.content_service.service;
+
+import com.oussama.content_service.Dto.PartnerDto;
+import com.oussama.content_service.entity.Partner;
+import com.oussama.content_service.repository.PartnerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Annuaire des partenaires en mémoire : un instantané immuable de tous les partenaires
+ * et un index par secteur, remplacés d'un bloc après chaque écriture.
+ * Les lectures publiques ne touchent jamais la base.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PartnerDirectory {
+
+    private final PartnerRepository partnerRepository;
+
+    private volatile Snapshot snapshot;
+
+    public List<PartnerDto> getAll() {
+        return currentSnapshot().all();
+    }
+
+    public List<PartnerDto> getBySector(String sector) {
+        // Même comportement que la collation MySQL par défaut : secteur insensible à la casse
+        return currentSnapshot().bySector().getOrDefault(sectorKey(sector), List.of());
+    }
+
+    /**
+     * Relit tous les partenaires et publie un nouvel instantané.
+     * Synchronisé : les reconstructions s'exécutent dans l'ordre des commits qui les déclenchent.
+     */
+    public synchronized void refresh() {
+        List<PartnerDto> all = partnerRepository.findAll().stream()
+                .map(this::toDto)
+                .collect(Collectors.toUnmodifiableList());
+
+        Map<String, List<PartnerDto>> bySector = all.stream()
+                .collect(Collectors.groupingBy(partner -> sectorKey(partner.getSector()),
+                        Collectors.toUnmodifiableList()));
+
+        snapshot = new Snapshot(all, Map.copyOf(bySector));
+        log.info("Partner directory rebuilt: {} partners, {} sectors", all.size(), bySector.size());
+    }
+
+    public void refreshAfterCommit() {
+        TransactionHooks.afterCommit(this::refresh);
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private String sectorKey(String sector) {
+        return sector == null ? "" : sector.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private PartnerDto toDto(Partner partner) {
+        PartnerDto dto = new PartnerDto();
+        BeanUtils.copyProperties(partner, dto);
+        return dto;
+    }
+
+    // Les DTO de l'instantané sont partagés entre requêtes : ils ne doivent être que sérialisés
+    private record Snapshot(List<PartnerDto> all, Map<String, List<PartnerDto>> bySector) {
+    }
+}
@@ -10,7 +10,7 @@ public interface PublicContentService {
     
     HomeResponse getHomeData();
     
-    PageResponse<NewsDto> getPublishedNews(String query, String category, int page, int size);
+    PageResponse<NewsSummaryDto> getPublishedNews(String query, String category, int page, int size);
     
     NewsDto getNewsBySlug(String slug);
     
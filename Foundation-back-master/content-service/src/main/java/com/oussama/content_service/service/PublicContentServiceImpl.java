@@ -6,6 +6,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.oussama.content_service.Dto.*;
 import com.oussama.content_service.entity.*;
 import com.oussama.content_service.repository.*;
+import com.oussama.content_service.repository.projection.EventListItem;
+import com.oussama.content_service.repository.projection.NewsListItem;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
@@ -26,10 +28,12 @@ import java.util.stream.Collectors;
 @Slf4j
 public class PublicContentServiceImpl implements PublicContentService {
 
+    private static final int EXCERPT_LENGTH = 200;
+
     private final SiteInfoRepository siteInfoRepository;
     private final NewsRepository newsRepository;
     private final EventRepository eventRepository;
-    private final PartnerRepository partnerRepository;
+    private final PartnerDirectory partnerDirectory;
     private final ContactMessageRepository contactMessageRepository;
     private final ObjectMapper objectMapper;
 
@@ -57,16 +61,16 @@ public class PublicContentServiceImpl implements PublicContentService {
 
     @Override
     @Transactional(readOnly = true)
-    public PageResponse<NewsDto> getPublishedNews(String query, String category, int page, int size) {
+    public PageResponse<NewsSummaryDto> getPublishedNews(String query, String category, int page, int size) {
         Pageable pageable = PageRequest.of(page - 1, size);
         
-        Page<News> newsPage = newsRepository.findPublishedNewsWithFilters(query, category, pageable);
+        Page<NewsListItem> newsPage = newsRepository.findPublishedNewsListItems(query, category, pageable);
         
-        List<NewsDto> newsDtos = newsPage.getContent().stream()
-                .map(this::convertNewsToDto)
+        List<NewsSummaryDto> newsDtos = newsPage.getContent().stream()
+                .map(this::convertNewsToSummaryDto)
                 .collect(Collectors.toList());
         
-        return PageResponse.<NewsDto>builder()
+        return PageResponse.<NewsSummaryDto>builder()
                 .content(newsDtos)
                 .page(page)
                 .size(size)
@@ -89,23 +93,19 @@ public class PublicContentServiceImpl implements PublicContentService {
     @Override
     @Transactional(readOnly = true)
     public List<EventDto> getUpcomingEvents(LocalDateTime fromDate) {
-        List<Event> events = eventRepository.findUpcomingEvents(fromDate);
+        List<EventListItem> events = eventRepository.findUpcomingEventListItems(fromDate);
         
         return events.stream()
-                .map(this::convertEventToDto)
+                .map(this::convertEventListItemToDto)
                 .collect(Collectors.toList());
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<PartnerDto> getPartnersBySector(String sector) {
-        List<Partner> partners = sector != null ? 
-                partnerRepository.findBySector(sector) : 
-                partnerRepository.findAll();
-        
-        return partners.stream()
-                .map(this::convertPartnerToDto)
-                .collect(Collectors.toList());
+        // Servi depuis l'instantané en mémoire, reconstruit à chaque écriture admin
+        return sector != null ?
+                partnerDirectory.getBySector(sector) :
+                partnerDirectory.getAll();
     }
 
     @Override
@@ -149,28 +149,68 @@ public class PublicContentServiceImpl implements PublicContentService {
         
         // Convert tags JSON to List
         if (news.getTagsJson() != null) {
-            try {
-                List<String> tags = objectMapper.readValue(news.getTagsJson(), new TypeReference<List<String>>() {});
-                dto.setTags(tags);
-            } catch (JsonProcessingException e) {
-                log.error("Error parsing tags JSON for news: {}", news.getId(), e);
-                dto.setTags(List.of());
-            }
+            dto.setTags(parseTags(news.getId(), news.getTagsJson()));
         }
         
         return dto;
     }
 
+    private List<String> parseTags(Long newsId, String tagsJson) {
+        if (tagsJson == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(tagsJson, new TypeReference<List<String>>() {});
+        } catch (JsonProcessingException e) {
+            log.error("Error parsing tags JSON for news: {}", newsId, e);
+            return List.of();
+        }
+    }
+
+    private NewsSummaryDto convertNewsToSummaryDto(NewsListItem news) {
+        return NewsSummaryDto.builder()
+                .id(news.getId())
+                .title(news.getTitle())
+                .slug(news.getSlug())
+                .excerpt(buildExcerpt(news.getBodyStart()))
+                .imageUrl(news.getImageUrl())
+                .category(news.getCategory())
+                .tags(parseTags(news.getId(), news.getTagsJson()))
+                .publishedAt(news.getPublishedAt())
+                .build();
+    }
+
+    private String buildExcerpt(String body) {
+        if (body == null) {
+            return null;
+        }
+        // Le corps peut contenir du HTML : on ne garde que le texte
+        String text = body.replaceAll("<[^>]*>", " ").replaceAll("\\s+", " ").trim();
+        if (text.length() <= EXCERPT_LENGTH) {
+            return text;
+        }
+        int cut = text.lastIndexOf(' ', EXCERPT_LENGTH);
+        return text.substring(0, cut > 0 ? cut : EXCERPT_LENGTH) + "…";
+    }
+
     private EventDto convertEventToDto(Event event) {
         EventDto dto = new EventDto();
         BeanUtils.copyProperties(event, dto);
         return dto;
     }
 
-    private PartnerDto convertPartnerToDto(Partner partner) {
-        PartnerDto dto = new PartnerDto();
-        BeanUtils.copyProperties(partner, dto);
-        return dto;
+    private EventDto convertEventListItemToDto(EventListItem event) {
+        // La description n'est pas chargée pour les listes
+        return EventDto.builder()
+                .id(event.getId())
+                .title(event.getTitle())
+                .startDate(event.getStartDate())
+                .endDate(event.getEndDate())
+                .location(event.getLocation())
+                .imageUrl(event.getImageUrl())
+                .publishedAt(event.getPublishedAt())
+                .published(event.getPublished())
+                .build();
     }
 
     private ContactMessageDto convertContactMessageToDto(ContactMessage contactMessage) {
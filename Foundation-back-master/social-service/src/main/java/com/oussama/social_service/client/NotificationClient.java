@@ -0,0 +1,17 @@
+package com.oussama.social_service.client;
+
+import com.oussama.social_service.dto.EmailRequest;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+
+/**
+ * notification-service, résolu par Eureka sauf si social.notifications.url est renseignée.
+ */
+@FeignClient(name = "notification-service", url = "${social.notifications.url:}")
+public interface NotificationClient {
+
+    @PostMapping("/api/notify/email")
+    void sendEmail(@RequestHeader("Idempotency-Key") String idempotencyKey, @RequestBody EmailRequest emailRequest);
+}
@@ -0,0 +1,65 @@
+package com.oussama.social_service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Réplica en lecture, actif seulement si social.datasource.replica.url est renseignée ; sinon la source
+ * de données auto-configurée (spring.datasource.*) est utilisée seule.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "social.datasource.replica", name = "url")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(@Value("${social.datasource.replica.url}") String url,
+                                              @Value("${social.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${social.datasource.replica.password:${spring.datasource.password:}}") String password,
+                                              @Value("${social.datasource.replica.maximum-pool-size:10}") int maximumPoolSize) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             HikariDataSource replicaDataSource,
+                                                             @Value("${social.datasource.replica.lag-query:SHOW REPLICA STATUS}") String lagQuery,
+                                                             @Value("${social.datasource.replica.max-lag-seconds:5}") long maxLagSeconds,
+                                                             @Value("${social.datasource.replica.lag-check-interval-ms:5000}") long lagCheckIntervalMillis) {
+        return new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, lagQuery, maxLagSeconds,
+                lagCheckIntervalMillis);
+    }
+
+    // Source utilisée par JPA, Flyway et JdbcTemplate
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,168 @@
+package com.oussama.social_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Envoie les transactions en lecture seule vers le réplica, tout le reste vers le primaire. Le réplica est
+ * écarté tant que son retard de réplication dépasse maxLagSeconds (ou ne peut pas être mesuré, y compris avant
+ * la première mesure), et un utilisateur qui vient d'écrire lit sur le primaire le temps que son écriture
+ * atteigne le réplica pour retrouver ses propres écritures.
+ *
+ * Doit être enveloppée dans un LazyConnectionDataSourceProxy : la connexion n'est choisie qu'à la première
+ * requête, une fois le caractère lecture seule de la transaction connu.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    // Colonnes de SHOW REPLICA STATUS (MySQL 8.0.22+) puis SHOW SLAVE STATUS
+    private static final Set<String> LAG_COLUMNS = Set.of("seconds_behind_source", "seconds_behind_master");
+
+    private static final ThreadLocal<String> CURRENT_USER = new ThreadLocal<>();
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final long maxLagSeconds;
+    private final long stickyMillis;
+
+    // Utilisateur -> fin de la lecture sur le primaire (epoch ms)
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+    private volatile boolean replicaAvailable;
+    private volatile Long lastLagSeconds;
+
+    private final AtomicLong replicaConnections = new AtomicLong();
+    private final AtomicLong primaryConnections = new AtomicLong();
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                                    String lagQuery, long maxLagSeconds, long lagCheckIntervalMillis) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+        // Le réplica reste en rotation avec au plus maxLagSeconds de retard à la dernière mesure, et ce retard
+        // peut croître jusqu'à la mesure suivante : une écriture y est visible au plus tard après cette somme
+        this.stickyMillis = maxLagSeconds * 1000 + lagCheckIntervalMillis;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        // Première mesure avant toute lecture, sans attendre la tâche planifiée
+        checkReplicaLag();
+    }
+
+    /**
+     * Utilisateur de la requête en cours, pour la lecture de ses propres écritures ; null hors requête.
+     */
+    public static void setCurrentUser(String userKey) {
+        if (userKey != null) {
+            CURRENT_USER.set(userKey);
+        } else {
+            CURRENT_USER.remove();
+        }
+    }
+
+    long getStickyMillis() {
+        return stickyMillis;
+    }
+
+    public void markWrite(String userKey) {
+        if (userKey != null) {
+            stickyUntil.put(userKey, System.currentTimeMillis() + stickyMillis);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Target target = route();
+        (target == Target.REPLICA ? replicaConnections : primaryConnections).incrementAndGet();
+        return target;
+    }
+
+    Target route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || !replicaAvailable) {
+            return Target.PRIMARY;
+        }
+        String user = CURRENT_USER.get();
+        Long until = user != null ? stickyUntil.get(user) : null;
+        if (until != null && until > System.currentTimeMillis()) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+
+    /**
+     * Mesure le retard du réplica et purge les fenêtres de lecture sur le primaire expirées.
+     */
+    @Scheduled(fixedDelayString = "${social.datasource.replica.lag-check-interval-ms:5000}")
+    public void checkReplicaLag() {
+        Long lag = measureLag();
+        boolean available = lag != null && lag <= maxLagSeconds;
+        if (available != replicaAvailable) {
+            if (available) {
+                log.info("Read replica back in rotation (lag {}s)", lag);
+            } else {
+                log.warn("Read replica out of rotation (lag {}s, max {}s)", lag, maxLagSeconds);
+            }
+        }
+        lastLagSeconds = lag;
+        replicaAvailable = available;
+
+        long now = System.currentTimeMillis();
+        stickyUntil.values().removeIf(until -> until <= now);
+    }
+
+    public Map<String, Object> getStats() {
+        Long lag = lastLagSeconds;
+        return Map.of(
+                "replicaAvailable", replicaAvailable,
+                "lagSeconds", lag != null ? lag : -1L,
+                "stickyUsers", stickyUntil.size(),
+                "replicaConnections", replicaConnections.get(),
+                "primaryConnections", primaryConnections.get());
+    }
+
+    // Retard en secondes ; null si le réplica est injoignable ou ne réplique pas
+    private Long measureLag() {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) {
+                return null;
+            }
+            int column = 1;
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                if (LAG_COLUMNS.contains(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT))) {
+                    column = i;
+                    break;
+                }
+            }
+            long lag = resultSet.getLong(column);
+            return resultSet.wasNull() ? null : lag;
+        } catch (SQLException e) {
+            log.warn("Cannot measure read replica lag: {}", e.getMessage());
+            return null;
+        }
+    }
+}
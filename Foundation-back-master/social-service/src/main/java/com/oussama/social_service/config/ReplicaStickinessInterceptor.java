@@ -0,0 +1,54 @@
+package com.oussama.social_service.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Set;
+
+/**
+ * Identifie l'utilisateur de chaque requête pour le routage vers le réplica, et ouvre sa fenêtre de lecture
+ * sur le primaire pendant et après toute requête d'écriture (méthodes autres que GET, HEAD, OPTIONS).
+ */
+public class ReplicaStickinessInterceptor implements HandlerInterceptor {
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    public ReplicaStickinessInterceptor(ReplicaRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String userKey = userKey(request);
+        ReplicaRoutingDataSource.setCurrentUser(userKey);
+        // Dès le début : une lecture concurrente de l'utilisateur ne doit pas précéder la fenêtre
+        if (!READ_METHODS.contains(request.getMethod())) {
+            routingDataSource.markWrite(userKey);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!READ_METHODS.contains(request.getMethod())) {
+            routingDataSource.markWrite(userKey(request));
+        }
+        ReplicaRoutingDataSource.setCurrentUser(null);
+    }
+
+    // Email ou identifiant transmis par la gateway ; à défaut, l'adresse du client
+    private static String userKey(HttpServletRequest request) {
+        String email = request.getHeader("X-User-Email");
+        if (email != null && !email.isBlank()) {
+            return email;
+        }
+        String userId = request.getHeader("X-User-Id");
+        if (userId != null && !userId.isBlank()) {
+            return "id:" + userId;
+        }
+        return "addr:" + request.getRemoteAddr();
+    }
+}
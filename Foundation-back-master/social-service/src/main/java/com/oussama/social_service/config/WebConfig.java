@@ -1,19 +1,34 @@
 package com.oussama.social_service.config;
 
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource;
+
+    public WebConfig(ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource) {
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
                 .allowedOrigins("http://localhost:4200")
-                .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders("Upload-Offset", "Content-Range", "Content-Disposition", "Idempotent-Replayed")
                 .allowCredentials(true);
     }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Lecture de ses propres écritures, seulement si un réplica est configuré
+        replicaRoutingDataSource.ifAvailable(routing -> registry.addInterceptor(new ReplicaStickinessInterceptor(routing)));
+    }
 }
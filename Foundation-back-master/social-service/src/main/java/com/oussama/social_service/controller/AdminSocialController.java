@@ -1,18 +1,43 @@
 package com.oussama.social_service.controller;
 
+import com.oussama.social_service.config.ReplicaRoutingDataSource;
 import com.oussama.social_service.dto.*;
+import com.oussama.social_service.enums.AnalyticsGranularity;
+import com.oussama.social_service.enums.OutboxStatus;
+import com.oussama.social_service.enums.PrestationCategory;
 import com.oussama.social_service.service.AdminSocialService;
+import com.oussama.social_service.service.AttachmentStorageService;
+import com.oussama.social_service.service.AvisModerationQueue;
+import com.oussama.social_service.service.AvisPreClassifier;
+import com.oussama.social_service.service.DashboardStatsService;
+import com.oussama.social_service.service.DemandeService;
+import com.oussama.social_service.service.DemandeSlaMonitor;
+import com.oussama.social_service.service.DemandeAnalyticsService;
+import com.oussama.social_service.service.DemandeEventLog;
+import com.oussama.social_service.service.NotificationRelay;
+import com.oussama.social_service.service.PaymentBatchService;
+import com.oussama.social_service.service.PrestationCatalog;
+import com.oussama.social_service.service.SearchIndexService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin/social")
@@ -23,6 +48,81 @@ import java.util.List;
 public class AdminSocialController {
 
     private final AdminSocialService adminSocialService;
+    private final DashboardStatsService dashboardStatsService;
+    private final DemandeAnalyticsService demandeAnalyticsService;
+    private final AttachmentStorageService attachmentStorageService;
+    private final DemandeService demandeService;
+    private final DemandeSlaMonitor demandeSlaMonitor;
+    private final AvisModerationQueue avisModerationQueue;
+    private final AvisPreClassifier avisPreClassifier;
+    private final SearchIndexService searchIndexService;
+    private final PrestationCatalog prestationCatalog;
+    private final DemandeEventLog demandeEventLog;
+    private final NotificationRelay notificationRelay;
+    private final PaymentBatchService paymentBatchService;
+    private final ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource;
+
+    // Dashboard
+    @GetMapping("/dashboard/stats")
+    @Operation(summary = "Get dashboard statistics", description = "Returns demandes, amounts, prestations and avis statistics")
+    public ResponseEntity<DashboardStatsDto> getDashboardStats() {
+        return ResponseEntity.ok(dashboardStatsService.getStats());
+    }
+
+    // Analytics
+    @GetMapping("/analytics/demandes")
+    @Operation(summary = "Get demande analytics", description = "Returns demande volumes and amounts per period and category, served from daily rollups")
+    public ResponseEntity<List<DemandeAnalyticsDto>> getDemandeAnalytics(
+            @Parameter(description = "First day (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") AnalyticsGranularity granularity,
+            @RequestParam(required = false) PrestationCategory category) {
+        return ResponseEntity.ok(demandeAnalyticsService.getDemandeAnalytics(from, to, granularity, category));
+    }
+
+    @PostMapping("/analytics/demandes/rebuild")
+    @Operation(summary = "Rebuild demande analytics", description = "Recomputes the daily rollups from the full demande history")
+    public ResponseEntity<Map<String, Integer>> rebuildDemandeAnalytics() {
+        log.info("Rebuilding demande rollups");
+        int buckets = demandeAnalyticsService.rebuild();
+        return ResponseEntity.ok(Map.of("buckets", buckets));
+    }
+
+    @GetMapping("/dashboard/sla")
+    @Operation(summary = "Get SLA counters", description = "Returns live counts of pending demandes coming due or past their expected processing date")
+    public ResponseEntity<DemandeSlaStatsDto> getSlaStats() {
+        return ResponseEntity.ok(demandeSlaMonitor.getStats());
+    }
+
+    // Search index
+    @PostMapping("/search/rebuild")
+    @Operation(summary = "Rebuild search index", description = "Reloads the in-memory full-text index over demandes and approved avis")
+    public ResponseEntity<Map<String, Integer>> rebuildSearchIndex() {
+        log.info("Rebuilding search index");
+        searchIndexService.rebuild();
+        return ResponseEntity.ok(searchIndexService.getStats());
+    }
+
+    // Read replica
+    @GetMapping("/datasource/routing")
+    @Operation(summary = "Get read replica routing stats", description = "Returns replica availability, replication lag and connections routed to each pool")
+    public ResponseEntity<Map<String, Object>> getDataSourceRouting() {
+        ReplicaRoutingDataSource routing = replicaRoutingDataSource.getIfAvailable();
+        return ResponseEntity.ok(routing != null ? routing.getStats() : Map.of("replicaConfigured", false));
+    }
+
+    // Notification outbox
+    @GetMapping("/notifications/outbox/stats")
+    @Operation(summary = "Get notification outbox stats", description = "Returns the number of outbox notifications pending, sent and abandoned")
+    public ResponseEntity<Map<OutboxStatus, Long>> getNotificationOutboxStats() {
+        return ResponseEntity.ok(notificationRelay.getStats());
+    }
+
+    @PostMapping("/notifications/outbox/retry")
+    @Operation(summary = "Retry failed notifications", description = "Queues notifications abandoned after the maximum number of attempts again")
+    public ResponseEntity<Map<String, Integer>> retryFailedNotifications() {
+        return ResponseEntity.ok(Map.of("queued", notificationRelay.retryFailed()));
+    }
 
     // Prestations CRUD
     @GetMapping("/prestations")
@@ -33,6 +133,13 @@ public class AdminSocialController {
         return ResponseEntity.ok(prestations);
     }
 
+    @PostMapping("/prestations/catalog/refresh")
+    @Operation(summary = "Refresh prestation catalog", description = "Reloads the in-memory prestation catalog and returns its new version")
+    public ResponseEntity<Map<String, Long>> refreshPrestationCatalog() {
+        long version = prestationCatalog.refresh();
+        return ResponseEntity.ok(Map.of("version", version, "prestations", (long) prestationCatalog.size()));
+    }
+
     @GetMapping("/prestations/{id}")
     @Operation(summary = "Get prestation by ID", description = "Returns a specific prestation")
     public ResponseEntity<PrestationDto> getPrestationById(@Parameter(description = "Prestation ID") @PathVariable Long id) {
@@ -96,17 +203,118 @@ public class AdminSocialController {
         return ResponseEntity.ok(updatedDemande);
     }
 
+    @PostMapping("/demandes/status/bulk")
+    @Operation(summary = "Bulk update demande status", description = "Applies one status transition to many demandes in a single transaction; invalid transitions are skipped and reported")
+    public ResponseEntity<DemandeBulkStatusResult> bulkUpdateDemandeStatus(
+            @Valid @RequestBody DemandeBulkStatusRequest request,
+            @RequestHeader(value = "X-User-Id", required = false) Long processedBy,
+            @RequestHeader(value = "X-User-Name", required = false) String processedByName) {
+
+        log.info("Bulk updating {} demandes to: {}", request.getDemandeIds().size(), request.getStatus());
+        return ResponseEntity.ok(demandeService.bulkUpdateStatus(request, processedBy, processedByName));
+    }
+
+    @GetMapping("/demandes/{id}/timeline")
+    @Operation(summary = "Get demande timeline", description = "Returns the append-only event history of a demande, including deleted demandes")
+    public ResponseEntity<List<DemandeEventDto>> getDemandeTimeline(@Parameter(description = "Demande ID") @PathVariable Long id) {
+        return ResponseEntity.ok(demandeEventLog.getTimeline(id));
+    }
+
+    @GetMapping("/projections/users/{userId}")
+    @Operation(summary = "Rebuild user projection", description = "Replays the demande event log of a user and returns the resulting status counts and amounts")
+    public ResponseEntity<DemandeProjectionDto> getUserProjection(@Parameter(description = "User ID") @PathVariable Long userId) {
+        return ResponseEntity.ok(demandeEventLog.rebuildUserProjection(userId));
+    }
+
+    @GetMapping("/projections/prestations/{prestationId}")
+    @Operation(summary = "Rebuild prestation projection", description = "Replays the demande event log of a prestation and returns the resulting status counts and amounts")
+    public ResponseEntity<DemandeProjectionDto> getPrestationProjection(@Parameter(description = "Prestation ID") @PathVariable Long prestationId) {
+        return ResponseEntity.ok(demandeEventLog.rebuildPrestationProjection(prestationId));
+    }
+
+    // Payments
+    @PostMapping("/payments/batches")
+    @Operation(summary = "Export payment batch", description = "Writes every approved demande to a new bank transfer file and marks them paid, in chunks")
+    public ResponseEntity<PaymentBatchDto> exportPaymentBatch(
+            @RequestHeader(value = "X-User-Id", required = false) Long processedBy,
+            @RequestHeader(value = "X-User-Name", required = false) String processedByName) {
+        log.info("Exporting payment batch by admin: {}", processedByName);
+        return ResponseEntity.status(HttpStatus.CREATED).body(paymentBatchService.exportApproved(processedBy, processedByName));
+    }
+
+    @GetMapping("/payments/batches/{batchId}/file")
+    @Operation(summary = "Download payment batch file", description = "Returns the CSV bank transfer file of a payment batch, rebuilt from its payment references if missing")
+    public ResponseEntity<Resource> downloadPaymentBatch(@Parameter(description = "Batch ID") @PathVariable String batchId) {
+        return AttachmentController.toDownload(paymentBatchService.getExportFile(batchId));
+    }
+
+    @PostMapping(value = "/payments/reconcile", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Reconcile bank status file", description = "Applies a bank status file (reference,status[,reason]): rejected payments return to APPROVED")
+    public ResponseEntity<PaymentReconciliationResult> reconcilePayments(
+            @RequestParam("file") MultipartFile file,
+            @RequestHeader(value = "X-User-Id", required = false) Long processedBy,
+            @RequestHeader(value = "X-User-Name", required = false) String processedByName) throws IOException {
+        try (InputStream input = file.getInputStream()) {
+            return ResponseEntity.ok(paymentBatchService.reconcile(input, processedBy, processedByName));
+        }
+    }
+
+    @GetMapping("/demandes/{id}/attachments")
+    @Operation(summary = "Get demande attachments", description = "Returns the attachments uploaded for a demande")
+    public ResponseEntity<List<AttachmentDto>> getDemandeAttachments(@Parameter(description = "Demande ID") @PathVariable Long id) {
+        return ResponseEntity.ok(attachmentStorageService.getDemandeAttachments(id));
+    }
+
+    @GetMapping("/attachments/{id}/content")
+    @Operation(summary = "Download attachment", description = "Streams the attachment content; supports HTTP Range requests")
+    public ResponseEntity<Resource> downloadAttachment(@Parameter(description = "Attachment ID") @PathVariable Long id) {
+        return AttachmentController.toDownload(attachmentStorageService.getContent(id, null));
+    }
+
     // Avis Admin
-    @GetMapping("/avis")
-    @Operation(summary = "List pending avis", description = "Returns paginated list of pending avis")
-    public ResponseEntity<PageResponse<AvisDto>> getPendingAvis(
-            @Parameter(description = "Page number (1-based)") @RequestParam(defaultValue = "1") int page,
-            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
-        
-        log.info("Getting pending avis - page: {}, size: {}", page, size);
-        
-        PageResponse<AvisDto> response = adminSocialService.getPendingAvis(page, size);
-        return ResponseEntity.ok(response);
+    @PostMapping("/avis/moderation/claim")
+    @Operation(summary = "Claim avis to moderate", description = "Leases the oldest pending avis to the calling moderator; leased avis are not handed to other moderators until the lease expires")
+    public ResponseEntity<ModerationBatchDto> claimAvis(
+            @RequestHeader("X-User-Id") Long moderatorId,
+            @Parameter(description = "Batch size") @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(avisModerationQueue.claim(moderatorId, size));
+    }
+
+    @PostMapping("/avis/moderation/decisions")
+    @Operation(summary = "Moderate claimed avis", description = "Approves and rejects avis leased by the calling moderator in a single transaction; other avis are skipped and reported")
+    public ResponseEntity<ModerationResult> moderateAvis(
+            @RequestHeader("X-User-Id") Long moderatorId,
+            @Valid @RequestBody ModerationDecisionRequest request) {
+        log.info("Moderator {} deciding on {} avis", moderatorId,
+                request.getApproveIds().size() + request.getRejectIds().size());
+        return ResponseEntity.ok(avisModerationQueue.decide(moderatorId, request));
+    }
+
+    @PostMapping("/avis/moderation/release")
+    @Operation(summary = "Release claimed avis", description = "Returns avis leased by the calling moderator to the queue without a decision")
+    public ResponseEntity<Map<String, Integer>> releaseAvis(
+            @RequestHeader("X-User-Id") Long moderatorId,
+            @RequestBody List<Long> avisIds) {
+        return ResponseEntity.ok(Map.of("released", avisModerationQueue.release(moderatorId, avisIds)));
+    }
+
+    @GetMapping("/avis/moderation/stats")
+    @Operation(summary = "Get moderation statistics", description = "Returns the pending backlog, active leases and per-moderator throughput")
+    public ResponseEntity<ModerationQueueStatsDto> getModerationStats() {
+        return ResponseEntity.ok(avisModerationQueue.getStats());
+    }
+
+    @GetMapping("/avis/classifier/stats")
+    @Operation(summary = "Get pre-classification statistics", description = "Returns counts of automatically classified, approved and flagged avis and the size of the training set")
+    public ResponseEntity<Map<String, Long>> getClassifierStats() {
+        return ResponseEntity.ok(avisPreClassifier.getStats());
+    }
+
+    @PostMapping("/avis/classifier/retrain")
+    @Operation(summary = "Retrain avis classifier", description = "Retrains the pre-classification model on all moderator decisions")
+    public ResponseEntity<Map<String, Long>> retrainClassifier() {
+        log.info("Retraining avis classifier");
+        return ResponseEntity.ok(avisPreClassifier.retrain());
     }
 
     @PutMapping("/avis/{id}/approve")
@@ -0,0 +1,103 @@
+package com.oussama.social_service.controller;
+
+import com.oussama.social_service.dto.AttachmentDto;
+import com.oussama.social_service.dto.AttachmentUploadRequest;
+import com.oussama.social_service.dto.AttachmentUploadStatusDto;
+import com.oussama.social_service.service.AttachmentStorageService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/social")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Demande Attachments", description = "Resumable attachment upload and download for demandes")
+@CrossOrigin(origins = "http://localhost:4200")
+public class AttachmentController {
+
+    public static final String UPLOAD_OFFSET_HEADER = "Upload-Offset";
+
+    private final AttachmentStorageService attachmentStorageService;
+
+    @PostMapping("/demandes/{demandeId}/attachments/uploads")
+    @Operation(summary = "Start attachment upload", description = "Declares a file and returns the upload ID to send chunks to")
+    public ResponseEntity<AttachmentUploadStatusDto> startUpload(
+            @RequestHeader("X-User-Email") String userEmail,
+            @Parameter(description = "Demande ID") @PathVariable Long demandeId,
+            @Valid @RequestBody AttachmentUploadRequest request) {
+
+        log.info("Starting attachment upload for demande: {} by user: {}", demandeId, userEmail);
+        AttachmentUploadStatusDto status = attachmentStorageService.startUpload(demandeId, userEmail, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(status);
+    }
+
+    @GetMapping("/attachments/uploads/{uploadId}")
+    @Operation(summary = "Get upload status", description = "Returns the number of bytes received, i.e. the offset to resume from")
+    public ResponseEntity<AttachmentUploadStatusDto> getUploadStatus(
+            @RequestHeader("X-User-Email") String userEmail,
+            @Parameter(description = "Upload ID") @PathVariable String uploadId) {
+        return ResponseEntity.ok(attachmentStorageService.getUploadStatus(uploadId, userEmail));
+    }
+
+    @PatchMapping("/attachments/uploads/{uploadId}")
+    @Operation(summary = "Upload chunk", description = "Appends the raw request body at Upload-Offset; the last chunk completes the attachment")
+    public ResponseEntity<AttachmentUploadStatusDto> uploadChunk(
+            @RequestHeader("X-User-Email") String userEmail,
+            @Parameter(description = "Upload ID") @PathVariable String uploadId,
+            @RequestHeader(UPLOAD_OFFSET_HEADER) long offset,
+            InputStream body) {
+
+        AttachmentUploadStatusDto status = attachmentStorageService.appendChunk(uploadId, userEmail, offset, body);
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET_HEADER, String.valueOf(status.getOffset()))
+                .body(status);
+    }
+
+    @GetMapping("/demandes/{demandeId}/attachments")
+    @Operation(summary = "Get demande attachments", description = "Returns the attachments of one of the user's demandes")
+    public ResponseEntity<List<AttachmentDto>> getDemandeAttachments(
+            @RequestHeader("X-User-Email") String userEmail,
+            @Parameter(description = "Demande ID") @PathVariable Long demandeId) {
+        return ResponseEntity.ok(attachmentStorageService.getDemandeAttachments(demandeId, userEmail));
+    }
+
+    @GetMapping("/attachments/{id}/content")
+    @Operation(summary = "Download attachment", description = "Streams the attachment content; supports HTTP Range requests")
+    public ResponseEntity<Resource> downloadAttachment(
+            @RequestHeader("X-User-Email") String userEmail,
+            @Parameter(description = "Attachment ID") @PathVariable Long id) {
+        return toDownload(attachmentStorageService.getContent(id, userEmail));
+    }
+
+    /**
+     * Réponse de téléchargement ; Spring MVC sert les plages demandées (Range) pour un corps de type Resource.
+     */
+    static ResponseEntity<Resource> toDownload(AttachmentStorageService.AttachmentContent content) {
+        // Normalisé à l'envoi ; revérifié pour les pièces enregistrées avant cette validation
+        MediaType mediaType = MediaType.parseMediaType(
+                AttachmentStorageService.normalizeContentType(content.contentType()));
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(content.filename(), StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .body(content.resource());
+    }
+}
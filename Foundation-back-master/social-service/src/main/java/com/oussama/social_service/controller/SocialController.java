@@ -1,7 +1,11 @@
 package com.oussama.social_service.controller;
 
 import com.oussama.social_service.dto.*;
+import com.oussama.social_service.service.DemandeEventLog;
+import com.oussama.social_service.service.IdempotencyKeyStore;
+import com.oussama.social_service.service.PrestationRatingStore;
 import com.oussama.social_service.service.SocialService;
+import com.oussama.social_service.service.UserDemandeSummaryCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -23,6 +27,10 @@ import java.util.List;
 public class SocialController {
 
     private final SocialService socialService;
+    private final PrestationRatingStore prestationRatingStore;
+    private final DemandeEventLog demandeEventLog;
+    private final UserDemandeSummaryCache userDemandeSummaryCache;
+    private final IdempotencyKeyStore idempotencyKeyStore;
 
     // Prestations
     @GetMapping("/prestations")
@@ -37,16 +45,24 @@ public class SocialController {
         return ResponseEntity.ok(prestations);
     }
 
+    @GetMapping("/prestations/ratings")
+    @Operation(summary = "Get prestation ratings", description = "Returns approved avis count, average and 1-5 distribution for every rated prestation")
+    public ResponseEntity<List<PrestationRatingDto>> getPrestationRatings() {
+        return ResponseEntity.ok(prestationRatingStore.getAllRatings());
+    }
+
     // Demandes
     @PostMapping("/demandes")
-    @Operation(summary = "Create demande", description = "Creates a new demande with file uploads")
+    @Operation(summary = "Create demande", description = "Creates a new demande with file uploads. A request repeated with the same Idempotency-Key returns the original demande without creating another one")
     public ResponseEntity<DemandeDto> createDemande(
             @Valid @RequestBody DemandeDto demandeDto,
-            @RequestHeader("X-User-Email") String userEmail) {
+            @RequestHeader("X-User-Email") String userEmail,
+            @Parameter(description = "Client-generated key identifying this submission") @RequestHeader(value = IdempotencyKeyStore.HEADER, required = false) String idempotencyKey) {
         
         log.info("Creating demande for user: {}", userEmail);
-        DemandeDto createdDemande = socialService.createDemande(demandeDto, userEmail);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdDemande);
+        IdempotencyKeyStore.Result<DemandeDto> result = idempotencyKeyStore.execute("DEMANDE_CREATE", userEmail,
+                idempotencyKey, demandeDto, DemandeDto.class, () -> socialService.createDemande(demandeDto, userEmail));
+        return created(result);
     }
 
     @GetMapping("/demandes/my")
@@ -62,6 +78,12 @@ public class SocialController {
         return ResponseEntity.ok(demandes);
     }
 
+    @GetMapping("/demandes/summary")
+    @Operation(summary = "Get user demande summary", description = "Returns the user's demande counts per status, latest demande ids and pending actions")
+    public ResponseEntity<UserDemandeSummaryDto> getUserDemandeSummary(@RequestHeader("X-User-Email") String userEmail) {
+        return ResponseEntity.ok(userDemandeSummaryCache.getSummary(userEmail));
+    }
+
     @GetMapping("/demandes/{id}")
     @Operation(summary = "Get user demande by ID", description = "Returns a specific demande for the user")
     public ResponseEntity<DemandeDto> getUserDemande(
@@ -73,16 +95,26 @@ public class SocialController {
         return ResponseEntity.ok(demande);
     }
 
+    @GetMapping("/demandes/{id}/timeline")
+    @Operation(summary = "Get user demande timeline", description = "Returns the recorded history of a demande owned by the user, oldest event first")
+    public ResponseEntity<List<DemandeEventDto>> getUserDemandeTimeline(
+            @RequestHeader("X-User-Email") String userEmail,
+            @Parameter(description = "Demande ID") @PathVariable Long id) {
+        return ResponseEntity.ok(demandeEventLog.getTimeline(id, userEmail));
+    }
+
     // Avis
     @PostMapping("/avis")
-    @Operation(summary = "Create avis", description = "Creates a new avis/review")
+    @Operation(summary = "Create avis", description = "Creates a new avis/review. A request repeated with the same Idempotency-Key returns the original avis without creating another one")
     public ResponseEntity<AvisDto> createAvis(
             @Valid @RequestBody AvisDto avisDto,
-            @RequestHeader("X-User-Email") String userEmail) {
+            @RequestHeader("X-User-Email") String userEmail,
+            @Parameter(description = "Client-generated key identifying this submission") @RequestHeader(value = IdempotencyKeyStore.HEADER, required = false) String idempotencyKey) {
         
         log.info("Creating avis for user: {}", userEmail);
-        AvisDto createdAvis = socialService.createAvis(avisDto, userEmail);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdAvis);
+        IdempotencyKeyStore.Result<AvisDto> result = idempotencyKeyStore.execute("AVIS_CREATE", userEmail,
+                idempotencyKey, avisDto, AvisDto.class, () -> socialService.createAvis(avisDto, userEmail));
+        return created(result);
     }
 
     @GetMapping("/avis/my")
@@ -94,4 +126,13 @@ public class SocialController {
         List<AvisDto> avis = socialService.getUserAvis(userEmail);
         return ResponseEntity.ok(avis);
     }
+
+    // Rejouée, la réponse d'origine est renvoyée à l'identique avec l'en-tête Idempotent-Replayed
+    private static <T> ResponseEntity<T> created(IdempotencyKeyStore.Result<T> result) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CREATED);
+        if (result.replayed()) {
+            response.header(IdempotencyKeyStore.REPLAYED_HEADER, "true");
+        }
+        return response.body(result.response());
+    }
 }
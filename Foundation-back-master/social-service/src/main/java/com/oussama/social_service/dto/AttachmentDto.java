@@ -0,0 +1,22 @@
+package com.oussama.social_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentDto {
+    private Long id;
+    private Long demandeId;
+    private String filename;
+    private String contentType;
+    private Long sizeBytes;
+    private String sha256;
+    private LocalDateTime uploadedAt;
+}
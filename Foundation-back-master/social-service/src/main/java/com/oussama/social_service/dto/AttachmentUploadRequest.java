@@ -0,0 +1,24 @@
+package com.oussama.social_service.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentUploadRequest {
+    @NotBlank(message = "Le nom du fichier est obligatoire")
+    private String filename;
+
+    @NotNull(message = "La taille du fichier est obligatoire")
+    @Positive(message = "La taille du fichier doit être positive")
+    private Long size;
+
+    private String contentType;
+}
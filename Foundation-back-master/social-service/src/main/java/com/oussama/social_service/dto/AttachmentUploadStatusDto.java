@@ -0,0 +1,18 @@
+package com.oussama.social_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentUploadStatusDto {
+    private String uploadId;
+    private Long offset;   // octets déjà reçus : position du prochain morceau
+    private Long size;
+    private Boolean completed;
+    private AttachmentDto attachment; // renseigné une fois l'envoi terminé
+}
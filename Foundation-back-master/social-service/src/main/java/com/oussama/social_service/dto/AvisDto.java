@@ -39,6 +39,10 @@ public class AvisDto {
 
     private LocalDateTime moderatedAt;
 
+    // Pré-classification automatique (aide à la modération)
+    private Double classificationScore;
+    private Boolean profanityFlagged;
+
     // Additional fields from the entity
     private Long userId;
     private String userName;
@@ -0,0 +1,35 @@
+package com.oussama.social_service.dto;
+
+import com.oussama.social_service.enums.PrestationCategory;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DemandeAnalyticsDto {
+    private LocalDate periodStart;
+    private PrestationCategory category;
+
+    // Volumes (transitions ayant eu lieu pendant la période)
+    private Long created;
+    private Long submitted;
+    private Long approved;
+    private Long rejected;
+    private Long paid;
+    private Long cancelled;
+
+    // approuvées / (approuvées + rejetées)
+    private Double approvalRate;
+
+    // Montants
+    private BigDecimal requestedAmount;
+    private BigDecimal approvedAmount;
+    private BigDecimal paidAmount;
+}
@@ -0,0 +1,32 @@
+package com.oussama.social_service.dto;
+
+import com.oussama.social_service.enums.DemandeStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DemandeBulkStatusRequest {
+
+    @NotEmpty(message = "Au moins une demande doit être sélectionnée")
+    @Size(max = 1000, message = "Au plus 1000 demandes par opération")
+    private List<Long> demandeIds;
+
+    @NotNull(message = "Le statut cible est obligatoire")
+    private DemandeStatus status;
+
+    private String adminComment;
+
+    private String rejectionReason;
+
+    private String paymentReference;
+}
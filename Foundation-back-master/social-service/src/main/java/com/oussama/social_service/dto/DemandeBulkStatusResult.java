@@ -0,0 +1,23 @@
+package com.oussama.social_service.dto;
+
+import com.oussama.social_service.enums.DemandeStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DemandeBulkStatusResult {
+    private DemandeStatus status;
+    private Integer requested;
+    private List<Long> updatedIds;
+
+    // Demandes ignorées, avec la raison (introuvable, transition interdite)
+    private Map<Long, String> skipped;
+}
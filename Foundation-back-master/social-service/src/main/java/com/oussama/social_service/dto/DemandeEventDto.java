@@ -0,0 +1,29 @@
+package com.oussama.social_service.dto;
+
+import com.oussama.social_service.enums.DemandeEventType;
+import com.oussama.social_service.enums.DemandeStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DemandeEventDto {
+    private Long id;
+    private Long demandeId;
+    private DemandeEventType eventType;
+    private DemandeStatus fromStatus;
+    private DemandeStatus toStatus;
+    private BigDecimal requestedAmount;
+    private BigDecimal approvedAmount;
+    private Long actorId;
+    private String actorName;
+    private String note;
+    private LocalDateTime occurredAt;
+}
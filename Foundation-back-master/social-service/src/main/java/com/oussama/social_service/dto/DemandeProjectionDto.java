@@ -0,0 +1,33 @@
+package com.oussama.social_service.dto;
+
+import com.oussama.social_service.enums.DemandeStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DemandeProjectionDto {
+    // "user" ou "prestation", et l'identifiant correspondant
+    private String scope;
+    private Long key;
+
+    // Évènements rejoués et demandes existantes à la fin du rejeu
+    private Long eventCount;
+    private Long demandes;
+    private Map<DemandeStatus, Long> byStatus;
+
+    private BigDecimal requestedAmount;
+
+    // Montants approuvés des demandes APPROVED ou PAID
+    private BigDecimal approvedAmount;
+
+    private LocalDateTime lastEventAt;
+}
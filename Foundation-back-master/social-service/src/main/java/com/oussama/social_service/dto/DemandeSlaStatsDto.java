@@ -0,0 +1,25 @@
+package com.oussama.social_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DemandeSlaStatsDto {
+    // Demandes en attente suivies (avec une date de traitement prévue)
+    private Long tracked;
+    private Long comingDue;
+    private Long overdue;
+
+    // Événements émis depuis le démarrage
+    private Long comingDueNotified;
+    private Long expiredNotified;
+
+    private LocalDateTime nextDeadline;
+}
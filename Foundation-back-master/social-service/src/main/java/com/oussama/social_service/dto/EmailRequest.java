@@ -0,0 +1,19 @@
+package com.oussama.social_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Corps de POST /api/notify/email (notification-service).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailRequest {
+    private String to;
+    private String subject;
+    private String html;
+}
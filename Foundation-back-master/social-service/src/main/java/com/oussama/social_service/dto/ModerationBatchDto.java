@@ -0,0 +1,21 @@
+package com.oussama.social_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModerationBatchDto {
+    private Long moderatorId;
+
+    // Les avis du lot sont réservés à ce modérateur jusqu'à cette date
+    private LocalDateTime leaseExpiresAt;
+    private List<AvisDto> avis;
+}
@@ -0,0 +1,25 @@
+package com.oussama.social_service.dto;
+
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModerationDecisionRequest {
+
+    @Builder.Default
+    @Size(max = 500, message = "Au plus 500 avis approuvés par opération")
+    private List<Long> approveIds = new ArrayList<>();
+
+    @Builder.Default
+    @Size(max = 500, message = "Au plus 500 avis rejetés par opération")
+    private List<Long> rejectIds = new ArrayList<>();
+}
@@ -0,0 +1,19 @@
+package com.oussama.social_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModerationQueueStatsDto {
+    private Long pending;
+    private Integer leased;
+    private Long leaseSeconds;
+    private List<ModeratorStatsDto> moderators;
+}
@@ -0,0 +1,21 @@
+package com.oussama.social_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModerationResult {
+    private List<Long> approvedIds;
+    private List<Long> rejectedIds;
+
+    // Avis ignorés, avec la raison (réservation absente ou expirée, déjà modéré)
+    private Map<Long, String> skipped;
+}
@@ -0,0 +1,25 @@
+package com.oussama.social_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModeratorStatsDto {
+    private Long moderatorId;
+    private Integer activeLeases;
+
+    // Compteurs depuis le démarrage
+    private Long claimed;
+    private Long approved;
+    private Long rejected;
+    private Long released;
+    private Long expired;
+
+    // Délai moyen entre la réservation et la décision
+    private Double averageDecisionSeconds;
+}
@@ -0,0 +1,23 @@
+package com.oussama.social_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentBatchDto {
+    // Préfixe des références de paiement du lot, et nom du fichier de virements
+    private String batchId;
+    private String fileName;
+
+    private Long demandes;
+    private BigDecimal totalAmount;
+    private LocalDateTime createdAt;
+}
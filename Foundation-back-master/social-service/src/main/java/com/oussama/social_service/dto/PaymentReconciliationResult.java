@@ -0,0 +1,36 @@
+package com.oussama.social_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentReconciliationResult {
+    @Builder.Default
+    private long lines = 0;
+
+    // Paiements confirmés par la banque (la demande reste PAID)
+    @Builder.Default
+    private long confirmed = 0;
+
+    // Paiements rejetés : la demande repasse APPROVED et sera reprise au prochain lot
+    @Builder.Default
+    private long rejected = 0;
+
+    // Références inconnues ou ne correspondant pas à une demande payée (premières seulement)
+    @Builder.Default
+    private long unmatched = 0;
+    @Builder.Default
+    private List<String> unmatchedReferences = new ArrayList<>();
+
+    // Lignes illisibles (statut bancaire inconnu, référence manquante)
+    @Builder.Default
+    private long invalidLines = 0;
+}
@@ -0,0 +1,21 @@
+package com.oussama.social_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrestationRatingDto {
+    private Long prestationId;
+    private Long count;
+    private Double average;
+
+    // Nombre d'avis approuvés par note (1 à 5)
+    private Map<Integer, Long> distribution;
+}
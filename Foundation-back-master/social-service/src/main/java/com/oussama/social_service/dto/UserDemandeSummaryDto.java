@@ -0,0 +1,27 @@
+package com.oussama.social_service.dto;
+
+import com.oussama.social_service.enums.DemandeStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDemandeSummaryDto {
+    private String userEmail;
+    private Long total;
+    private Map<DemandeStatus, Long> byStatus;
+
+    // Dernières demandes créées, de la plus récente à la plus ancienne
+    private List<Long> recentDemandeIds;
+
+    // Actions en attente : brouillons à soumettre, demandes en attente de décision
+    private Long draftsToSubmit;
+    private Long awaitingDecision;
+}
@@ -32,6 +32,13 @@ public class Attachment {
     @Column(name = "size_bytes")
     private Long sizeBytes;
 
+    @Column(name = "content_type")
+    private String contentType;
+
+    // Empreinte du contenu : les fichiers identiques partagent le même path
+    @Column(length = 64)
+    private String sha256;
+
     @CreationTimestamp
     @Column(name = "uploaded_at", nullable = false, updatable = false)
     private LocalDateTime uploadedAt;
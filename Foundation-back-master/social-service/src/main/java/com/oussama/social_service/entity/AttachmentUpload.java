@@ -0,0 +1,45 @@
+package com.oussama.social_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Envoi de pièce jointe en cours. Les octets reçus sont dans un fichier partiel dont la taille
+ * donne la position de reprise ; la ligne est supprimée une fois l'Attachment créé.
+ */
+@Entity
+@Table(name = "attachment_uploads")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentUpload {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "demande_id", nullable = false)
+    private Long demandeId;
+
+    @Column(name = "user_email", nullable = false)
+    private String userEmail;
+
+    @Column(nullable = false)
+    private String filename;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "total_size", nullable = false)
+    private Long totalSize;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
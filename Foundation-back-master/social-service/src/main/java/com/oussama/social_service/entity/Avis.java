@@ -61,6 +61,17 @@ public class Avis {
     @Column(name = "moderated_at")
     private LocalDateTime moderatedAt;
 
+    // Pré-classification automatique : probabilité d'approbation et présence de termes injurieux
+    @Column(name = "classification_score")
+    private Double classificationScore;
+
+    @Column(name = "profanity_flagged")
+    private Boolean profanityFlagged;
+
+    // Avis en attente antérieur à la file de modération, peut-être déjà rejeté : jamais approuvé automatiquement
+    @Column(name = "manual_review_only")
+    private Boolean manualReviewOnly;
+
     // Admin approval fields
     @Column(name = "approved_by")
     private Long approvedBy;
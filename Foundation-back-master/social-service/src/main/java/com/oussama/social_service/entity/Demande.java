@@ -2,6 +2,7 @@ package com.oussama.social_service.entity;
 
 import com.oussama.social_service.enums.DemandeStatus;
 import com.oussama.social_service.enums.PriorityLevel;
+import com.oussama.social_service.enums.SlaStage;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -80,6 +81,11 @@ public class Demande {
     @Column(name = "expected_processing_date")
     private LocalDateTime expectedProcessingDate;
 
+    // Dernière étape de délai notifiée par le moniteur, remise à zéro à chaque nouvelle échéance
+    @Enumerated(EnumType.STRING)
+    @Column(name = "sla_stage")
+    private SlaStage slaStage;
+
     @Column(name = "payment_reference")
     private String paymentReference;
 
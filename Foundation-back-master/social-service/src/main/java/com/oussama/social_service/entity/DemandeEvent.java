@@ -0,0 +1,68 @@
+package com.oussama.social_service.entity;
+
+import com.oussama.social_service.enums.DemandeEventType;
+import com.oussama.social_service.enums.DemandeStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entrée du journal des demandes ; écrite par DemandeEventLog, jamais modifiée.
+ */
+@Entity
+@Immutable
+@Table(name = "demande_events")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DemandeEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "demande_id", nullable = false)
+    private Long demandeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private DemandeEventType eventType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status")
+    private DemandeStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status")
+    private DemandeStatus toStatus;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "prestation_id")
+    private Long prestationId;
+
+    @Column(name = "requested_amount")
+    private BigDecimal requestedAmount;
+
+    @Column(name = "approved_amount")
+    private BigDecimal approvedAmount;
+
+    @Column(name = "actor_id")
+    private Long actorId;
+
+    @Column(name = "actor_name")
+    private String actorName;
+
+    @Column(columnDefinition = "TEXT")
+    private String note;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+}
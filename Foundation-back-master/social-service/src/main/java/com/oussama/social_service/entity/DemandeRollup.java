@@ -0,0 +1,62 @@
+package com.oussama.social_service.entity;
+
+import com.oussama.social_service.enums.PrestationCategory;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Agrégat journalier des événements de demandes par catégorie de prestation.
+ * Chaque transition est comptée le jour où elle a lieu.
+ */
+@Entity
+@Table(name = "demande_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_demande_rollups_bucket", columnNames = {"bucket_date", "category"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DemandeRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PrestationCategory category;
+
+    @Column(name = "created_count", nullable = false)
+    private Long createdCount;
+
+    @Column(name = "submitted_count", nullable = false)
+    private Long submittedCount;
+
+    @Column(name = "approved_count", nullable = false)
+    private Long approvedCount;
+
+    @Column(name = "rejected_count", nullable = false)
+    private Long rejectedCount;
+
+    @Column(name = "paid_count", nullable = false)
+    private Long paidCount;
+
+    @Column(name = "cancelled_count", nullable = false)
+    private Long cancelledCount;
+
+    @Column(name = "requested_amount", nullable = false)
+    private BigDecimal requestedAmount;
+
+    @Column(name = "approved_amount", nullable = false)
+    private BigDecimal approvedAmount;
+
+    @Column(name = "paid_amount", nullable = false)
+    private BigDecimal paidAmount;
+}
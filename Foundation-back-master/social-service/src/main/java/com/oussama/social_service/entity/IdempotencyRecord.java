@@ -0,0 +1,49 @@
+package com.oussama.social_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Clé d'idempotence d'une création. Insérée par IdempotencyKeyStore dans la transaction de l'écriture
+ * qu'elle protège, avec la réponse renvoyée ; supprimée à expiration.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Opération protégée, par exemple "DEMANDE_CREATE"
+    @Column(nullable = false, updatable = false)
+    private String scope;
+
+    @Column(name = "user_key", nullable = false, updatable = false)
+    private String userKey;
+
+    @Column(name = "idempotency_key", nullable = false, updatable = false, length = 128)
+    private String idempotencyKey;
+
+    // SHA-256 du corps de la requête d'origine
+    @Column(name = "request_hash", nullable = false, updatable = false, length = 64)
+    private String requestHash;
+
+    // Réponse d'origine en JSON
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false, updatable = false)
+    private LocalDateTime expiresAt;
+}
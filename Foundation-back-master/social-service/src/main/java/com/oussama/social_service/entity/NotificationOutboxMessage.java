@@ -0,0 +1,65 @@
+package com.oussama.social_service.entity;
+
+import com.oussama.social_service.enums.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notification à relayer vers notification-service. Insérée par NotificationOutbox dans la transaction
+ * de la modification qui la déclenche ; seuls le statut et le suivi des essais évoluent ensuite.
+ */
+@Entity
+@Table(name = "notification_outbox")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationOutboxMessage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Transmise à chaque essai pour que le destinataire ignore les doublons
+    @Column(name = "idempotency_key", nullable = false, unique = true, updatable = false)
+    private String idempotencyKey;
+
+    // "DEMANDE" ou "AVIS", et l'identifiant correspondant
+    @Column(name = "aggregate_type", nullable = false, updatable = false)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false, updatable = false)
+    private Long aggregateId;
+
+    @Column(nullable = false, updatable = false)
+    private String recipient;
+
+    @Column(nullable = false, updatable = false)
+    private String subject;
+
+    @Column(columnDefinition = "TEXT", nullable = false, updatable = false)
+    private String html;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,7 @@
+package com.oussama.social_service.enums;
+
+public enum AnalyticsGranularity {
+    DAY,
+    WEEK,   // Semaine commençant le lundi
+    MONTH
+}
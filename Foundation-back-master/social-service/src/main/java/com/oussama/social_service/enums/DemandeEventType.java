@@ -0,0 +1,13 @@
+package com.oussama.social_service.enums;
+
+public enum DemandeEventType {
+    IMPORTED,           // État d'une demande antérieure au journal
+    CREATED,            // Création (brouillon)
+    SUBMITTED,          // Soumission par l'usager
+    STATUS_CHANGED,     // Transition décidée par un administrateur
+    UPDATED,            // Modification sans changement de statut
+    SLA_ESCALATED,      // Escalade de priorité par le moniteur de délais
+    PAYMENT_REJECTED,   // Virement rejeté par la banque : retour de PAID à APPROVED
+    CANCELLED,          // Annulation par l'usager
+    DELETED             // Suppression
+}
@@ -7,5 +7,30 @@ public enum DemandeStatus {
     APPROVED,        // Approuvée
     REJECTED,        // Rejetée
     PAID,            // Payée
-    CANCELLED        // Annulée
-}
\ No newline at end of file
+    CANCELLED;       // Annulée
+
+    /**
+     * Transitions autorisées du cycle de vie d'une demande, pour une décision de l'administration.
+     */
+    public boolean canTransitionTo(DemandeStatus target) {
+        return switch (this) {
+            case DRAFT -> target == SUBMITTED || target == CANCELLED;
+            case SUBMITTED -> target == IN_REVIEW || target == APPROVED || target == REJECTED || target == CANCELLED;
+            case IN_REVIEW -> target == APPROVED || target == REJECTED || target == CANCELLED;
+            case APPROVED -> target == PAID || target == CANCELLED;
+            case REJECTED, PAID, CANCELLED -> false;
+        };
+    }
+
+    /**
+     * Transitions autorisées pour un changement de cause donnée. Un virement rejeté par la banque
+     * (PAYMENT_REJECTED) est le seul retour arrière : PAID redevient APPROVED pour être repris au lot
+     * suivant. Il n'est jamais ouvert aux décisions manuelles.
+     */
+    public boolean canTransitionTo(DemandeStatus target, DemandeEventType cause) {
+        if (cause == DemandeEventType.PAYMENT_REJECTED) {
+            return this == PAID && target == APPROVED;
+        }
+        return canTransitionTo(target);
+    }
+}
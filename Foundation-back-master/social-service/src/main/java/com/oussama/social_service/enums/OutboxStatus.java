@@ -0,0 +1,7 @@
+package com.oussama.social_service.enums;
+
+public enum OutboxStatus {
+    PENDING,    // En attente d'envoi (ou de nouvel essai)
+    SENT,       // Accepté par notification-service
+    FAILED      // Abandonné après le nombre maximal d'essais
+}
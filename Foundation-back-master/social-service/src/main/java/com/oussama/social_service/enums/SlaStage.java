@@ -0,0 +1,6 @@
+package com.oussama.social_service.enums;
+
+public enum SlaStage {
+    COMING_DUE,     // Date de traitement prévue proche
+    EXPIRED         // Date de traitement prévue dépassée
+}
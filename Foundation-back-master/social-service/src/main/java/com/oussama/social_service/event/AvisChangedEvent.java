@@ -0,0 +1,16 @@
+package com.oussama.social_service.event;
+
+/**
+ * Publié à chaque création, modération ou suppression d'un avis.
+ * {@code before} est null à la création, {@code after} est null à la suppression.
+ */
+public record AvisChangedEvent(AvisSnapshot before, AvisSnapshot after) {
+
+    public static AvisChangedEvent created(AvisSnapshot after) {
+        return new AvisChangedEvent(null, after);
+    }
+
+    public static AvisChangedEvent deleted(AvisSnapshot before) {
+        return new AvisChangedEvent(before, null);
+    }
+}
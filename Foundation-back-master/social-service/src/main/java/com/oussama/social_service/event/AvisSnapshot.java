@@ -0,0 +1,36 @@
+package com.oussama.social_service.event;
+
+import com.oussama.social_service.entity.Avis;
+import com.oussama.social_service.enums.AvisStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Copie immuable des champs d'un avis utiles aux projections en mémoire.
+ */
+public record AvisSnapshot(Long id,
+                           Long userId,
+                           Long prestationId,
+                           Integer rating,
+                           AvisStatus status,
+                           boolean approved,
+                           LocalDateTime createdAt,
+                           String userName,
+                           String comment,
+                           String userEmail) {
+
+    public static AvisSnapshot of(Avis avis) {
+        return new AvisSnapshot(
+                avis.getId(),
+                avis.getUserId(),
+                avis.getPrestationId(),
+                avis.getRating(),
+                avis.getStatus(),
+                Boolean.TRUE.equals(avis.getIsApproved()),
+                avis.getCreatedAt(),
+                avis.getUserName(),
+                avis.getComment(),
+                avis.getUserEmail()
+        );
+    }
+}
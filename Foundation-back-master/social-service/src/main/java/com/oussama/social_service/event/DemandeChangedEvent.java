@@ -0,0 +1,35 @@
+package com.oussama.social_service.event;
+
+import com.oussama.social_service.enums.DemandeEventType;
+
+/**
+ * Publié à chaque création, changement ou suppression d'une demande.
+ * {@code before} est null à la création, {@code after} est null à la suppression ; {@code cause} n'est
+ * renseignée que pour les changements qui ne sont pas une décision, comme le rejet d'un virement.
+ */
+public record DemandeChangedEvent(DemandeSnapshot before, DemandeSnapshot after, DemandeEventType cause) {
+
+    public DemandeChangedEvent(DemandeSnapshot before, DemandeSnapshot after) {
+        this(before, after, null);
+    }
+
+    public static DemandeChangedEvent created(DemandeSnapshot after) {
+        return new DemandeChangedEvent(null, after);
+    }
+
+    public static DemandeChangedEvent deleted(DemandeSnapshot before) {
+        return new DemandeChangedEvent(before, null);
+    }
+
+    public boolean statusChanged() {
+        return before == null || after == null || before.status() != after.status();
+    }
+
+    /**
+     * Retour de PAID à APPROVED après le rejet du virement par la banque : ni une nouvelle approbation,
+     * ni une annulation de la décision.
+     */
+    public boolean paymentReverted() {
+        return cause == DemandeEventType.PAYMENT_REJECTED;
+    }
+}
@@ -0,0 +1,12 @@
+package com.oussama.social_service.event;
+
+import com.oussama.social_service.enums.SlaStage;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publié par le moniteur de délais quand une demande en attente approche de sa date de traitement
+ * prévue ({@link SlaStage#COMING_DUE}) puis la dépasse ({@link SlaStage#EXPIRED}).
+ */
+public record DemandeSlaEvent(Long demandeId, SlaStage stage, LocalDateTime expectedProcessingDate) {
+}
@@ -0,0 +1,48 @@
+package com.oussama.social_service.event;
+
+import com.oussama.social_service.entity.Demande;
+import com.oussama.social_service.enums.DemandeStatus;
+import com.oussama.social_service.enums.PriorityLevel;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Copie immuable des champs d'une demande utiles aux projections en mémoire (statistiques, compteurs...).
+ */
+public record DemandeSnapshot(Long id,
+                              Long userId,
+                              String userEmail,
+                              Long prestationId,
+                              DemandeStatus status,
+                              BigDecimal requestedAmount,
+                              BigDecimal approvedAmount,
+                              LocalDateTime submittedAt,
+                              LocalDateTime processedAt,
+                              LocalDateTime expectedProcessingDate,
+                              PriorityLevel priorityLevel,
+                              LocalDateTime createdAt,
+                              String userName,
+                              String justification,
+                              String adminComment) {
+
+    public static DemandeSnapshot of(Demande demande) {
+        return new DemandeSnapshot(
+                demande.getId(),
+                demande.getUserId(),
+                demande.getUserEmail(),
+                demande.getPrestationId(),
+                demande.getStatus(),
+                demande.getRequestedAmount(),
+                demande.getApprovedAmount(),
+                demande.getSubmittedAt(),
+                demande.getProcessedAt(),
+                demande.getExpectedProcessingDate(),
+                demande.getPriorityLevel(),
+                demande.getCreatedAt(),
+                demande.getUserName(),
+                demande.getJustification(),
+                demande.getAdminComment()
+        );
+    }
+}
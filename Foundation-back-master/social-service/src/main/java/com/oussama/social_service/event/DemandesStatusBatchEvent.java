@@ -0,0 +1,14 @@
+package com.oussama.social_service.event;
+
+import com.oussama.social_service.enums.DemandeStatus;
+
+import java.util.List;
+
+/**
+ * Publié une fois par changement de statut groupé, avant les DemandeChangedEvent individuels :
+ * NotificationOutbox en tire un message par destinataire et ignore ensuite ces demandes.
+ */
+public record DemandesStatusBatchEvent(DemandeStatus status,
+                                       String adminComment,
+                                       List<DemandeSnapshot> demandes) {
+}
@@ -23,6 +23,8 @@ public interface SocialMapper {
     // Mapping pour la mise à jour admin
     void updateDemandeFromUpdateRequest(DemandeUpdateRequest updateRequest, @MappingTarget Demande demande);
 
+    DemandeEventDto toDemandeEventDto(DemandeEvent demandeEvent);
+
     // ========== AVIS MAPPINGS ==========
     AvisDto toAvisDto(Avis avis);
     Avis toAvisEntity(AvisDto avisDto);
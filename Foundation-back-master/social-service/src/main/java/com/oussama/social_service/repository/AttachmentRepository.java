@@ -0,0 +1,15 @@
+package com.oussama.social_service.repository;
+
+import com.oussama.social_service.entity.Attachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
+
+    List<Attachment> findByDemandeIdOrderByUploadedAtAsc(Long demandeId);
+
+    long countByDemandeId(Long demandeId);
+}
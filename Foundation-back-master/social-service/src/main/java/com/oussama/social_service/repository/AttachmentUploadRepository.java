@@ -0,0 +1,14 @@
+package com.oussama.social_service.repository;
+
+import com.oussama.social_service.entity.AttachmentUpload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AttachmentUploadRepository extends JpaRepository<AttachmentUpload, String> {
+
+    List<AttachmentUpload> findByCreatedAtBefore(LocalDateTime threshold);
+}
@@ -3,19 +3,33 @@ package com.oussama.social_service.repository;
 import com.oussama.social_service.entity.Avis;
 import com.oussama.social_service.enums.AvisStatus;
 import com.oussama.social_service.enums.AvisType;
+import com.oussama.social_service.repository.projection.AvisApprovalTotals;
+import com.oussama.social_service.repository.projection.AvisSearchRow;
+import com.oussama.social_service.repository.projection.ModeratedAvisRow;
+import com.oussama.social_service.repository.projection.PrestationRatingCount;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface AvisRepository extends JpaRepository<Avis, Long> {
 
+    // Avis positif : note >= 4 ; avis négatif : note de 1 à 2 (mêmes bornes pour les deltas du tableau de bord)
+    int POSITIVE_MIN_RATING = 4;
+    int NEGATIVE_MIN_RATING = 1;
+    int NEGATIVE_MAX_RATING = 2;
+
     List<Avis> findByUserEmail(String userEmail);
 
     Page<Avis> findByStatus(AvisStatus status, Pageable pageable);
@@ -30,7 +44,24 @@ public interface AvisRepository extends JpaRepository<Avis, Long> {
     // Methods for approved/pending avis
     Page<Avis> findByIsApprovedTrueOrderByCreatedAtDesc(Pageable pageable);
 
-    Page<Avis> findByIsApprovedFalseOrderByCreatedAtDesc(Pageable pageable);
+    // File de modération : avis en attente les plus anciens, hors avis déjà réservés
+    List<Avis> findByStatusOrderByCreatedAtAsc(AvisStatus status, Pageable pageable);
+
+    List<Avis> findByStatusAndIdNotInOrderByCreatedAtAsc(AvisStatus status, Collection<Long> excludedIds, Pageable pageable);
+
+    long countByStatus(AvisStatus status);
+
+    // Avis en attente pas encore pré-classés (reprise au démarrage), hors avis réservés aux modérateurs
+    @Query("SELECT a.id FROM Avis a WHERE a.status = :status AND a.classificationScore IS NULL "
+            + "AND (a.manualReviewOnly IS NULL OR a.manualReviewOnly = false)")
+    List<Long> findUnclassifiedIds(@Param("status") AvisStatus status);
+
+    // Décisions humaines servant à l'entraînement du classifieur (les approbations automatiques n'ont pas d'approbateur)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT a.comment AS comment, a.rating AS rating, a.status AS status FROM Avis a " +
+            "WHERE a.comment IS NOT NULL AND (a.status = :rejected OR (a.status = :published AND a.approvedBy IS NOT NULL))")
+    Stream<ModeratedAvisRow> streamModeratedAvis(@Param("published") AvisStatus published,
+                                                 @Param("rejected") AvisStatus rejected);
 
     // Methods for featured avis
     List<Avis> findByIsFeaturedTrueAndIsApprovedTrueOrderByCreatedAtDesc();
@@ -54,20 +85,26 @@ public interface AvisRepository extends JpaRepository<Avis, Long> {
     @Query("SELECT a FROM Avis a WHERE a.isApproved = true AND a.rating <= 2 ORDER BY a.createdAt DESC")
     Page<Avis> findNegativeAvis(Pageable pageable);
 
-    // Method for keyword search
-    @Query("SELECT a FROM Avis a WHERE a.isApproved = true AND " +
-            "(LOWER(a.comment) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(a.userName) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    Page<Avis> searchApprovedByKeyword(@Param("keyword") String keyword, Pageable pageable);
-
-    // Methods for average rating calculations
-    @Query("SELECT AVG(a.rating) FROM Avis a WHERE a.isApproved = true")
-    Optional<Double> getAverageRating();
-
-    @Query("SELECT AVG(a.rating) FROM Avis a WHERE a.prestationId = :prestationId AND a.isApproved = true")
-    Optional<Double> getAverageRatingByPrestation(@Param("prestationId") Long prestationId);
+    // Chargement de l'index de recherche : avis approuvés uniquement
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT a.id AS id, a.userName AS userName, a.comment AS comment FROM Avis a WHERE a.isApproved = true")
+    Stream<AvisSearchRow> streamApprovedSearchFields();
 
     // Method for avis needing admin response
     @Query("SELECT a FROM Avis a WHERE a.isApproved = true AND a.adminResponse IS NULL ORDER BY a.createdAt DESC")
     List<Avis> findAvisNeedingResponse();
-}
\ No newline at end of file
+
+    // Aggregates for dashboard statistics reconciliation
+    @Query("SELECT a.isApproved AS approved, COUNT(a) AS total, COALESCE(SUM(a.rating), 0) AS ratingSum, " +
+            "SUM(CASE WHEN a.rating >= " + POSITIVE_MIN_RATING + " THEN 1 ELSE 0 END) AS positive, " +
+            "SUM(CASE WHEN a.rating BETWEEN " + NEGATIVE_MIN_RATING + " AND " + NEGATIVE_MAX_RATING +
+            " THEN 1 ELSE 0 END) AS negative " +
+            "FROM Avis a GROUP BY a.isApproved")
+    List<AvisApprovalTotals> aggregateByApproval();
+
+    // Histogramme des notes approuvées par prestation (chargement des agrégats de notes)
+    @Query("SELECT a.prestationId AS prestationId, a.rating AS rating, COUNT(a) AS total FROM Avis a " +
+            "WHERE a.isApproved = true AND a.prestationId IS NOT NULL AND a.rating IS NOT NULL " +
+            "GROUP BY a.prestationId, a.rating")
+    List<PrestationRatingCount> countApprovedRatingsByPrestation();
+}
@@ -0,0 +1,28 @@
+package com.oussama.social_service.repository;
+
+import com.oussama.social_service.entity.DemandeEvent;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+/**
+ * Lecture du journal des demandes. Les écritures passent par DemandeEventLog (insertions JDBC groupées).
+ */
+@Repository
+public interface DemandeEventRepository extends JpaRepository<DemandeEvent, Long> {
+
+    List<DemandeEvent> findByDemandeIdOrderByIdAsc(Long demandeId);
+
+    // Rejeux du journal (row-by-row streaming with MySQL)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    Stream<DemandeEvent> streamByUserIdOrderByIdAsc(Long userId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    Stream<DemandeEvent> streamByPrestationIdOrderByIdAsc(Long prestationId);
+}
@@ -2,15 +2,31 @@ package com.oussama.social_service.repository;
 
 import com.oussama.social_service.entity.Demande;
 import com.oussama.social_service.enums.DemandeStatus;
+import com.oussama.social_service.repository.projection.DemandeHistoryRow;
+import com.oussama.social_service.repository.projection.DemandeProcessingTimes;
+import com.oussama.social_service.repository.projection.DemandeSearchRow;
+import com.oussama.social_service.repository.projection.DemandeStatusTotals;
+import com.oussama.social_service.repository.projection.PendingDeadlineRow;
+import com.oussama.social_service.repository.projection.PrestationDemandCount;
+import com.oussama.social_service.repository.projection.RecentDemandeRow;
+import com.oussama.social_service.repository.projection.StatusCount;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface DemandeRepository extends JpaRepository<Demande, Long> {
@@ -32,6 +48,13 @@ public interface DemandeRepository extends JpaRepository<Demande, Long> {
 
     long countByUserEmailAndStatus(String userEmail, DemandeStatus status);
 
+    // Résumé du tableau de bord employé : compteurs par statut et dernières demandes
+    @Query("SELECT d.status AS status, COUNT(d) AS total FROM Demande d WHERE d.userEmail = :email GROUP BY d.status")
+    List<StatusCount> countByStatusForUser(@Param("email") String email);
+
+    @Query("SELECT d.id FROM Demande d WHERE d.userEmail = :email ORDER BY d.id DESC")
+    List<Long> findRecentIdsByUserEmail(@Param("email") String email, Pageable pageable);
+
     // Methods for user-specific demandes
     Page<Demande> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
 
@@ -42,23 +65,23 @@ public interface DemandeRepository extends JpaRepository<Demande, Long> {
     @Query("SELECT d FROM Demande d WHERE d.status IN ('SUBMITTED', 'IN_REVIEW') ORDER BY d.createdAt DESC")
     Page<Demande> findPendingDemandes(Pageable pageable);
 
-    // Methods for prestation-specific demandes
-    Page<Demande> findByPrestationIdOrderByCreatedAtDesc(Long prestationId, Pageable pageable);
+    // Lots de paiement : demandes approuvées par identifiant croissant, verrouillées jusqu'au passage à PAID
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Demande> findByStatusAndIdGreaterThanOrderByIdAsc(DemandeStatus status, Long id, Pageable pageable);
 
-    // Method for keyword search
-    @Query("SELECT d FROM Demande d WHERE " +
-            "(LOWER(d.userName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(d.userEmail) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(d.justification) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    Page<Demande> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
+    List<Demande> findByPaymentReferenceIn(Collection<String> paymentReferences);
 
-    // Method for expired demandes
-    @Query("SELECT d FROM Demande d WHERE d.expectedProcessingDate < :now AND d.status IN ('SUBMITTED', 'IN_REVIEW')")
-    List<Demande> findExpiredDemandes(@Param("now") LocalDateTime now);
+    // Fichier de virements d'un lot, reconstruit depuis les références préfixées par son identifiant
+    List<Demande> findByPaymentReferenceStartingWithAndIdGreaterThanOrderByIdAsc(String prefix, Long id, Pageable pageable);
 
-    // Method for demandes coming due
-    @Query("SELECT d FROM Demande d WHERE d.expectedProcessingDate BETWEEN :now AND :deadline AND d.status IN ('SUBMITTED', 'IN_REVIEW')")
-    List<Demande> findDemandesComingDue(@Param("now") LocalDateTime now, @Param("deadline") LocalDateTime deadline);
+    // Methods for prestation-specific demandes
+    Page<Demande> findByPrestationIdOrderByCreatedAtDesc(Long prestationId, Pageable pageable);
+
+    // Full scan for the search index load (row-by-row streaming with MySQL)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT d.id AS id, d.userName AS userName, d.userEmail AS userEmail, d.justification AS justification " +
+            "FROM Demande d")
+    Stream<DemandeSearchRow> streamSearchFields();
 
     // Method for counting user demandes per year
     @Query("SELECT COUNT(d) FROM Demande d WHERE d.userId = :userId AND d.prestationId = :prestationId AND d.createdAt BETWEEN :startDate AND :endDate")
@@ -68,4 +91,36 @@ public interface DemandeRepository extends JpaRepository<Demande, Long> {
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate
     );
-}
\ No newline at end of file
+
+    // Aggregates for dashboard statistics reconciliation
+    @Query("SELECT d.status AS status, COUNT(d) AS total, " +
+            "COALESCE(SUM(d.requestedAmount), 0) AS requestedAmount, " +
+            "COALESCE(SUM(COALESCE(d.approvedAmount, d.requestedAmount)), 0) AS effectiveAmount " +
+            "FROM Demande d GROUP BY d.status")
+    List<DemandeStatusTotals> aggregateByStatus();
+
+    @Query("SELECT d.submittedAt AS submittedAt, d.processedAt AS processedAt FROM Demande d " +
+            "WHERE d.submittedAt IS NOT NULL AND d.processedAt IS NOT NULL")
+    List<DemandeProcessingTimes> findProcessingTimes();
+
+    // Full history scan for analytics rebuild (row-by-row streaming with MySQL)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT d.prestationId AS prestationId, d.status AS status, d.requestedAmount AS requestedAmount, " +
+            "d.approvedAmount AS approvedAmount, d.createdAt AS createdAt, d.submittedAt AS submittedAt, " +
+            "d.processedAt AS processedAt, d.paymentDate AS paymentDate, d.updatedAt AS updatedAt FROM Demande d")
+    Stream<DemandeHistoryRow> streamHistory();
+
+    // Compteurs de demandes par prestation (classement des prestations les plus demandées)
+    @Query("SELECT d.prestationId AS prestationId, COUNT(d) AS total FROM Demande d " +
+            "WHERE d.prestationId IS NOT NULL GROUP BY d.prestationId")
+    List<PrestationDemandCount> countByPrestation();
+
+    @Query("SELECT d.prestationId AS prestationId, d.createdAt AS createdAt FROM Demande d " +
+            "WHERE d.prestationId IS NOT NULL AND d.createdAt >= :since")
+    List<RecentDemandeRow> findCreatedSince(@Param("since") LocalDateTime since);
+
+    // Moniteur de délais : demandes en attente ayant une échéance
+    @Query("SELECT d.id AS id, d.expectedProcessingDate AS expectedProcessingDate, d.slaStage AS slaStage " +
+            "FROM Demande d WHERE d.status IN ('SUBMITTED', 'IN_REVIEW') AND d.expectedProcessingDate IS NOT NULL")
+    List<PendingDeadlineRow> findPendingDeadlines();
+}
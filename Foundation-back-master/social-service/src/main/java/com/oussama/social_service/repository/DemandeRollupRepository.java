@@ -0,0 +1,45 @@
+package com.oussama.social_service.repository;
+
+import com.oussama.social_service.entity.DemandeRollup;
+import com.oussama.social_service.enums.PrestationCategory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DemandeRollupRepository extends JpaRepository<DemandeRollup, Long> {
+
+    List<DemandeRollup> findByBucketDateBetweenOrderByBucketDateAsc(LocalDate from, LocalDate to);
+
+    List<DemandeRollup> findByCategoryAndBucketDateBetweenOrderByBucketDateAsc(PrestationCategory category, LocalDate from, LocalDate to);
+
+    // Upsert atomique : plusieurs instances peuvent vider leur accumulateur sur le même bucket
+    @Modifying
+    @Query(value = "INSERT INTO demande_rollups (bucket_date, category, created_count, submitted_count, approved_count, " +
+            "rejected_count, paid_count, cancelled_count, requested_amount, approved_amount, paid_amount) " +
+            "VALUES (:bucketDate, :category, :created, :submitted, :approved, :rejected, :paid, :cancelled, " +
+            ":requestedAmount, :approvedAmount, :paidAmount) " +
+            "ON DUPLICATE KEY UPDATE created_count = created_count + :created, " +
+            "submitted_count = submitted_count + :submitted, approved_count = approved_count + :approved, " +
+            "rejected_count = rejected_count + :rejected, paid_count = paid_count + :paid, " +
+            "cancelled_count = cancelled_count + :cancelled, requested_amount = requested_amount + :requestedAmount, " +
+            "approved_amount = approved_amount + :approvedAmount, paid_amount = paid_amount + :paidAmount",
+            nativeQuery = true)
+    void addToBucket(@Param("bucketDate") LocalDate bucketDate,
+                     @Param("category") String category,
+                     @Param("created") long created,
+                     @Param("submitted") long submitted,
+                     @Param("approved") long approved,
+                     @Param("rejected") long rejected,
+                     @Param("paid") long paid,
+                     @Param("cancelled") long cancelled,
+                     @Param("requestedAmount") BigDecimal requestedAmount,
+                     @Param("approvedAmount") BigDecimal approvedAmount,
+                     @Param("paidAmount") BigDecimal paidAmount);
+}
@@ -0,0 +1,38 @@
+package com.oussama.social_service.repository;
+
+import com.oussama.social_service.entity.NotificationOutboxMessage;
+import com.oussama.social_service.enums.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxMessage, Long> {
+
+    // Lot à relayer ; les lignes verrouillées par une autre instance sont sautées (SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM NotificationOutboxMessage m WHERE m.status = :status AND m.nextAttemptAt <= :now ORDER BY m.id")
+    List<NotificationOutboxMessage> findDue(@Param("status") OutboxStatus status,
+                                            @Param("now") LocalDateTime now,
+                                            Pageable pageable);
+
+    long countByStatus(OutboxStatus status);
+
+    @Modifying
+    @Query("UPDATE NotificationOutboxMessage m SET m.status = :pending, m.attempts = 0, m.nextAttemptAt = :now " +
+            "WHERE m.status = :failed")
+    int retryFailed(@Param("failed") OutboxStatus failed,
+                    @Param("pending") OutboxStatus pending,
+                    @Param("now") LocalDateTime now);
+}
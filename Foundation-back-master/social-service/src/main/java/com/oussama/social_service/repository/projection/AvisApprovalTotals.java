@@ -0,0 +1,16 @@
+package com.oussama.social_service.repository.projection;
+
+/**
+ * Agrégats des avis selon leur approbation (réconciliation des statistiques).
+ */
+public interface AvisApprovalTotals {
+    Boolean getApproved();
+
+    Long getTotal();
+
+    Long getRatingSum();
+
+    Long getPositive();
+
+    Long getNegative();
+}
@@ -0,0 +1,12 @@
+package com.oussama.social_service.repository.projection;
+
+/**
+ * Champs textuels d'un avis approuvé (chargement de l'index de recherche).
+ */
+public interface AvisSearchRow {
+    Long getId();
+
+    String getUserName();
+
+    String getComment();
+}
@@ -0,0 +1,29 @@
+package com.oussama.social_service.repository.projection;
+
+import com.oussama.social_service.enums.DemandeStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Colonnes nécessaires pour reconstruire les agrégats à partir de l'historique des demandes.
+ */
+public interface DemandeHistoryRow {
+    Long getPrestationId();
+
+    DemandeStatus getStatus();
+
+    BigDecimal getRequestedAmount();
+
+    BigDecimal getApprovedAmount();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getSubmittedAt();
+
+    LocalDateTime getProcessedAt();
+
+    LocalDateTime getPaymentDate();
+
+    LocalDateTime getUpdatedAt();
+}
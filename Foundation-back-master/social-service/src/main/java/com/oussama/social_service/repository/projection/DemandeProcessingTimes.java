@@ -0,0 +1,9 @@
+package com.oussama.social_service.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface DemandeProcessingTimes {
+    LocalDateTime getSubmittedAt();
+
+    LocalDateTime getProcessedAt();
+}
@@ -0,0 +1,14 @@
+package com.oussama.social_service.repository.projection;
+
+/**
+ * Champs textuels d'une demande (chargement de l'index de recherche).
+ */
+public interface DemandeSearchRow {
+    Long getId();
+
+    String getUserName();
+
+    String getUserEmail();
+
+    String getJustification();
+}
@@ -0,0 +1,18 @@
+package com.oussama.social_service.repository.projection;
+
+import com.oussama.social_service.enums.DemandeStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Agrégats des demandes par statut (réconciliation des statistiques).
+ */
+public interface DemandeStatusTotals {
+    DemandeStatus getStatus();
+
+    Long getTotal();
+
+    BigDecimal getRequestedAmount();
+
+    BigDecimal getEffectiveAmount();
+}
@@ -0,0 +1,14 @@
+package com.oussama.social_service.repository.projection;
+
+import com.oussama.social_service.enums.AvisStatus;
+
+/**
+ * Avis modéré par un humain (entraînement du classifieur de pré-modération).
+ */
+public interface ModeratedAvisRow {
+    String getComment();
+
+    Integer getRating();
+
+    AvisStatus getStatus();
+}
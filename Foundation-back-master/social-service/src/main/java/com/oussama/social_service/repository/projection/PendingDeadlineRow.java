@@ -0,0 +1,16 @@
+package com.oussama.social_service.repository.projection;
+
+import com.oussama.social_service.enums.SlaStage;
+
+import java.time.LocalDateTime;
+
+/**
+ * Demande en attente avec une échéance (chargement du moniteur de délais).
+ */
+public interface PendingDeadlineRow {
+    Long getId();
+
+    LocalDateTime getExpectedProcessingDate();
+
+    SlaStage getSlaStage();
+}
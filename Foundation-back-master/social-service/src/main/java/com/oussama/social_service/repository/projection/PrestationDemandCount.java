@@ -0,0 +1,10 @@
+package com.oussama.social_service.repository.projection;
+
+/**
+ * Nombre total de demandes par prestation.
+ */
+public interface PrestationDemandCount {
+    Long getPrestationId();
+
+    Long getTotal();
+}
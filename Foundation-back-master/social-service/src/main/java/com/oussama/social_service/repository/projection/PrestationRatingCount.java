@@ -0,0 +1,12 @@
+package com.oussama.social_service.repository.projection;
+
+/**
+ * Nombre d'avis approuvés par prestation et par note.
+ */
+public interface PrestationRatingCount {
+    Long getPrestationId();
+
+    Integer getRating();
+
+    Long getTotal();
+}
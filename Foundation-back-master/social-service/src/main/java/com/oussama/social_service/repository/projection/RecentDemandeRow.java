@@ -0,0 +1,12 @@
+package com.oussama.social_service.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Demande récente réduite à sa prestation et sa date (calcul du score de tendance).
+ */
+public interface RecentDemandeRow {
+    Long getPrestationId();
+
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,12 @@
+package com.oussama.social_service.repository.projection;
+
+import com.oussama.social_service.enums.DemandeStatus;
+
+/**
+ * Nombre de demandes d'un utilisateur par statut.
+ */
+public interface StatusCount {
+    DemandeStatus getStatus();
+
+    Long getTotal();
+}
@@ -19,7 +19,6 @@ public interface AdminSocialService {
     DemandeDto updateDemandeStatus(Long id, String status, String adminComment);
     
     // Avis Admin
-    PageResponse<AvisDto> getPendingAvis(int page, int size);
     AvisDto approveAvis(Long id);
     AvisDto rejectAvis(Long id);
 }
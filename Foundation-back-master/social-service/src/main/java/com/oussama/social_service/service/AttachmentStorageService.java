@@ -0,0 +1,373 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.dto.AttachmentDto;
+import com.oussama.social_service.dto.AttachmentUploadRequest;
+import com.oussama.social_service.dto.AttachmentUploadStatusDto;
+import com.oussama.social_service.entity.Attachment;
+import com.oussama.social_service.entity.AttachmentUpload;
+import com.oussama.social_service.entity.Demande;
+import com.oussama.social_service.enums.DemandeStatus;
+import com.oussama.social_service.repository.AttachmentRepository;
+import com.oussama.social_service.repository.AttachmentUploadRepository;
+import com.oussama.social_service.repository.DemandeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pièces jointes des demandes : envoi par morceaux reprenable, écrit directement sur disque
+ * (FileChannel, tampon de taille fixe) avec calcul du SHA-256 au fil de l'eau.
+ * Les contenus sont rangés par empreinte : un fichier identique n'est stocké qu'une fois.
+ */
+@Service
+@Slf4j
+public class AttachmentStorageService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_CONTENT_TYPE_LENGTH = 255;
+    private static final String PARTS_DIR = "parts";
+    private static final String OBJECTS_DIR = "objects";
+    private static final Set<DemandeStatus> OPEN_STATUSES =
+            EnumSet.of(DemandeStatus.DRAFT, DemandeStatus.SUBMITTED, DemandeStatus.IN_REVIEW);
+
+    private final AttachmentRepository attachmentRepository;
+    private final AttachmentUploadRepository attachmentUploadRepository;
+    private final DemandeRepository demandeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Path storagePath;
+    private final long maxAttachmentSize;
+    private final long uploadExpiryHours;
+
+    // État du SHA-256 par envoi en cours ; reconstruit depuis le fichier partiel s'il est absent
+    private final Map<String, HashState> hashStates = new ConcurrentHashMap<>();
+
+    public AttachmentStorageService(AttachmentRepository attachmentRepository,
+                                    AttachmentUploadRepository attachmentUploadRepository,
+                                    DemandeRepository demandeRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${upload.attachment.dir:./uploads/attachments}") String attachmentDir,
+                                    @Value("${upload.attachment.max-size:20971520}") long maxAttachmentSize,
+                                    @Value("${upload.attachment.expiry-hours:24}") long uploadExpiryHours) {
+        this.attachmentRepository = attachmentRepository;
+        this.attachmentUploadRepository = attachmentUploadRepository;
+        this.demandeRepository = demandeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.storagePath = Paths.get(attachmentDir).toAbsolutePath().normalize();
+        this.maxAttachmentSize = maxAttachmentSize;
+        this.uploadExpiryHours = uploadExpiryHours;
+    }
+
+    public AttachmentUploadStatusDto startUpload(Long demandeId, String userEmail, AttachmentUploadRequest request) {
+        Demande demande = findOwnedDemande(demandeId, userEmail);
+        if (!OPEN_STATUSES.contains(demande.getStatus())) {
+            throw new RuntimeException("Attachments can no longer be added to this demande");
+        }
+        if (request.getSize() > maxAttachmentSize) {
+            throw new RuntimeException("Attachment size exceeds maximum limit of " + (maxAttachmentSize / 1024 / 1024) + "MB");
+        }
+
+        AttachmentUpload upload = AttachmentUpload.builder()
+                .id(UUID.randomUUID().toString())
+                .demandeId(demandeId)
+                .userEmail(userEmail)
+                .filename(Paths.get(request.getFilename()).getFileName().toString())
+                .contentType(normalizeContentType(request.getContentType()))
+                .totalSize(request.getSize())
+                .build();
+        try {
+            Files.createDirectories(storagePath.resolve(PARTS_DIR));
+            Files.createFile(partPath(upload.getId()));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to prepare attachment upload", e);
+        }
+        upload = attachmentUploadRepository.save(upload);
+        log.info("Attachment upload {} started for demande {} ({} bytes)", upload.getId(), demandeId, upload.getTotalSize());
+
+        return toStatus(upload, 0L, null);
+    }
+
+    public AttachmentUploadStatusDto getUploadStatus(String uploadId, String userEmail) {
+        AttachmentUpload upload = findOwnedUpload(uploadId, userEmail);
+        try {
+            return toStatus(upload, Files.size(partPath(uploadId)), null);
+        } catch (IOException e) {
+            throw new RuntimeException("Upload data not found: " + uploadId, e);
+        }
+    }
+
+    /**
+     * Ajoute un morceau à partir de {@code offset}, qui doit être égal au nombre d'octets déjà reçus.
+     * Le dernier morceau termine l'envoi et crée l'Attachment.
+     */
+    public AttachmentUploadStatusDto appendChunk(String uploadId, String userEmail, long offset, InputStream body) {
+        AttachmentUpload upload = findOwnedUpload(uploadId, userEmail);
+        Path part = partPath(uploadId);
+        HashState state = hashStates.computeIfAbsent(uploadId, id -> new HashState());
+
+        synchronized (state) {
+            long received;
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+                long current = channel.size();
+                if (offset != current) {
+                    throw new RuntimeException("Upload offset mismatch: expected " + current + " but got " + offset);
+                }
+                state.catchUp(channel, current);
+
+                received = current;
+                channel.position(current);
+                ReadableByteChannel source = Channels.newChannel(body);
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                while (source.read(buffer) != -1) {
+                    buffer.flip();
+                    if (received + buffer.remaining() > upload.getTotalSize()) {
+                        // Morceau trop long : on revient à l'état d'avant ce morceau
+                        channel.truncate(current);
+                        hashStates.remove(uploadId);
+                        throw new RuntimeException("Chunk exceeds declared attachment size");
+                    }
+                    state.digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        received += channel.write(buffer);
+                    }
+                    state.position = received;
+                    buffer.clear();
+                }
+            } catch (IOException e) {
+                hashStates.remove(uploadId);
+                throw new RuntimeException("Failed to store attachment chunk", e);
+            }
+
+            if (received < upload.getTotalSize()) {
+                return toStatus(upload, received, null);
+            }
+            AttachmentDto attachment = complete(upload, HexFormat.of().formatHex(state.digest.digest()));
+            hashStates.remove(uploadId);
+            return toStatus(upload, received, attachment);
+        }
+    }
+
+    public List<AttachmentDto> getDemandeAttachments(Long demandeId, String userEmail) {
+        findOwnedDemande(demandeId, userEmail);
+        return attachmentRepository.findByDemandeIdOrderByUploadedAtAsc(demandeId)
+                .stream()
+                .map(this::toDto)
+                .toList();
+    }
+
+    public List<AttachmentDto> getDemandeAttachments(Long demandeId) {
+        return attachmentRepository.findByDemandeIdOrderByUploadedAtAsc(demandeId)
+                .stream()
+                .map(this::toDto)
+                .toList();
+    }
+
+    public long countAttachments(Long demandeId) {
+        return attachmentRepository.countByDemandeId(demandeId);
+    }
+
+    /**
+     * Contenu d'une pièce jointe ; {@code userEmail} null pour un accès administrateur.
+     */
+    public AttachmentContent getContent(Long attachmentId, String userEmail) {
+        Attachment attachment = attachmentRepository.findById(attachmentId)
+                .orElseThrow(() -> new RuntimeException("Attachment not found with ID: " + attachmentId));
+        if (userEmail != null) {
+            findOwnedDemande(attachment.getDemandeId(), userEmail);
+        }
+
+        Path file = storagePath.resolve(attachment.getPath()).normalize();
+        if (!file.startsWith(storagePath) || !Files.isReadable(file)) {
+            throw new RuntimeException("Attachment content not found: " + attachmentId);
+        }
+        return new AttachmentContent(new FileSystemResource(file), attachment.getFilename(), attachment.getContentType());
+    }
+
+    @Scheduled(fixedDelayString = "${upload.attachment.cleanup-interval-ms:3600000}")
+    public void purgeExpiredUploads() {
+        List<AttachmentUpload> expired =
+                attachmentUploadRepository.findByCreatedAtBefore(LocalDateTime.now().minusHours(uploadExpiryHours));
+        for (AttachmentUpload upload : expired) {
+            hashStates.remove(upload.getId());
+            try {
+                Files.deleteIfExists(partPath(upload.getId()));
+            } catch (IOException e) {
+                log.warn("Could not delete expired upload data {}", upload.getId(), e);
+            }
+            attachmentUploadRepository.delete(upload);
+        }
+        if (!expired.isEmpty()) {
+            log.info("Purged {} expired attachment uploads", expired.size());
+        }
+    }
+
+    private AttachmentDto complete(AttachmentUpload upload, String sha256) {
+        Path part = partPath(upload.getId());
+        String relativePath = OBJECTS_DIR + "/" + sha256.substring(0, 2) + "/" + sha256;
+        Path target = storagePath.resolve(relativePath);
+
+        try {
+            if (Files.exists(target)) {
+                // Contenu déjà stocké (même empreinte) : on garde l'exemplaire existant
+                Files.delete(part);
+                log.info("Attachment upload {} deduplicated ({})", upload.getId(), sha256);
+            } else {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    Files.delete(part);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store attachment", e);
+        }
+
+        Attachment attachment = transactionTemplate.execute(status -> {
+            Attachment saved = attachmentRepository.save(Attachment.builder()
+                    .demandeId(upload.getDemandeId())
+                    .filename(upload.getFilename())
+                    .contentType(upload.getContentType())
+                    .path(relativePath)
+                    .sizeBytes(upload.getTotalSize())
+                    .sha256(sha256)
+                    .build());
+            attachmentUploadRepository.deleteById(upload.getId());
+            return saved;
+        });
+        log.info("Attachment {} stored for demande {}", attachment.getId(), upload.getDemandeId());
+        return toDto(attachment);
+    }
+
+    private Demande findOwnedDemande(Long demandeId, String userEmail) {
+        Demande demande = demandeRepository.findById(demandeId)
+                .orElseThrow(() -> new RuntimeException("Demande not found"));
+        if (!demande.getUserEmail().equals(userEmail)) {
+            throw new RuntimeException("Access denied");
+        }
+        return demande;
+    }
+
+    private AttachmentUpload findOwnedUpload(String uploadId, String userEmail) {
+        AttachmentUpload upload = attachmentUploadRepository.findById(uploadId)
+                .orElseThrow(() -> new RuntimeException("Upload not found: " + uploadId));
+        if (!upload.getUserEmail().equals(userEmail)) {
+            throw new RuntimeException("Access denied");
+        }
+        return upload;
+    }
+
+    private Path partPath(String uploadId) {
+        return storagePath.resolve(PARTS_DIR).resolve(uploadId + ".part");
+    }
+
+    private AttachmentUploadStatusDto toStatus(AttachmentUpload upload, long offset, AttachmentDto attachment) {
+        return AttachmentUploadStatusDto.builder()
+                .uploadId(upload.getId())
+                .offset(offset)
+                .size(upload.getTotalSize())
+                .completed(attachment != null)
+                .attachment(attachment)
+                .build();
+    }
+
+    private AttachmentDto toDto(Attachment attachment) {
+        return AttachmentDto.builder()
+                .id(attachment.getId())
+                .demandeId(attachment.getDemandeId())
+                .filename(attachment.getFilename())
+                .contentType(attachment.getContentType())
+                .sizeBytes(attachment.getSizeBytes())
+                .sha256(attachment.getSha256())
+                .uploadedAt(attachment.getUploadedAt())
+                .build();
+    }
+
+    /**
+     * Type MIME déclaré par le client, normalisé ; application/octet-stream s'il est absent, invalide ou générique.
+     */
+    public static String normalizeContentType(String contentType) {
+        if (contentType == null || contentType.isBlank()) {
+            return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType.trim());
+            String normalized = mediaType.toString();
+            if (!mediaType.isConcrete() || normalized.length() > MAX_CONTENT_TYPE_LENGTH) {
+                return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+            }
+            return normalized;
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        }
+    }
+
+    public record AttachmentContent(Resource resource, String filename, String contentType) {
+    }
+
+    private static final class HashState {
+        private MessageDigest digest;
+        private long position = -1;
+
+        /**
+         * Aligne le condensé sur les {@code size} octets du fichier partiel (après un redémarrage
+         * ou une écriture interrompue) en relisant le fichier une fois.
+         */
+        void catchUp(FileChannel channel, long size) throws IOException {
+            if (digest != null && position == size) {
+                return;
+            }
+            digest = newDigest();
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long read = 0;
+            while (read < size) {
+                int n = channel.read(buffer, read);
+                if (n < 0) {
+                    break;
+                }
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+                read += n;
+            }
+            position = read;
+        }
+
+        private static MessageDigest newDigest() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+}
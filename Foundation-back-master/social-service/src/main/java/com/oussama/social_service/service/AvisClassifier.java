@@ -0,0 +1,149 @@
+package com.oussama.social_service.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Classifieur de pré-modération des avis : dictionnaire de termes injurieux et classifieur bayésien naïf
+ * (unigrammes, bigrammes et note attribuée) entraîné sur les décisions des modérateurs.
+ *
+ * Le texte est normalisé par {@link TextFolding} avant découpage. Une instance est immuable ;
+ * un nouvel entraînement produit une nouvelle instance.
+ */
+public final class AvisClassifier {
+
+    private static final Pattern REPEATED = Pattern.compile("(.)\\1+");
+
+    private static final int APPROVED = 0;
+    private static final int REJECTED = 1;
+
+    private final Set<String> profanity;
+    private final Map<String, long[]> featureCounts;
+    private final long[] featureTotals;
+    private final long[] documents;
+
+    private AvisClassifier(Set<String> profanity, Map<String, long[]> featureCounts,
+                           long[] featureTotals, long[] documents) {
+        this.profanity = profanity;
+        this.featureCounts = featureCounts;
+        this.featureTotals = featureTotals;
+        this.documents = documents;
+    }
+
+    public static AvisClassifier untrained(Set<String> profanity) {
+        return new AvisClassifier(profanity, Map.of(), new long[2], new long[2]);
+    }
+
+    public static Trainer trainer(Set<String> profanity) {
+        return new Trainer(profanity);
+    }
+
+    /**
+     * Lit un dictionnaire : un terme par ligne, lignes vides et commentaires (#) ignorés.
+     */
+    public static Set<String> loadDictionary(InputStream input) throws IOException {
+        Set<String> words = new HashSet<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String word = line.trim();
+                if (!word.isEmpty() && !word.startsWith("#")) {
+                    words.add(TextFolding.fold(word));
+                }
+            }
+        }
+        return Set.copyOf(words);
+    }
+
+    /**
+     * Probabilité qu'un modérateur approuve l'avis, et présence de termes injurieux.
+     * La probabilité vaut null tant que chaque classe compte moins de minSamplesPerClass exemples.
+     */
+    public Result classify(String comment, Integer rating, long minSamplesPerClass) {
+        List<String> tokens = TextFolding.terms(comment);
+        boolean profane = tokens.stream()
+                .anyMatch(token -> profanity.contains(token) || profanity.contains(REPEATED.matcher(token).replaceAll("$1")));
+        if (!isTrained(minSamplesPerClass)) {
+            return new Result(null, profane);
+        }
+
+        long totalDocuments = documents[APPROVED] + documents[REJECTED];
+        long vocabulary = featureCounts.size();
+        double[] logScores = new double[2];
+        for (int label = APPROVED; label <= REJECTED; label++) {
+            double score = Math.log((documents[label] + 1.0) / (totalDocuments + 2.0));
+            double denominator = featureTotals[label] + vocabulary + 1.0;
+            for (String feature : features(tokens, rating)) {
+                long[] counts = featureCounts.get(feature);
+                score += Math.log(((counts != null ? counts[label] : 0) + 1.0) / denominator);
+            }
+            logScores[label] = score;
+        }
+        double approvalProbability = 1.0 / (1.0 + Math.exp(logScores[REJECTED] - logScores[APPROVED]));
+        return new Result(approvalProbability, profane);
+    }
+
+    public boolean isTrained(long minSamplesPerClass) {
+        return documents[APPROVED] >= minSamplesPerClass && documents[REJECTED] >= minSamplesPerClass;
+    }
+
+    public long getApprovedSamples() {
+        return documents[APPROVED];
+    }
+
+    public long getRejectedSamples() {
+        return documents[REJECTED];
+    }
+
+    private static List<String> features(List<String> tokens, Integer rating) {
+        List<String> features = new ArrayList<>(tokens.size() * 2 + 1);
+        for (int i = 0; i < tokens.size(); i++) {
+            features.add(tokens.get(i));
+            if (i > 0) {
+                features.add(tokens.get(i - 1) + ' ' + tokens.get(i));
+            }
+        }
+        if (rating != null) {
+            features.add("#rating:" + rating);
+        }
+        return features;
+    }
+
+    public record Result(Double approvalProbability, boolean profane) {
+    }
+
+    public static final class Trainer {
+        private final Set<String> profanity;
+        private final Map<String, long[]> featureCounts = new HashMap<>();
+        private final long[] featureTotals = new long[2];
+        private final long[] documents = new long[2];
+
+        private Trainer(Set<String> profanity) {
+            this.profanity = profanity;
+        }
+
+        public Trainer add(String comment, Integer rating, boolean approved) {
+            int label = approved ? APPROVED : REJECTED;
+            documents[label]++;
+            for (String feature : features(TextFolding.terms(comment), rating)) {
+                featureCounts.computeIfAbsent(feature, key -> new long[2])[label]++;
+                featureTotals[label]++;
+            }
+            return this;
+        }
+
+        public AvisClassifier build() {
+            return new AvisClassifier(profanity, Map.copyOf(featureCounts), featureTotals.clone(), documents.clone());
+        }
+    }
+}
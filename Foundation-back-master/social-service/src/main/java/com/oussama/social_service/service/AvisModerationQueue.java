@@ -0,0 +1,304 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.dto.AvisDto;
+import com.oussama.social_service.dto.ModerationBatchDto;
+import com.oussama.social_service.dto.ModerationDecisionRequest;
+import com.oussama.social_service.dto.ModerationQueueStatsDto;
+import com.oussama.social_service.dto.ModerationResult;
+import com.oussama.social_service.dto.ModeratorStatsDto;
+import com.oussama.social_service.entity.Avis;
+import com.oussama.social_service.enums.AvisStatus;
+import com.oussama.social_service.event.AvisChangedEvent;
+import com.oussama.social_service.event.AvisSnapshot;
+import com.oussama.social_service.mapper.SocialMapper;
+import com.oussama.social_service.repository.AvisRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * File de modération des avis en attente. Chaque modérateur réserve un lot d'avis (les plus anciens
+ * d'abord) pour une durée limitée ; un avis réservé n'est proposé à personne d'autre tant que la
+ * réservation n'a pas expiré. Les décisions ne sont acceptées que sur les avis réservés par leur auteur.
+ *
+ * Les réservations sont tenues en mémoire : une instance unique du service est supposée. Une réservation
+ * perdue au redémarrage rend simplement l'avis de nouveau disponible.
+ */
+@Service
+@Slf4j
+public class AvisModerationQueue {
+
+    private static final int MAX_BATCH_SIZE = 100;
+
+    private final AvisRepository avisRepository;
+    private final AvisService avisService;
+    private final SocialMapper socialMapper;
+    private final long leaseMillis;
+
+    private final Object lock = new Object();
+
+    // Protégés par lock
+    private final Map<Long, Lease> leases = new HashMap<>();
+    private final Map<Long, ModeratorCounters> counters = new HashMap<>();
+
+    public AvisModerationQueue(AvisRepository avisRepository,
+                               AvisService avisService,
+                               SocialMapper socialMapper,
+                               @Value("${social.moderation.lease-seconds:300}") long leaseSeconds) {
+        this.avisRepository = avisRepository;
+        this.avisService = avisService;
+        this.socialMapper = socialMapper;
+        this.leaseMillis = Duration.ofSeconds(leaseSeconds).toMillis();
+    }
+
+    /**
+     * Réserve jusqu'à size avis pour le modérateur. Les réservations qu'il détient déjà sont prolongées
+     * et comptent dans le lot ; le complément est pris parmi les avis en attente non réservés.
+     */
+    public ModerationBatchDto claim(Long moderatorId, int size) {
+        if (moderatorId == null) {
+            throw new RuntimeException("Moderator ID is required");
+        }
+        int batchSize = Math.max(1, Math.min(size, MAX_BATCH_SIZE));
+        long now = System.currentTimeMillis();
+        long expiresAt = now + leaseMillis;
+
+        List<Avis> held;
+        List<Avis> fresh = List.of();
+        synchronized (lock) {
+            purgeExpired(now);
+            List<Long> heldIds = new ArrayList<>();
+            leases.forEach((avisId, lease) -> {
+                if (lease.moderatorId.equals(moderatorId)) {
+                    heldIds.add(avisId);
+                }
+            });
+            held = heldIds.isEmpty() ? List.of() : avisRepository.findAllById(heldIds);
+            for (Avis avis : held) {
+                leases.get(avis.getId()).expiresAt = expiresAt;
+            }
+
+            // La lecture se fait sous le verrou : deux modérateurs ne peuvent pas obtenir le même avis
+            int missing = batchSize - held.size();
+            if (missing > 0) {
+                PageRequest page = PageRequest.of(0, missing);
+                fresh = leases.isEmpty()
+                        ? avisRepository.findByStatusOrderByCreatedAtAsc(AvisStatus.PENDING, page)
+                        : avisRepository.findByStatusAndIdNotInOrderByCreatedAtAsc(
+                                AvisStatus.PENDING, new ArrayList<>(leases.keySet()), page);
+                for (Avis avis : fresh) {
+                    leases.put(avis.getId(), new Lease(moderatorId, now, expiresAt));
+                }
+                countersFor(moderatorId).claimed += fresh.size();
+            }
+        }
+
+        List<AvisDto> avis = new ArrayList<>();
+        held.stream().filter(a -> a.getStatus() == AvisStatus.PENDING).map(socialMapper::toAvisDto).forEach(avis::add);
+        fresh.stream().map(socialMapper::toAvisDto).forEach(avis::add);
+        avis.sort(Comparator.comparing(AvisDto::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())));
+        log.info("Moderator {} claimed {} new avis ({} held)", moderatorId, fresh.size(), held.size());
+
+        return ModerationBatchDto.builder()
+                .moderatorId(moderatorId)
+                .leaseExpiresAt(toDateTime(expiresAt))
+                .avis(avis)
+                .build();
+    }
+
+    /**
+     * Applique les décisions du modérateur sur les avis qu'il a réservés, en une seule transaction.
+     */
+    public ModerationResult decide(Long moderatorId, ModerationDecisionRequest request) {
+        Map<Long, String> skipped = new LinkedHashMap<>();
+        List<Long> approve = new ArrayList<>();
+        List<Long> reject = new ArrayList<>();
+        Map<Long, Long> claimedAt = new HashMap<>();
+
+        long now = System.currentTimeMillis();
+        Set<Long> rejectIds = new HashSet<>(request.getRejectIds());
+        synchronized (lock) {
+            purgeExpired(now);
+            for (Long id : request.getApproveIds()) {
+                if (rejectIds.contains(id)) {
+                    skipped.put(id, "Both approved and rejected");
+                } else if (checkLease(id, moderatorId, skipped, claimedAt)) {
+                    approve.add(id);
+                }
+            }
+            for (Long id : rejectIds) {
+                if (!skipped.containsKey(id) && checkLease(id, moderatorId, skipped, claimedAt)) {
+                    reject.add(id);
+                }
+            }
+        }
+
+        Set<Long> moderated = new HashSet<>(avisService.moderateBatch(approve, reject, moderatorId));
+        List<Long> approvedIds = approve.stream().filter(moderated::contains).toList();
+        List<Long> rejectedIds = reject.stream().filter(moderated::contains).toList();
+
+        long decidedAt = System.currentTimeMillis();
+        synchronized (lock) {
+            ModeratorCounters moderator = countersFor(moderatorId);
+            for (Long id : approve) {
+                leases.remove(id);
+                if (!moderated.contains(id)) {
+                    skipped.put(id, "Not pending anymore");
+                }
+            }
+            for (Long id : reject) {
+                leases.remove(id);
+                if (!moderated.contains(id)) {
+                    skipped.put(id, "Not pending anymore");
+                }
+            }
+            for (Long id : moderated) {
+                moderator.decisionMillis += decidedAt - claimedAt.get(id);
+            }
+            moderator.approved += approvedIds.size();
+            moderator.rejected += rejectedIds.size();
+        }
+
+        return ModerationResult.builder()
+                .approvedIds(approvedIds)
+                .rejectedIds(rejectedIds)
+                .skipped(skipped)
+                .build();
+    }
+
+    /**
+     * Rend à la file les avis réservés par le modérateur, sans décision.
+     */
+    public int release(Long moderatorId, List<Long> avisIds) {
+        int released = 0;
+        synchronized (lock) {
+            for (Long id : avisIds) {
+                Lease lease = leases.get(id);
+                if (lease != null && lease.moderatorId.equals(moderatorId)) {
+                    leases.remove(id);
+                    released++;
+                }
+            }
+            countersFor(moderatorId).released += released;
+        }
+        return released;
+    }
+
+    public ModerationQueueStatsDto getStats() {
+        long pending = avisRepository.countByStatus(AvisStatus.PENDING);
+        synchronized (lock) {
+            purgeExpired(System.currentTimeMillis());
+            Map<Long, Integer> active = new HashMap<>();
+            leases.values().forEach(lease -> active.merge(lease.moderatorId, 1, Integer::sum));
+
+            List<ModeratorStatsDto> moderators = new ArrayList<>();
+            counters.forEach((moderatorId, c) -> {
+                long decided = c.approved + c.rejected;
+                moderators.add(ModeratorStatsDto.builder()
+                        .moderatorId(moderatorId)
+                        .activeLeases(active.getOrDefault(moderatorId, 0))
+                        .claimed(c.claimed)
+                        .approved(c.approved)
+                        .rejected(c.rejected)
+                        .released(c.released)
+                        .expired(c.expired)
+                        .averageDecisionSeconds(decided > 0 ? c.decisionMillis / 1000.0 / decided : null)
+                        .build());
+            });
+            moderators.sort(Comparator.comparing(ModeratorStatsDto::getModeratorId));
+
+            return ModerationQueueStatsDto.builder()
+                    .pending(pending)
+                    .leased(leases.size())
+                    .leaseSeconds(leaseMillis / 1000)
+                    .moderators(moderators)
+                    .build();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvisChanged(AvisChangedEvent event) {
+        AvisSnapshot after = event.after();
+        if (after != null && after.status() == AvisStatus.PENDING) {
+            return;
+        }
+        // Avis modéré hors de la file ou supprimé : la réservation n'a plus d'objet
+        Long id = after != null ? after.id() : event.before().id();
+        synchronized (lock) {
+            leases.remove(id);
+        }
+    }
+
+    // Appelé sous lock
+    private boolean checkLease(Long avisId, Long moderatorId, Map<Long, String> skipped, Map<Long, Long> claimedAt) {
+        Lease lease = leases.get(avisId);
+        if (lease == null) {
+            skipped.put(avisId, "Not claimed or lease expired");
+            return false;
+        }
+        if (!lease.moderatorId.equals(moderatorId)) {
+            skipped.put(avisId, "Claimed by another moderator");
+            return false;
+        }
+        claimedAt.put(avisId, lease.claimedAt);
+        return true;
+    }
+
+    // Appelé sous lock
+    private void purgeExpired(long now) {
+        Iterator<Lease> iterator = leases.values().iterator();
+        while (iterator.hasNext()) {
+            Lease lease = iterator.next();
+            if (lease.expiresAt <= now) {
+                iterator.remove();
+                countersFor(lease.moderatorId).expired++;
+            }
+        }
+    }
+
+    // Appelé sous lock
+    private ModeratorCounters countersFor(Long moderatorId) {
+        return counters.computeIfAbsent(moderatorId, id -> new ModeratorCounters());
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static final class Lease {
+        private final Long moderatorId;
+        private final long claimedAt;
+        private long expiresAt;
+
+        Lease(Long moderatorId, long claimedAt, long expiresAt) {
+            this.moderatorId = moderatorId;
+            this.claimedAt = claimedAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class ModeratorCounters {
+        private long claimed;
+        private long approved;
+        private long rejected;
+        private long released;
+        private long expired;
+        private long decisionMillis;
+    }
+}
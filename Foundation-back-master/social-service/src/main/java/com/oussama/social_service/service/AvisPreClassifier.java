@@ -0,0 +1,228 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.entity.Avis;
+import com.oussama.social_service.enums.AvisStatus;
+import com.oussama.social_service.event.AvisChangedEvent;
+import com.oussama.social_service.event.AvisSnapshot;
+import com.oussama.social_service.repository.AvisRepository;
+import com.oussama.social_service.repository.projection.ModeratedAvisRow;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Pré-classification asynchrone des nouveaux avis. Les avis créés sont mis en file puis traités par lots
+ * sur un exécuteur dédié : les avis positifs dont la probabilité d'approbation dépasse le seuil et sans
+ * terme injurieux sont approuvés automatiquement, les autres restent en attente pour la file de modération
+ * avec leur score. Le classifieur est réentraîné périodiquement sur les décisions des modérateurs.
+ *
+ * Tant que le classifieur n'est pas entraîné, les avis classés n'obtiennent pas de score : ceux restés sans
+ * score ne sont repris qu'une fois le classifieur entraîné, pas à chaque démarrage.
+ */
+@Service
+@Slf4j
+public class AvisPreClassifier {
+
+    private static final int POSITIVE_RATING = 4;
+
+    private final AvisRepository avisRepository;
+    private final AvisService avisService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Set<String> profanity;
+    private final int batchSize;
+    private final long batchDelayMillis;
+    private final double autoApproveThreshold;
+    private final long minSamplesPerClass;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "avis-pre-classifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Queue<Long> pendingIds = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private volatile AvisClassifier classifier;
+
+    private final AtomicLong classified = new AtomicLong();
+    private final AtomicLong autoApproved = new AtomicLong();
+    private final AtomicLong flagged = new AtomicLong();
+
+    public AvisPreClassifier(AvisRepository avisRepository,
+                             AvisService avisService,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${social.classifier.batch-size:50}") int batchSize,
+                             @Value("${social.classifier.batch-delay-ms:2000}") long batchDelayMillis,
+                             @Value("${social.classifier.auto-approve-threshold:0.95}") double autoApproveThreshold,
+                             @Value("${social.classifier.min-samples-per-class:50}") long minSamplesPerClass) {
+        this.avisRepository = avisRepository;
+        this.avisService = avisService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.profanity = loadProfanity();
+        this.batchSize = batchSize;
+        this.batchDelayMillis = batchDelayMillis;
+        this.autoApproveThreshold = autoApproveThreshold;
+        this.minSamplesPerClass = minSamplesPerClass;
+        this.classifier = AvisClassifier.untrained(profanity);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(() -> {
+            try {
+                retrain();
+            } catch (RuntimeException e) {
+                log.error("Avis pre-classifier startup failed", e);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${social.classifier.retrain-interval-ms:3600000}",
+            initialDelayString = "${social.classifier.retrain-interval-ms:3600000}")
+    public void scheduledRetrain() {
+        retrain();
+    }
+
+    /**
+     * Réentraîne le classifieur sur toutes les décisions humaines ; renvoie les effectifs par classe.
+     * Au premier entraînement suffisant (démarrage compris), les avis en attente sans score sont repris.
+     */
+    public synchronized Map<String, Long> retrain() {
+        boolean wasTrained = classifier.isTrained(minSamplesPerClass);
+        AvisClassifier.Trainer trainer = AvisClassifier.trainer(profanity);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ModeratedAvisRow> rows = avisRepository.streamModeratedAvis(AvisStatus.PUBLISHED, AvisStatus.REJECTED)) {
+                rows.forEach(row -> trainer.add(row.getComment(), row.getRating(), row.getStatus() == AvisStatus.PUBLISHED));
+            }
+        });
+        AvisClassifier trained = trainer.build();
+        classifier = trained;
+        log.info("Avis classifier trained on {} approved / {} rejected avis",
+                trained.getApprovedSamples(), trained.getRejectedSamples());
+        if (!wasTrained && trained.isTrained(minSamplesPerClass)) {
+            // Avis restés en attente sans score (créés pendant un arrêt ou avant l'entraînement) ; les avis
+            // antérieurs à la file de modération en sont exclus (V11)
+            enqueue(avisRepository.findUnclassifiedIds(AvisStatus.PENDING));
+        }
+        return Map.of("approved", trained.getApprovedSamples(), "rejected", trained.getRejectedSamples());
+    }
+
+    public Map<String, Long> getStats() {
+        AvisClassifier current = classifier;
+        return Map.of(
+                "classified", classified.get(),
+                "autoApproved", autoApproved.get(),
+                "flagged", flagged.get(),
+                "queued", (long) pendingIds.size(),
+                "approvedSamples", current.getApprovedSamples(),
+                "rejectedSamples", current.getRejectedSamples());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvisChanged(AvisChangedEvent event) {
+        AvisSnapshot after = event.after();
+        if (event.before() == null && after != null && after.status() == AvisStatus.PENDING) {
+            enqueue(List.of(after.id()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void enqueue(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        pendingIds.addAll(ids);
+        // Un seul traitement programmé à la fois : les avis arrivés pendant le délai forment le même lot
+        if (drainScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::drain, batchDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        List<Long> batch = new ArrayList<>(batchSize);
+        Long id;
+        while ((id = pendingIds.poll()) != null) {
+            batch.add(id);
+            if (batch.size() >= batchSize) {
+                processBatch(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            processBatch(batch);
+        }
+    }
+
+    private void processBatch(List<Long> ids) {
+        try {
+            AvisClassifier current = classifier;
+            Map<Long, AvisClassifier.Result> results = new HashMap<>();
+            Set<Long> autoApprove = new HashSet<>();
+            for (Avis avis : avisRepository.findAllById(ids)) {
+                if (avis.getStatus() != AvisStatus.PENDING || Boolean.TRUE.equals(avis.getManualReviewOnly())) {
+                    continue;
+                }
+                AvisClassifier.Result result = current.classify(avis.getComment(), avis.getRating(), minSamplesPerClass);
+                results.put(avis.getId(), result);
+                if (!result.profane() && result.approvalProbability() != null
+                        && result.approvalProbability() >= autoApproveThreshold
+                        && avis.getRating() != null && avis.getRating() >= POSITIVE_RATING) {
+                    autoApprove.add(avis.getId());
+                }
+                if (result.profane()) {
+                    flagged.incrementAndGet();
+                }
+            }
+            if (results.isEmpty()) {
+                return;
+            }
+
+            int approved = avisService.applyPreClassification(results, autoApprove);
+            classified.addAndGet(results.size());
+            autoApproved.addAndGet(approved);
+            log.info("Pre-classified {} avis, {} approved automatically", results.size(), approved);
+        } catch (RuntimeException e) {
+            log.error("Pre-classification failed for avis {}", ids, e);
+        }
+    }
+
+    private static Set<String> loadProfanity() {
+        try (InputStream input = new ClassPathResource("moderation/profanity.txt").getInputStream()) {
+            return AvisClassifier.loadDictionary(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load profanity dictionary", e);
+        }
+    }
+}
@@ -3,18 +3,30 @@ package com.oussama.social_service.service;
 import com.oussama.social_service.dto.*;
 import com.oussama.social_service.entity.Avis;
 import com.oussama.social_service.dto.response.PageResponse;
+import com.oussama.social_service.enums.AvisStatus;
 import com.oussama.social_service.enums.AvisType;
+import com.oussama.social_service.event.AvisChangedEvent;
+import com.oussama.social_service.event.AvisSnapshot;
 import com.oussama.social_service.mapper.SocialMapper;
 import com.oussama.social_service.repository.AvisRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -24,6 +36,9 @@ public class AvisService {
 
     private final AvisRepository avisRepository;
     private final SocialMapper socialMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PrestationRatingStore prestationRatingStore;
+    private final SearchIndexService searchIndexService;
 
     public AvisDto createAvis(AvisCreateRequest createRequest, Long userId, String userName) {
         log.info("Creating avis by user: {} for prestation: {}", userName, createRequest.getPrestationId());
@@ -48,6 +63,7 @@ public class AvisService {
         avis.setUserId(userId);
         avis.setUserName(userName);
         avis.setIsApproved(false); // Les avis doivent être approuvés par défaut
+        avis.setStatus(AvisStatus.PENDING);
         avis.setIsFeatured(false);
         avis.setCreatedAt(null);
         avis.setUpdatedAt(null);
@@ -58,6 +74,7 @@ public class AvisService {
         }
 
         avis = avisRepository.save(avis);
+        eventPublisher.publishEvent(AvisChangedEvent.created(AvisSnapshot.of(avis)));
         log.info("Avis created with ID: {}", avis.getId());
 
         return socialMapper.toAvisDto(avis);
@@ -69,11 +86,11 @@ public class AvisService {
         Avis avis = avisRepository.findById(avisId)
                 .orElseThrow(() -> new RuntimeException("Avis not found with ID: " + avisId));
 
-        avis.setIsApproved(true);
-        avis.setApprovedBy(approvedBy);
-        avis.setApprovedAt(LocalDateTime.now());
+        AvisSnapshot before = AvisSnapshot.of(avis);
+        applyDecision(avis, true, approvedBy, LocalDateTime.now());
 
         avis = avisRepository.save(avis);
+        eventPublisher.publishEvent(new AvisChangedEvent(before, AvisSnapshot.of(avis)));
         log.info("Avis approved successfully: {}", avisId);
 
         return socialMapper.toAvisDto(avis);
@@ -85,16 +102,74 @@ public class AvisService {
         Avis avis = avisRepository.findById(avisId)
                 .orElseThrow(() -> new RuntimeException("Avis not found with ID: " + avisId));
 
-        avis.setIsApproved(false);
-        avis.setApprovedBy(null);
-        avis.setApprovedAt(null);
+        AvisSnapshot before = AvisSnapshot.of(avis);
+        applyDecision(avis, false, null, LocalDateTime.now());
 
         avis = avisRepository.save(avis);
+        eventPublisher.publishEvent(new AvisChangedEvent(before, AvisSnapshot.of(avis)));
         log.info("Avis rejected successfully: {}", avisId);
 
         return socialMapper.toAvisDto(avis);
     }
 
+    /**
+     * Approuve et rejette un lot d'avis en une seule transaction. Seuls les avis encore en attente
+     * sont modifiés ; les identifiants effectivement traités sont renvoyés.
+     */
+    public List<Long> moderateBatch(Collection<Long> approveIds, Collection<Long> rejectIds, Long moderatorId) {
+        Set<Long> approve = new HashSet<>(approveIds);
+        List<Long> ids = new ArrayList<>(approve);
+        ids.addAll(rejectIds);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Avis> changed = new ArrayList<>();
+        List<AvisSnapshot> before = new ArrayList<>();
+        for (Avis avis : avisRepository.findAllById(ids)) {
+            if (avis.getStatus() != AvisStatus.PENDING) {
+                continue;
+            }
+            before.add(AvisSnapshot.of(avis));
+            applyDecision(avis, approve.contains(avis.getId()), moderatorId, now);
+            changed.add(avis);
+        }
+
+        avisRepository.saveAll(changed);
+        for (int i = 0; i < changed.size(); i++) {
+            eventPublisher.publishEvent(new AvisChangedEvent(before.get(i), AvisSnapshot.of(changed.get(i))));
+        }
+        log.info("Moderated {} of {} avis by admin: {}", changed.size(), ids.size(), moderatorId);
+
+        return changed.stream().map(Avis::getId).toList();
+    }
+
+    /**
+     * Enregistre le résultat de la pré-classification des avis encore en attente et approuve
+     * automatiquement ceux de autoApproveIds (sans approbateur). Renvoie le nombre d'avis approuvés.
+     */
+    public int applyPreClassification(Map<Long, AvisClassifier.Result> results, Set<Long> autoApproveIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Avis> classified = new ArrayList<>();
+        List<AvisChangedEvent> events = new ArrayList<>();
+        for (Avis avis : avisRepository.findAllById(results.keySet())) {
+            if (avis.getStatus() != AvisStatus.PENDING) {
+                continue;
+            }
+            AvisClassifier.Result result = results.get(avis.getId());
+            avis.setClassificationScore(result.approvalProbability());
+            avis.setProfanityFlagged(result.profane());
+            if (autoApproveIds.contains(avis.getId())) {
+                AvisSnapshot before = AvisSnapshot.of(avis);
+                applyDecision(avis, true, null, now);
+                events.add(new AvisChangedEvent(before, AvisSnapshot.of(avis)));
+            }
+            classified.add(avis);
+        }
+
+        avisRepository.saveAll(classified);
+        events.forEach(eventPublisher::publishEvent);
+        return events.size();
+    }
+
     public AvisDto respondToAvis(Long avisId, String adminResponse, Long respondedBy) {
         log.info("Responding to avis with ID: {} by admin: {}", avisId, respondedBy);
 
@@ -141,12 +216,6 @@ public class AvisService {
         return buildPageResponse(avisPage);
     }
 
-    @Transactional(readOnly = true)
-    public PageResponse<AvisDto> getPendingAvis(Pageable pageable) {
-        Page<Avis> avisPage = avisRepository.findByIsApprovedFalseOrderByCreatedAtDesc(pageable);
-        return buildPageResponse(avisPage);
-    }
-
     @Transactional(readOnly = true)
     public List<AvisDto> getFeaturedAvis() {
         return avisRepository.findByIsFeaturedTrueAndIsApprovedTrueOrderByCreatedAtDesc()
@@ -193,18 +262,22 @@ public class AvisService {
 
     @Transactional(readOnly = true)
     public PageResponse<AvisDto> searchAvis(String keyword, Pageable pageable) {
-        Page<Avis> avisPage = avisRepository.searchApprovedByKeyword(keyword, pageable);
-        return buildPageResponse(avisPage);
+        // Correspondances servies par l'index en mémoire, seule la page demandée est lue en base
+        List<Long> ids = searchIndexService.searchAvis(keyword);
+        List<Long> pageIds = SearchIndexService.slice(ids, pageable);
+        Map<Long, Avis> byId = new HashMap<>();
+        avisRepository.findAllById(pageIds).forEach(avis -> byId.put(avis.getId(), avis));
+        List<Avis> content = pageIds.stream().map(byId::get).filter(Objects::nonNull).toList();
+        return buildPageResponse(new PageImpl<>(content, pageable, ids.size()));
     }
 
-    @Transactional(readOnly = true)
+    // Servies par les agrégats en mémoire, sans AVG sur la table des avis
     public Double getAverageRating() {
-        return avisRepository.getAverageRating().orElse(0.0);
+        return prestationRatingStore.getOverallAverage();
     }
 
-    @Transactional(readOnly = true)
     public Double getAverageRatingByPrestation(Long prestationId) {
-        return avisRepository.getAverageRatingByPrestation(prestationId).orElse(0.0);
+        return prestationRatingStore.getRating(prestationId).getAverage();
     }
 
     @Transactional(readOnly = true)
@@ -222,9 +295,18 @@ public class AvisService {
                 .orElseThrow(() -> new RuntimeException("Avis not found with ID: " + id));
 
         avisRepository.delete(avis);
+        eventPublisher.publishEvent(AvisChangedEvent.deleted(AvisSnapshot.of(avis)));
         log.info("Avis deleted successfully: {}", id);
     }
 
+    private static void applyDecision(Avis avis, boolean approved, Long moderatorId, LocalDateTime now) {
+        avis.setStatus(approved ? AvisStatus.PUBLISHED : AvisStatus.REJECTED);
+        avis.setIsApproved(approved);
+        avis.setApprovedBy(approved ? moderatorId : null);
+        avis.setApprovedAt(approved ? now : null);
+        avis.setModeratedAt(now);
+    }
+
     private PageResponse<AvisDto> buildPageResponse(Page<Avis> avisPage) {
         return PageResponse.from(avisPage).map(socialMapper::toAvisDto);
     }
@@ -0,0 +1,93 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.event.AvisChangedEvent;
+import com.oussama.social_service.event.DemandeChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Rechargement cohérent des états en mémoire tenus à jour par les deltas après commit
+ * (DemandeChangedEvent, AvisChangedEvent).
+ *
+ * Un changement est « en cours » depuis la publication de son événement dans la transaction jusqu'à la fin
+ * de celle-ci, donc jusqu'après l'application de son delta. Un chargement depuis la base n'est installé que
+ * si aucun changement n'était en cours à son début ni n'a commencé pendant la lecture : la base lue contient
+ * alors exactement les deltas déjà appliqués, sans changement compté deux fois (commité avant la lecture mais
+ * appliqué après) ni perdu (commité après la lecture mais appliqué avant l'installation). La lecture se
+ * fait dans une transaction en écriture, donc sur le primaire : un réplica en retard la fausserait.
+ */
+@Component
+public class CommittedChangeTracker {
+
+    private static final int MAX_RELOAD_ATTEMPTS = 3;
+
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong finished = new AtomicLong();
+
+    private final TransactionTemplate transactionTemplate;
+
+    public CommittedChangeTracker(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener
+    public void onDemandeChanged(DemandeChangedEvent event) {
+        track();
+    }
+
+    @EventListener
+    public void onAvisChanged(AvisChangedEvent event) {
+        track();
+    }
+
+    /**
+     * Charge avec {@code load} puis, sous {@code lock}, installe le résultat avec {@code install} si aucun
+     * changement concurrent n'a pu le fausser ; sinon recommence, jusqu'à trois essais. Au dernier essai,
+     * {@code installAnyway} installe quand même (la réconciliation suivante corrigera l'écart éventuel).
+     *
+     * @return le dernier état chargé, installé ou non
+     */
+    public <T> T reload(Object lock, Supplier<T> load, Consumer<T> install, boolean installAnyway) {
+        for (int attempt = 1; ; attempt++) {
+            long startedBefore = started.get();
+            boolean idleBefore = finished.get() == startedBefore;
+
+            T loaded = transactionTemplate.execute(status -> load.get());
+
+            synchronized (lock) {
+                boolean consistent = idleBefore && started.get() == startedBefore;
+                boolean lastAttempt = attempt >= MAX_RELOAD_ATTEMPTS;
+                if (consistent || (lastAttempt && installAnyway)) {
+                    install.accept(loaded);
+                    return loaded;
+                }
+                if (lastAttempt) {
+                    return loaded;
+                }
+            }
+        }
+    }
+
+    // Les deltas sont appliqués en afterCommit, toujours avant les afterCompletion des synchronisations
+    private void track() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Hors transaction, le delta est appliqué immédiatement
+            return;
+        }
+        started.incrementAndGet();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                finished.incrementAndGet();
+            }
+        });
+    }
+}
@@ -0,0 +1,236 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.dto.DashboardStatsDto;
+import com.oussama.social_service.enums.DemandeStatus;
+import com.oussama.social_service.event.AvisChangedEvent;
+import com.oussama.social_service.event.AvisSnapshot;
+import com.oussama.social_service.event.DemandeChangedEvent;
+import com.oussama.social_service.event.DemandeSnapshot;
+import com.oussama.social_service.repository.AvisRepository;
+import com.oussama.social_service.repository.DemandeRepository;
+import com.oussama.social_service.repository.PrestationRepository;
+import com.oussama.social_service.repository.projection.AvisApprovalTotals;
+import com.oussama.social_service.repository.projection.DemandeProcessingTimes;
+import com.oussama.social_service.repository.projection.DemandeStatusTotals;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Statistiques du tableau de bord admin maintenues en mémoire.
+ * Chaque changement de demande ou d'avis applique un delta (ancien état retiré, nouvel état ajouté)
+ * après commit ; une réconciliation périodique recalcule tout depuis la base pour corriger toute dérive.
+ * La lecture renvoie le dernier instantané publié, sans requête.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardStatsService {
+
+    private final DemandeRepository demandeRepository;
+    private final AvisRepository avisRepository;
+    private final PrestationRepository prestationRepository;
+    private final CommittedChangeTracker changeTracker;
+
+    private final Object lock = new Object();
+
+    // Protégés par lock
+    private Totals totals = new Totals();
+
+    private volatile DashboardStatsDto snapshot = new Totals().toDto();
+
+    public DashboardStatsDto getStats() {
+        return snapshot;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDemandeChanged(DemandeChangedEvent event) {
+        synchronized (lock) {
+            totals.applyDemande(event.before(), -1);
+            totals.applyDemande(event.after(), 1);
+            snapshot = totals.toDto();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvisChanged(AvisChangedEvent event) {
+        synchronized (lock) {
+            totals.applyAvis(event.before(), -1);
+            totals.applyAvis(event.after(), 1);
+            snapshot = totals.toDto();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${social.dashboard.reconcile-interval-ms:900000}",
+            initialDelayString = "${social.dashboard.reconcile-interval-ms:900000}")
+    public void reconcile() {
+        changeTracker.reload(lock, this::loadFromDatabase, fresh -> {
+            if (!fresh.sameCountsAs(totals)) {
+                log.warn("Dashboard statistics drift corrected during reconciliation");
+            }
+            totals = fresh;
+            snapshot = totals.toDto();
+            log.info("Dashboard statistics reconciled");
+        }, true);
+    }
+
+    private Totals loadFromDatabase() {
+        Totals fresh = new Totals();
+
+        for (DemandeStatusTotals row : demandeRepository.aggregateByStatus()) {
+            fresh.addStatusTotals(row.getStatus(), row.getTotal(), row.getRequestedAmount(), row.getEffectiveAmount());
+        }
+        for (DemandeProcessingTimes row : demandeRepository.findProcessingTimes()) {
+            fresh.addProcessingTime(row.getSubmittedAt(), row.getProcessedAt(), 1);
+        }
+        for (AvisApprovalTotals row : avisRepository.aggregateByApproval()) {
+            fresh.addAvisTotals(Boolean.TRUE.equals(row.getApproved()), row.getTotal(),
+                    valueOf(row.getRatingSum()), valueOf(row.getPositive()), valueOf(row.getNegative()));
+        }
+        fresh.totalPrestations = prestationRepository.count();
+        fresh.activePrestations = prestationRepository.countByIsActiveTrue();
+
+        return fresh;
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    /**
+     * Compteurs bruts ; les moyennes sont dérivées à la publication.
+     */
+    private static final class Totals {
+        private final Map<DemandeStatus, Long> demandesByStatus = new EnumMap<>(DemandeStatus.class);
+        private BigDecimal requestedAmount = BigDecimal.ZERO;
+        private BigDecimal approvedAmount = BigDecimal.ZERO;
+        private BigDecimal paidAmount = BigDecimal.ZERO;
+        private long processedCount;
+        private double processingDaysSum;
+
+        private long totalAvis;
+        private long approvedAvis;
+        private long approvedRatingSum;
+        private long positiveAvis;
+        private long negativeAvis;
+
+        private long totalPrestations;
+        private long activePrestations;
+
+        void applyDemande(DemandeSnapshot demande, int sign) {
+            if (demande == null) {
+                return;
+            }
+            BigDecimal requested = demande.requestedAmount() != null ? demande.requestedAmount() : BigDecimal.ZERO;
+            BigDecimal effective = demande.approvedAmount() != null ? demande.approvedAmount() : requested;
+            addStatusTotals(demande.status(), sign, requested.multiply(BigDecimal.valueOf(sign)),
+                    effective.multiply(BigDecimal.valueOf(sign)));
+            addProcessingTime(demande.submittedAt(), demande.processedAt(), sign);
+        }
+
+        void applyAvis(AvisSnapshot avis, int sign) {
+            if (avis == null) {
+                return;
+            }
+            Integer rating = avis.rating();
+            addAvisTotals(avis.approved(), sign, rating != null ? (long) sign * rating : 0L,
+                    isPositive(rating) ? sign : 0, isNegative(rating) ? sign : 0);
+        }
+
+        // Mêmes prédicats que AvisRepository.aggregateByApproval
+        private static boolean isPositive(Integer rating) {
+            return rating != null && rating >= AvisRepository.POSITIVE_MIN_RATING;
+        }
+
+        private static boolean isNegative(Integer rating) {
+            return rating != null && rating >= AvisRepository.NEGATIVE_MIN_RATING
+                    && rating <= AvisRepository.NEGATIVE_MAX_RATING;
+        }
+
+        void addStatusTotals(DemandeStatus status, long count, BigDecimal requested, BigDecimal effective) {
+            if (status == null) {
+                return;
+            }
+            demandesByStatus.merge(status, count, Long::sum);
+            requestedAmount = requestedAmount.add(requested != null ? requested : BigDecimal.ZERO);
+            if (status == DemandeStatus.APPROVED || status == DemandeStatus.PAID) {
+                approvedAmount = approvedAmount.add(effective != null ? effective : BigDecimal.ZERO);
+            }
+            if (status == DemandeStatus.PAID) {
+                paidAmount = paidAmount.add(effective != null ? effective : BigDecimal.ZERO);
+            }
+        }
+
+        void addProcessingTime(LocalDateTime submittedAt, LocalDateTime processedAt, int sign) {
+            if (submittedAt == null || processedAt == null) {
+                return;
+            }
+            processedCount += sign;
+            processingDaysSum += sign * Duration.between(submittedAt, processedAt).toMinutes() / 1440.0;
+        }
+
+        void addAvisTotals(boolean approved, long count, long ratingSum, long positive, long negative) {
+            totalAvis += count;
+            if (approved) {
+                approvedAvis += count;
+                approvedRatingSum += ratingSum;
+                positiveAvis += positive;
+                negativeAvis += negative;
+            }
+        }
+
+        boolean sameCountsAs(Totals other) {
+            return demandesByStatus.equals(other.demandesByStatus)
+                    && totalAvis == other.totalAvis
+                    && approvedAvis == other.approvedAvis
+                    && approvedRatingSum == other.approvedRatingSum;
+        }
+
+        private long count(DemandeStatus status) {
+            return demandesByStatus.getOrDefault(status, 0L);
+        }
+
+        DashboardStatsDto toDto() {
+            long totalDemandes = demandesByStatus.values().stream().mapToLong(Long::longValue).sum();
+            return DashboardStatsDto.builder()
+                    .totalDemandes(totalDemandes)
+                    .demandesEnAttente(count(DemandeStatus.SUBMITTED) + count(DemandeStatus.IN_REVIEW))
+                    .demandesApprouvees(count(DemandeStatus.APPROVED))
+                    .demandesRejetees(count(DemandeStatus.REJECTED))
+                    .demandesPayees(count(DemandeStatus.PAID))
+                    .montantTotalDemande(requestedAmount)
+                    .montantTotalApprouve(approvedAmount)
+                    .montantTotalPaye(paidAmount)
+                    .totalPrestations(totalPrestations)
+                    .prestationsActives(activePrestations)
+                    .totalAvis(totalAvis)
+                    .moyenneNotes(approvedAvis > 0
+                            ? BigDecimal.valueOf((double) approvedRatingSum / approvedAvis)
+                                    .setScale(2, RoundingMode.HALF_UP).doubleValue()
+                            : 0.0)
+                    .avisPositifs(positiveAvis)
+                    .avisNegatifs(negativeAvis)
+                    .tempsTraitementMoyen(processedCount > 0
+                            ? BigDecimal.valueOf(processingDaysSum / processedCount)
+                                    .setScale(1, RoundingMode.HALF_UP).doubleValue()
+                            : 0.0)
+                    .build();
+        }
+    }
+}
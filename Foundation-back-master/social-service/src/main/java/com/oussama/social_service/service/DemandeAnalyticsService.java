@@ -0,0 +1,411 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.dto.DemandeAnalyticsDto;
+import com.oussama.social_service.entity.DemandeRollup;
+import com.oussama.social_service.enums.AnalyticsGranularity;
+import com.oussama.social_service.enums.DemandeStatus;
+import com.oussama.social_service.enums.PrestationCategory;
+import com.oussama.social_service.event.DemandeChangedEvent;
+import com.oussama.social_service.event.DemandeSnapshot;
+import com.oussama.social_service.repository.DemandeRepository;
+import com.oussama.social_service.repository.DemandeRollupRepository;
+import com.oussama.social_service.repository.projection.DemandeHistoryRow;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Agrégats des demandes par jour et par catégorie de prestation.
+ * Les transitions sont cumulées en mémoire puis ajoutées périodiquement à la table demande_rollups ;
+ * une plage de dates quelconque est servie en sommant les buckets journaliers (et l'accumulateur courant).
+ */
+@Service
+@Slf4j
+public class DemandeAnalyticsService {
+
+    private final DemandeRollupRepository demandeRollupRepository;
+    private final DemandeRepository demandeRepository;
+    private final PrestationCatalog prestationCatalog;
+    private final CommittedChangeTracker changeTracker;
+    private final TransactionTemplate transactionTemplate;
+
+    // Deltas pas encore écrits en base, protégés par synchronized (pending)
+    private final Map<BucketKey, Counters> pending = new HashMap<>();
+
+    // Une lecture (table + deltas) ne chevauche jamais l'écriture d'un lot : elle voit le lot soit
+    // dans pending, soit en base après commit, jamais dans les deux ni dans aucun
+    private final ReadWriteLock rollupLock = new ReentrantReadWriteLock();
+
+    public DemandeAnalyticsService(DemandeRollupRepository demandeRollupRepository,
+                                   DemandeRepository demandeRepository,
+                                   PrestationCatalog prestationCatalog,
+                                   CommittedChangeTracker changeTracker,
+                                   PlatformTransactionManager transactionManager) {
+        this.demandeRollupRepository = demandeRollupRepository;
+        this.demandeRepository = demandeRepository;
+        this.prestationCatalog = prestationCatalog;
+        this.changeTracker = changeTracker;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDemandeChanged(DemandeChangedEvent event) {
+        DemandeSnapshot after = event.after();
+        if (after == null) {
+            // Suppression : les volumes des jours passés restent acquis
+            return;
+        }
+
+        Counters delta = new Counters();
+        if (event.before() == null) {
+            delta.created = 1;
+            delta.requestedAmount = amountOrZero(after.requestedAmount());
+        }
+        // Un virement rejeté ne compte pas une seconde approbation : la demande reste approuvée une fois
+        if (event.statusChanged() && !event.paymentReverted()) {
+            delta.addTransition(after.status(), effectiveAmount(after.requestedAmount(), after.approvedAmount()));
+        }
+        if (delta.isEmpty()) {
+            return;
+        }
+
+        BucketKey key = new BucketKey(LocalDate.now(), categoryOf(after.prestationId()));
+        synchronized (pending) {
+            pending.computeIfAbsent(key, k -> new Counters()).add(delta);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${social.analytics.flush-interval-ms:60000}")
+    public void flush() {
+        rollupLock.writeLock().lock();
+        try {
+            Map<BucketKey, Counters> batch = new HashMap<>();
+            synchronized (pending) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                pending.forEach((key, counters) -> batch.put(key, counters.copy()));
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> batch.forEach((key, counters) ->
+                        demandeRollupRepository.addToBucket(key.date(), key.category().name(),
+                                counters.created, counters.submitted, counters.approved, counters.rejected,
+                                counters.paid, counters.cancelled,
+                                counters.requestedAmount, counters.approvedAmount, counters.paidAmount)));
+            } catch (RuntimeException e) {
+                // Les deltas restent dans l'accumulateur pour le prochain passage
+                log.error("Failed to flush demande rollups, will retry", e);
+                return;
+            }
+
+            // Retirer le lot commité ; les deltas arrivés entre-temps restent en attente
+            synchronized (pending) {
+                batch.forEach((key, counters) -> {
+                    Counters remaining = pending.get(key);
+                    remaining.subtract(counters);
+                    if (remaining.isZero()) {
+                        pending.remove(key);
+                    }
+                });
+            }
+            log.debug("Flushed {} demande rollup buckets", batch.size());
+        } finally {
+            rollupLock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public List<DemandeAnalyticsDto> getDemandeAnalytics(LocalDate from, LocalDate to,
+                                                         AnalyticsGranularity granularity,
+                                                         PrestationCategory category) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("Invalid date range: 'from' must be before 'to'");
+        }
+
+        Map<BucketKey, Counters> periods = new HashMap<>();
+        rollupLock.readLock().lock();
+        try {
+            // Transaction en écriture : lue sur le primaire, la table reflète forcément le dernier lot retiré de pending
+            List<DemandeRollup> rows = transactionTemplate.execute(status -> category != null
+                    ? demandeRollupRepository.findByCategoryAndBucketDateBetweenOrderByBucketDateAsc(category, from, to)
+                    : demandeRollupRepository.findByBucketDateBetweenOrderByBucketDateAsc(from, to));
+
+            for (DemandeRollup row : rows) {
+                BucketKey key = new BucketKey(periodStart(row.getBucketDate(), granularity), row.getCategory());
+                periods.computeIfAbsent(key, k -> new Counters()).add(Counters.of(row));
+            }
+
+            // Ajouter ce qui n'a pas encore été écrit en base
+            synchronized (pending) {
+                pending.forEach((key, counters) -> {
+                    if (!key.date().isBefore(from) && !key.date().isAfter(to)
+                            && (category == null || category == key.category())) {
+                        BucketKey periodKey = new BucketKey(periodStart(key.date(), granularity), key.category());
+                        periods.computeIfAbsent(periodKey, k -> new Counters()).add(counters);
+                    }
+                });
+            }
+        } finally {
+            rollupLock.readLock().unlock();
+        }
+
+        List<DemandeAnalyticsDto> result = new ArrayList<>();
+        periods.forEach((key, counters) -> result.add(counters.toDto(key)));
+        result.sort(Comparator.comparing(DemandeAnalyticsDto::getPeriodStart)
+                .thenComparing(DemandeAnalyticsDto::getCategory));
+        return result;
+    }
+
+    /**
+     * Recalcule toute la table à partir de l'historique des demandes (dates de création, soumission,
+     * traitement et paiement). À lancer à la mise en place ou après une dérive ; l'opération remplace
+     * le contenu de demande_rollups.
+     *
+     * La table n'est remplacée, et les deltas en attente abandonnés, que si aucun changement de demande
+     * n'était en cours pendant la relecture (voir CommittedChangeTracker) : l'historique contient alors
+     * exactement les deltas déjà reçus, et ceux qui arrivent ensuite restent en attente. Sinon la relecture
+     * est recommencée, puis le recalcul échoue sans rien modifier.
+     */
+    public int rebuild() {
+        rollupLock.writeLock().lock();
+        try {
+            // Deltas déjà comptés par l'historique ; lecteurs et flush attendent le verrou d'écriture
+            Map<BucketKey, Counters> counted = new HashMap<>();
+            AtomicBoolean installed = new AtomicBoolean();
+            Map<BucketKey, Counters> rebuilt = changeTracker.reload(pending, this::readHistory, history -> {
+                counted.putAll(pending);
+                pending.clear();
+                installed.set(true);
+            }, false);
+            if (!installed.get()) {
+                throw new RuntimeException("Demandes changed during the rebuild, please retry");
+            }
+            try {
+                replaceRollups(rebuilt);
+            } catch (RuntimeException e) {
+                // L'ancienne table est intacte : les deltas retirés n'y sont pas encore
+                synchronized (pending) {
+                    counted.forEach((key, counters) -> pending.computeIfAbsent(key, k -> new Counters()).add(counters));
+                }
+                throw e;
+            }
+            log.info("Demande rollups rebuilt: {} buckets", rebuilt.size());
+            return rebuilt.size();
+        } finally {
+            rollupLock.writeLock().unlock();
+        }
+    }
+
+    private Map<BucketKey, Counters> readHistory() {
+        Map<BucketKey, Counters> rebuilt = new HashMap<>();
+        try (Stream<DemandeHistoryRow> history = demandeRepository.streamHistory()) {
+            history.forEach(row -> accumulateHistory(rebuilt, row));
+        }
+        return rebuilt;
+    }
+
+    private void replaceRollups(Map<BucketKey, Counters> rebuilt) {
+        transactionTemplate.executeWithoutResult(status -> {
+            demandeRollupRepository.deleteAllInBatch();
+            rebuilt.forEach((key, counters) -> demandeRollupRepository.addToBucket(key.date(), key.category().name(),
+                    counters.created, counters.submitted, counters.approved, counters.rejected,
+                    counters.paid, counters.cancelled,
+                    counters.requestedAmount, counters.approvedAmount, counters.paidAmount));
+        });
+    }
+
+    private void accumulateHistory(Map<BucketKey, Counters> rebuilt, DemandeHistoryRow row) {
+        PrestationCategory category = categoryOf(row.getPrestationId());
+        BigDecimal effective = effectiveAmount(row.getRequestedAmount(), row.getApprovedAmount());
+        DemandeStatus status = row.getStatus();
+
+        Counters created = new Counters();
+        created.created = 1;
+        created.requestedAmount = amountOrZero(row.getRequestedAmount());
+        add(rebuilt, row.getCreatedAt(), category, created);
+
+        if (row.getSubmittedAt() != null) {
+            Counters submitted = new Counters();
+            submitted.addTransition(DemandeStatus.SUBMITTED, effective);
+            add(rebuilt, row.getSubmittedAt(), category, submitted);
+        }
+        if (row.getProcessedAt() != null && status != null) {
+            // Une demande payée a d'abord été approuvée le jour de son traitement
+            DemandeStatus decision = status == DemandeStatus.PAID ? DemandeStatus.APPROVED : status;
+            if (decision == DemandeStatus.APPROVED || decision == DemandeStatus.REJECTED) {
+                Counters processed = new Counters();
+                processed.addTransition(decision, effective);
+                add(rebuilt, row.getProcessedAt(), category, processed);
+            }
+        }
+        if (status == DemandeStatus.PAID) {
+            Counters paid = new Counters();
+            paid.addTransition(DemandeStatus.PAID, effective);
+            add(rebuilt, row.getPaymentDate() != null ? row.getPaymentDate() : row.getUpdatedAt(), category, paid);
+        }
+        if (status == DemandeStatus.CANCELLED) {
+            Counters cancelled = new Counters();
+            cancelled.addTransition(DemandeStatus.CANCELLED, effective);
+            add(rebuilt, row.getUpdatedAt(), category, cancelled);
+        }
+    }
+
+    private void add(Map<BucketKey, Counters> target, LocalDateTime when, PrestationCategory category, Counters delta) {
+        if (when == null) {
+            return;
+        }
+        target.computeIfAbsent(new BucketKey(when.toLocalDate(), category), k -> new Counters()).add(delta);
+    }
+
+    private PrestationCategory categoryOf(Long prestationId) {
+        PrestationCategory category = prestationId != null ? prestationCatalog.getCategory(prestationId) : null;
+        return category != null ? category : PrestationCategory.AUTRE;
+    }
+
+    private static LocalDate periodStart(LocalDate date, AnalyticsGranularity granularity) {
+        return switch (granularity) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    private static BigDecimal amountOrZero(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal effectiveAmount(BigDecimal requested, BigDecimal approved) {
+        return approved != null ? approved : amountOrZero(requested);
+    }
+
+    private record BucketKey(LocalDate date, PrestationCategory category) {
+    }
+
+    private static final class Counters {
+        private long created;
+        private long submitted;
+        private long approved;
+        private long rejected;
+        private long paid;
+        private long cancelled;
+        private BigDecimal requestedAmount = BigDecimal.ZERO;
+        private BigDecimal approvedAmount = BigDecimal.ZERO;
+        private BigDecimal paidAmount = BigDecimal.ZERO;
+
+        static Counters of(DemandeRollup row) {
+            Counters counters = new Counters();
+            counters.created = row.getCreatedCount();
+            counters.submitted = row.getSubmittedCount();
+            counters.approved = row.getApprovedCount();
+            counters.rejected = row.getRejectedCount();
+            counters.paid = row.getPaidCount();
+            counters.cancelled = row.getCancelledCount();
+            counters.requestedAmount = row.getRequestedAmount();
+            counters.approvedAmount = row.getApprovedAmount();
+            counters.paidAmount = row.getPaidAmount();
+            return counters;
+        }
+
+        void addTransition(DemandeStatus status, BigDecimal amount) {
+            switch (status) {
+                case SUBMITTED -> submitted++;
+                case APPROVED -> {
+                    approved++;
+                    approvedAmount = approvedAmount.add(amount);
+                }
+                case REJECTED -> rejected++;
+                case PAID -> {
+                    paid++;
+                    paidAmount = paidAmount.add(amount);
+                }
+                case CANCELLED -> cancelled++;
+                default -> {
+                    // DRAFT, IN_REVIEW : pas de volume suivi
+                }
+            }
+        }
+
+        Counters copy() {
+            Counters copy = new Counters();
+            copy.add(this);
+            return copy;
+        }
+
+        void subtract(Counters other) {
+            created -= other.created;
+            submitted -= other.submitted;
+            approved -= other.approved;
+            rejected -= other.rejected;
+            paid -= other.paid;
+            cancelled -= other.cancelled;
+            requestedAmount = requestedAmount.subtract(other.requestedAmount);
+            approvedAmount = approvedAmount.subtract(other.approvedAmount);
+            paidAmount = paidAmount.subtract(other.paidAmount);
+        }
+
+        boolean isZero() {
+            return isEmpty() && requestedAmount.signum() == 0 && approvedAmount.signum() == 0 && paidAmount.signum() == 0;
+        }
+
+        void add(Counters other) {
+            created += other.created;
+            submitted += other.submitted;
+            approved += other.approved;
+            rejected += other.rejected;
+            paid += other.paid;
+            cancelled += other.cancelled;
+            requestedAmount = requestedAmount.add(other.requestedAmount);
+            approvedAmount = approvedAmount.add(other.approvedAmount);
+            paidAmount = paidAmount.add(other.paidAmount);
+        }
+
+        boolean isEmpty() {
+            return created == 0 && submitted == 0 && approved == 0 && rejected == 0 && paid == 0 && cancelled == 0;
+        }
+
+        DemandeAnalyticsDto toDto(BucketKey key) {
+            long decided = approved + rejected;
+            return DemandeAnalyticsDto.builder()
+                    .periodStart(key.date())
+                    .category(key.category())
+                    .created(created)
+                    .submitted(submitted)
+                    .approved(approved)
+                    .rejected(rejected)
+                    .paid(paid)
+                    .cancelled(cancelled)
+                    .approvalRate(decided > 0
+                            ? BigDecimal.valueOf((double) approved / decided).setScale(4, RoundingMode.HALF_UP).doubleValue()
+                            : null)
+                    .requestedAmount(requestedAmount)
+                    .approvedAmount(approvedAmount)
+                    .paidAmount(paidAmount)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.dto.DemandeEventDto;
+import com.oussama.social_service.dto.DemandeProjectionDto;
+import com.oussama.social_service.entity.Demande;
+import com.oussama.social_service.entity.DemandeEvent;
+import com.oussama.social_service.enums.DemandeEventType;
+import com.oussama.social_service.enums.DemandeStatus;
+import com.oussama.social_service.event.DemandeSnapshot;
+import com.oussama.social_service.mapper.SocialMapper;
+import com.oussama.social_service.repository.DemandeEventRepository;
+import com.oussama.social_service.repository.DemandeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Journal append-only des demandes : chaque création, transition, annulation ou suppression y est
+ * ajoutée dans la transaction qui l'effectue. Les évènements d'une transaction sont mis en tampon et
+ * insérés en un seul lot JDBC juste avant le commit ; un rollback n'écrit donc rien.
+ *
+ * Le journal sert l'historique d'une demande et permet de reconstruire les projections par
+ * utilisateur ou par prestation en rejouant les évènements dans l'ordre.
+ */
+@Service
+@Slf4j
+public class DemandeEventLog {
+
+    private static final String INSERT_SQL = "INSERT INTO demande_events (demande_id, event_type, from_status, to_status, "
+            + "user_id, prestation_id, requested_amount, approved_amount, actor_id, actor_name, note, occurred_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final DemandeEventRepository demandeEventRepository;
+    private final DemandeRepository demandeRepository;
+    private final SocialMapper socialMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public DemandeEventLog(DemandeEventRepository demandeEventRepository,
+                           DemandeRepository demandeRepository,
+                           SocialMapper socialMapper,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager) {
+        this.demandeEventRepository = demandeEventRepository;
+        this.demandeRepository = demandeRepository;
+        this.socialMapper = socialMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Ajoute un évènement au journal. before vaut null pour une création ; after porte l'état écrit
+     * (pour une suppression, l'état de la demande supprimée).
+     */
+    public void record(DemandeEventType type, DemandeSnapshot before, DemandeSnapshot after,
+                       Long actorId, String actorName, String note) {
+        DemandeEvent event = DemandeEvent.builder()
+                .demandeId(after.id())
+                .eventType(type)
+                .fromStatus(before != null ? before.status() : null)
+                .toStatus(type == DemandeEventType.DELETED ? null : after.status())
+                .userId(after.userId())
+                .prestationId(after.prestationId())
+                .requestedAmount(after.requestedAmount())
+                .approvedAmount(after.approvedAmount())
+                .actorId(actorId)
+                .actorName(actorName)
+                .note(note)
+                .occurredAt(LocalDateTime.now())
+                .build();
+
+        TransactionHooks.beforeCommit(this, event, this::insert);
+    }
+
+    /**
+     * Historique d'une demande, du plus ancien au plus récent, réservé à son auteur.
+     */
+    public List<DemandeEventDto> getTimeline(Long demandeId, String userEmail) {
+        Demande demande = demandeRepository.findById(demandeId)
+                .orElseThrow(() -> new RuntimeException("Demande not found with ID: " + demandeId));
+        if (!demande.getUserEmail().equals(userEmail)) {
+            throw new RuntimeException("You can only view the history of your own demandes");
+        }
+        return getTimeline(demandeId);
+    }
+
+    /**
+     * Historique d'une demande, y compris supprimée (administration).
+     */
+    public List<DemandeEventDto> getTimeline(Long demandeId) {
+        return demandeEventRepository.findByDemandeIdOrderByIdAsc(demandeId)
+                .stream()
+                .map(socialMapper::toDemandeEventDto)
+                .toList();
+    }
+
+    public DemandeProjectionDto rebuildUserProjection(Long userId) {
+        return replay("user", userId, () -> demandeEventRepository.streamByUserIdOrderByIdAsc(userId));
+    }
+
+    public DemandeProjectionDto rebuildPrestationProjection(Long prestationId) {
+        return replay("prestation", prestationId, () -> demandeEventRepository.streamByPrestationIdOrderByIdAsc(prestationId));
+    }
+
+    private DemandeProjectionDto replay(String scope, Long key, Supplier<Stream<DemandeEvent>> events) {
+        Projection projection = new Projection();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<DemandeEvent> stream = events.get()) {
+                stream.forEach(projection::apply);
+            }
+        });
+        log.info("Demande projection rebuilt for {} {}: {} events, {} demandes",
+                scope, key, projection.eventCount, projection.demandes.size());
+        return projection.toDto(scope, key);
+    }
+
+    private void insert(List<DemandeEvent> events) {
+        // Identifiants IDENTITY : Hibernate n'enchaîne pas les INSERT, le lot passe par JDBC
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (statement, event) -> {
+            statement.setLong(1, event.getDemandeId());
+            statement.setString(2, event.getEventType().name());
+            statement.setString(3, event.getFromStatus() != null ? event.getFromStatus().name() : null);
+            statement.setString(4, event.getToStatus() != null ? event.getToStatus().name() : null);
+            statement.setObject(5, event.getUserId(), Types.BIGINT);
+            statement.setObject(6, event.getPrestationId(), Types.BIGINT);
+            statement.setBigDecimal(7, event.getRequestedAmount());
+            statement.setBigDecimal(8, event.getApprovedAmount());
+            statement.setObject(9, event.getActorId(), Types.BIGINT);
+            statement.setString(10, event.getActorName());
+            statement.setString(11, event.getNote());
+            statement.setTimestamp(12, Timestamp.valueOf(event.getOccurredAt()));
+        });
+    }
+
+    /**
+     * État des demandes obtenu par rejeu : chaque évènement remplace l'état connu de sa demande,
+     * une suppression la retire.
+     */
+    private static final class Projection {
+        private final Map<Long, DemandeEvent> demandes = new HashMap<>();
+        private long eventCount;
+        private LocalDateTime lastEventAt;
+
+        void apply(DemandeEvent event) {
+            eventCount++;
+            lastEventAt = event.getOccurredAt();
+            if (event.getEventType() == DemandeEventType.DELETED) {
+                demandes.remove(event.getDemandeId());
+            } else {
+                demandes.put(event.getDemandeId(), event);
+            }
+        }
+
+        DemandeProjectionDto toDto(String scope, Long key) {
+            Map<DemandeStatus, Long> byStatus = new EnumMap<>(DemandeStatus.class);
+            BigDecimal requested = BigDecimal.ZERO;
+            BigDecimal approved = BigDecimal.ZERO;
+            for (DemandeEvent state : demandes.values()) {
+                if (state.getToStatus() != null) {
+                    byStatus.merge(state.getToStatus(), 1L, Long::sum);
+                }
+                if (state.getRequestedAmount() != null) {
+                    requested = requested.add(state.getRequestedAmount());
+                }
+                if (state.getApprovedAmount() != null
+                        && (state.getToStatus() == DemandeStatus.APPROVED || state.getToStatus() == DemandeStatus.PAID)) {
+                    approved = approved.add(state.getApprovedAmount());
+                }
+            }
+            return DemandeProjectionDto.builder()
+                    .scope(scope)
+                    .key(key)
+                    .eventCount(eventCount)
+                    .demandes((long) demandes.size())
+                    .byStatus(byStatus)
+                    .requestedAmount(requested)
+                    .approvedAmount(approved)
+                    .lastEventAt(lastEventAt)
+                    .build();
+        }
+    }
+}
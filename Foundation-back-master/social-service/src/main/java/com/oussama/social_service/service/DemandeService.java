@@ -2,23 +2,35 @@ package com.oussama.social_service.service;
 
 import com.oussama.social_service.dto.*;
 import com.oussama.social_service.entity.Demande;
-import com.oussama.social_service.entity.Prestation;
 import com.oussama.social_service.dto.response.PageResponse;
+import com.oussama.social_service.enums.DemandeEventType;
 import com.oussama.social_service.enums.DemandeStatus;
 import com.oussama.social_service.enums.PriorityLevel;
+import com.oussama.social_service.event.DemandeChangedEvent;
+import com.oussama.social_service.event.DemandeSnapshot;
+import com.oussama.social_service.event.DemandesStatusBatchEvent;
 import com.oussama.social_service.mapper.SocialMapper;
 import com.oussama.social_service.repository.DemandeRepository;
-import com.oussama.social_service.repository.PrestationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -27,42 +39,20 @@ import java.util.List;
 public class DemandeService {
 
     private final DemandeRepository demandeRepository;
-    private final PrestationRepository prestationRepository;
     private final SocialMapper socialMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EligibilityService eligibilityService;
+    private final AttachmentStorageService attachmentStorageService;
+    private final DemandeSlaMonitor demandeSlaMonitor;
+    private final SearchIndexService searchIndexService;
+    private final DemandeEventLog demandeEventLog;
 
     public DemandeDto createDemande(DemandeCreateRequest createRequest, Long userId, String userEmail, String userName, String employeeId) {
         log.info("Creating demande for prestation ID: {} by user: {}", createRequest.getPrestationId(), userEmail);
 
-        // Vérifier que la prestation existe et est active
-        Prestation prestation = prestationRepository.findById(createRequest.getPrestationId())
-                .orElseThrow(() -> new RuntimeException("Prestation not found with ID: " + createRequest.getPrestationId()));
-
-        if (!prestation.getIsActive()) {
-            throw new RuntimeException("This prestation is not available");
-        }
-
-        // Vérifier les limites de demandes par an si configuré
-        if (prestation.getMaxRequestsPerYear() != null) {
-            LocalDateTime startOfYear = LocalDateTime.now().withDayOfYear(1).withHour(0).withMinute(0).withSecond(0);
-            LocalDateTime endOfYear = startOfYear.plusYears(1);
-
-            Long currentYearRequests = demandeRepository.countUserDemandesForPrestationInYear(
-                    userId, createRequest.getPrestationId(), startOfYear, endOfYear);
-
-            if (currentYearRequests >= prestation.getMaxRequestsPerYear()) {
-                throw new RuntimeException("Maximum number of requests per year exceeded for this prestation");
-            }
-        }
-
-        // Vérifier les montants si spécifiés
-        if (createRequest.getRequestedAmount() != null) {
-            if (prestation.getMinAmount() != null && createRequest.getRequestedAmount().compareTo(prestation.getMinAmount()) < 0) {
-                throw new RuntimeException("Requested amount is below minimum allowed");
-            }
-            if (prestation.getMaxAmount() != null && createRequest.getRequestedAmount().compareTo(prestation.getMaxAmount()) > 0) {
-                throw new RuntimeException("Requested amount exceeds maximum allowed");
-            }
-        }
+        // Prestation active, quota annuel, montants et critères (règles et compteurs en cache)
+        EligibilityRules rules = eligibilityService.checkCreation(
+                createRequest.getPrestationId(), userId, createRequest.getRequestedAmount());
 
         Demande demande = socialMapper.toDemandeEntity(createRequest);
         demande.setId(null);
@@ -70,6 +60,7 @@ public class DemandeService {
         demande.setUserEmail(userEmail);
         demande.setUserName(userName);
         demande.setEmployeeId(employeeId);
+        demande.setPrestationTitle(rules.getTitle());
         demande.setStatus(DemandeStatus.DRAFT);
         demande.setPriorityLevel(PriorityLevel.NORMAL);
         demande.setCreatedAt(null);
@@ -81,6 +72,9 @@ public class DemandeService {
         }
 
         demande = demandeRepository.save(demande);
+        DemandeSnapshot created = DemandeSnapshot.of(demande);
+        demandeEventLog.record(DemandeEventType.CREATED, null, created, userId, userName, null);
+        eventPublisher.publishEvent(DemandeChangedEvent.created(created));
         log.info("Demande created with ID: {}", demande.getId());
 
         return socialMapper.toDemandeDto(demande);
@@ -103,23 +97,23 @@ public class DemandeService {
         }
 
         // Vérifier les documents requis
-        Prestation prestation = prestationRepository.findById(demande.getPrestationId())
-                .orElseThrow(() -> new RuntimeException("Associated prestation not found"));
-
-        if (prestation.getRequiresDocuments() &&
-                (demande.getDocumentsUploaded() == null || demande.getDocumentsUploaded().trim().isEmpty())) {
-            throw new RuntimeException("Required documents must be uploaded before submission");
-        }
+        EligibilityRules rules = eligibilityService.getRules(demande.getPrestationId());
+        rules.checkSubmission(demande.getDocumentsUploaded(), attachmentStorageService.countAttachments(demandeId));
 
+        DemandeSnapshot before = DemandeSnapshot.of(demande);
         demande.setStatus(DemandeStatus.SUBMITTED);
         demande.setSubmittedAt(LocalDateTime.now());
 
         // Calculer la date de traitement prévue
-        if (prestation.getProcessingTimeDays() != null) {
-            demande.setExpectedProcessingDate(LocalDateTime.now().plusDays(prestation.getProcessingTimeDays()));
+        if (rules.getProcessingTimeDays() != null) {
+            demande.setExpectedProcessingDate(LocalDateTime.now().plusDays(rules.getProcessingTimeDays()));
         }
+        demande.setSlaStage(null);
 
         demande = demandeRepository.save(demande);
+        DemandeSnapshot after = DemandeSnapshot.of(demande);
+        demandeEventLog.record(DemandeEventType.SUBMITTED, before, after, userId, demande.getUserName(), null);
+        eventPublisher.publishEvent(new DemandeChangedEvent(before, after));
         log.info("Demande submitted successfully: {}", demandeId);
 
         return socialMapper.toDemandeDto(demande);
@@ -131,17 +125,214 @@ public class DemandeService {
         Demande demande = demandeRepository.findById(demandeId)
                 .orElseThrow(() -> new RuntimeException("Demande not found with ID: " + demandeId));
 
+        DemandeSnapshot before = DemandeSnapshot.of(demande);
+
         // Mise à jour des champs
-        if (updateRequest.getPaymentReference() != null) {
-            demande.setPaymentReference(updateRequest.getPaymentReference());
+        if (updateRequest.getStatus() != null && updateRequest.getStatus() != demande.getStatus()) {
+            if (!demande.getStatus().canTransitionTo(updateRequest.getStatus())) {
+                throw new RuntimeException("Invalid status transition from " + demande.getStatus() + " to " + updateRequest.getStatus());
+            }
+            applyStatus(demande, updateRequest.getStatus(), processedBy, processedByName, LocalDateTime.now());
         }
+        if (updateRequest.getApprovedAmount() != null) {
+            demande.setApprovedAmount(updateRequest.getApprovedAmount());
+        }
+        applyAdminFields(demande, updateRequest.getAdminComment(), updateRequest.getRejectionReason(),
+                updateRequest.getPaymentReference());
 
         demande = demandeRepository.save(demande);
+        DemandeSnapshot after = DemandeSnapshot.of(demande);
+        demandeEventLog.record(before.status() != after.status() ? DemandeEventType.STATUS_CHANGED : DemandeEventType.UPDATED,
+                before, after, processedBy, processedByName, updateRequest.getAdminComment());
+        eventPublisher.publishEvent(new DemandeChangedEvent(before, after));
         log.info("Demande status updated successfully: {}", demandeId);
 
         return socialMapper.toDemandeDto(demande);
     }
 
+    /**
+     * Change le statut d'un lot de demandes dans une seule transaction. Les demandes introuvables ou dont
+     * la transition est interdite sont ignorées et listées dans le résultat ; les autres sont écrites
+     * en UPDATE groupés (hibernate.jdbc.batch_size) et notifiées en un seul événement, publié avant les
+     * événements individuels pour que l'outbox n'envoie qu'un message par destinataire.
+     */
+    public DemandeBulkStatusResult bulkUpdateStatus(DemandeBulkStatusRequest request, Long processedBy, String processedByName) {
+        DemandeStatus target = request.getStatus();
+        List<Long> ids = request.getDemandeIds().stream().distinct().toList();
+        log.info("Bulk status update of {} demandes to {} by admin: {}", ids.size(), target, processedByName);
+
+        Map<Long, Demande> demandes = new HashMap<>();
+        for (Demande demande : demandeRepository.findAllById(ids)) {
+            demandes.put(demande.getId(), demande);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, String> skipped = new LinkedHashMap<>();
+        List<Demande> updated = new ArrayList<>();
+        List<DemandeSnapshot> before = new ArrayList<>();
+        for (Long id : ids) {
+            Demande demande = demandes.get(id);
+            if (demande == null) {
+                skipped.put(id, "Demande not found");
+                continue;
+            }
+            if (!demande.getStatus().canTransitionTo(target)) {
+                skipped.put(id, "Invalid status transition from " + demande.getStatus() + " to " + target);
+                continue;
+            }
+            before.add(DemandeSnapshot.of(demande));
+            applyStatus(demande, target, processedBy, processedByName, now);
+            applyAdminFields(demande, request.getAdminComment(), request.getRejectionReason(), request.getPaymentReference());
+            updated.add(demande);
+        }
+
+        demandeRepository.saveAll(updated);
+        demandeRepository.flush();
+
+        List<DemandeSnapshot> after = updated.stream().map(DemandeSnapshot::of).toList();
+        if (!after.isEmpty()) {
+            eventPublisher.publishEvent(new DemandesStatusBatchEvent(target, request.getAdminComment(), after));
+        }
+        for (int i = 0; i < after.size(); i++) {
+            demandeEventLog.record(DemandeEventType.STATUS_CHANGED, before.get(i), after.get(i),
+                    processedBy, processedByName, request.getAdminComment());
+            eventPublisher.publishEvent(new DemandeChangedEvent(before.get(i), after.get(i)));
+        }
+        log.info("Bulk status update done: {} updated, {} skipped", updated.size(), skipped.size());
+
+        return DemandeBulkStatusResult.builder()
+                .status(target)
+                .requested(ids.size())
+                .updatedIds(updated.stream().map(Demande::getId).toList())
+                .skipped(skipped)
+                .build();
+    }
+
+    /**
+     * Passe à PAID le lot suivant de demandes approuvées (identifiants croissants au-delà de afterId) et leur
+     * attribue une référence de paiement préfixée par le lot. Chaque appel est une transaction ; les demandes
+     * sont verrouillées entre la lecture et l'écriture.
+     */
+    public List<Demande> payApprovedChunk(Long afterId, int size, String batchId, Long processedBy, String processedByName) {
+        List<Demande> demandes = demandeRepository.findByStatusAndIdGreaterThanOrderByIdAsc(
+                DemandeStatus.APPROVED, afterId, PageRequest.of(0, size));
+        if (demandes.isEmpty()) {
+            return demandes;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<DemandeSnapshot> before = new ArrayList<>(demandes.size());
+        for (Demande demande : demandes) {
+            before.add(DemandeSnapshot.of(demande));
+            applyStatus(demande, DemandeStatus.PAID, processedBy, processedByName, now);
+            demande.setPaymentReference(batchId + "-" + demande.getId());
+        }
+        demandeRepository.saveAll(demandes);
+        demandeRepository.flush();
+
+        for (int i = 0; i < demandes.size(); i++) {
+            DemandeSnapshot after = DemandeSnapshot.of(demandes.get(i));
+            demandeEventLog.record(DemandeEventType.STATUS_CHANGED, before.get(i), after,
+                    processedBy, processedByName, "Payment batch " + batchId);
+            eventPublisher.publishEvent(new DemandeChangedEvent(before.get(i), after));
+        }
+        return demandes;
+    }
+
+    /**
+     * Demandes d'un lot de paiement (références préfixées par batchId), par identifiants croissants au-delà
+     * de afterId. Lues sur le primaire, dans la transaction en écriture du service : le lot vient d'y être validé.
+     */
+    public List<Demande> findPaymentBatchChunk(String batchId, Long afterId, int size) {
+        return demandeRepository.findByPaymentReferenceStartingWithAndIdGreaterThanOrderByIdAsc(
+                batchId + "-", afterId, PageRequest.of(0, size));
+    }
+
+    /**
+     * Applique un lot de lignes du fichier de retour bancaire. Un paiement confirmé laisse la demande PAID ;
+     * un paiement rejeté la repasse APPROVED sans référence (transition PAYMENT_REJECTED), pour qu'elle soit
+     * reprise au prochain lot. Les références sans demande payée correspondante sont comptées comme non rapprochées.
+     * Une référence ne peut être à la fois acceptée et rejetée.
+     */
+    public PaymentReconciliationResult reconcilePayments(Set<String> accepted, Map<String, String> rejected,
+                                                         Long processedBy, String processedByName) {
+        for (String reference : rejected.keySet()) {
+            if (accepted.contains(reference)) {
+                throw new RuntimeException("Payment " + reference + " cannot be both accepted and rejected");
+            }
+        }
+        List<String> references = new ArrayList<>(accepted);
+        references.addAll(rejected.keySet());
+        Map<String, Demande> byReference = new HashMap<>();
+        for (Demande demande : demandeRepository.findByPaymentReferenceIn(references)) {
+            if (demande.getStatus().canTransitionTo(DemandeStatus.APPROVED, DemandeEventType.PAYMENT_REJECTED)) {
+                byReference.put(demande.getPaymentReference(), demande);
+            }
+        }
+
+        PaymentReconciliationResult result = PaymentReconciliationResult.builder().lines(references.size()).build();
+        for (String reference : references) {
+            if (!byReference.containsKey(reference)) {
+                result.setUnmatched(result.getUnmatched() + 1);
+                result.getUnmatchedReferences().add(reference);
+            } else if (accepted.contains(reference)) {
+                result.setConfirmed(result.getConfirmed() + 1);
+            }
+        }
+
+        List<Demande> reverted = new ArrayList<>();
+        List<DemandeSnapshot> before = new ArrayList<>();
+        for (Map.Entry<String, String> rejection : rejected.entrySet()) {
+            Demande demande = byReference.get(rejection.getKey());
+            if (demande == null) {
+                continue;
+            }
+            before.add(DemandeSnapshot.of(demande));
+            // La décision d'approbation (processedAt, processedBy) reste celle d'origine
+            demande.setStatus(DemandeStatus.APPROVED);
+            demande.setPaymentReference(null);
+            demande.setPaymentDate(null);
+            demande.setAdminComment("Payment rejected by the bank" +
+                    (rejection.getValue() != null ? ": " + rejection.getValue() : ""));
+            reverted.add(demande);
+        }
+        demandeRepository.saveAll(reverted);
+        demandeRepository.flush();
+
+        for (int i = 0; i < reverted.size(); i++) {
+            DemandeSnapshot after = DemandeSnapshot.of(reverted.get(i));
+            demandeEventLog.record(DemandeEventType.PAYMENT_REJECTED, before.get(i), after,
+                    processedBy, processedByName, after.adminComment());
+            eventPublisher.publishEvent(new DemandeChangedEvent(before.get(i), after, DemandeEventType.PAYMENT_REJECTED));
+        }
+        result.setRejected(reverted.size());
+        return result;
+    }
+
+    private void applyStatus(Demande demande, DemandeStatus status, Long processedBy, String processedByName, LocalDateTime now) {
+        demande.setStatus(status);
+        if (status == DemandeStatus.APPROVED || status == DemandeStatus.REJECTED) {
+            demande.setProcessedAt(now);
+            demande.setProcessedBy(processedBy);
+            demande.setProcessedByName(processedByName);
+        }
+        if (status == DemandeStatus.PAID) {
+            demande.setPaymentDate(now);
+        }
+    }
+
+    private void applyAdminFields(Demande demande, String adminComment, String rejectionReason, String paymentReference) {
+        if (adminComment != null) {
+            demande.setAdminComment(adminComment);
+        }
+        if (rejectionReason != null) {
+            demande.setRejectionReason(rejectionReason);
+        }
+        if (paymentReference != null) {
+            demande.setPaymentReference(paymentReference);
+        }
+    }
+
     @Transactional(readOnly = true)
     public DemandeDto getDemandeById(Long id) {
         Demande demande = demandeRepository.findById(id)
@@ -176,16 +367,19 @@ public class DemandeService {
 
     @Transactional(readOnly = true)
     public PageResponse<DemandeDto> searchDemandes(String keyword, Pageable pageable) {
-        Page<Demande> demandePage = demandeRepository.searchByKeyword(keyword, pageable);
-        return buildPageResponse(demandePage);
+        // Correspondances servies par l'index en mémoire, seule la page demandée est lue en base
+        List<Long> ids = searchIndexService.searchDemandes(keyword);
+        List<Long> pageIds = SearchIndexService.slice(ids, pageable);
+        Map<Long, Demande> byId = new HashMap<>();
+        demandeRepository.findAllById(pageIds).forEach(demande -> byId.put(demande.getId(), demande));
+        List<Demande> content = pageIds.stream().map(byId::get).filter(Objects::nonNull).toList();
+        return buildPageResponse(new PageImpl<>(content, pageable, ids.size()));
     }
 
+    // Échéances servies par le moniteur de délais, sans requête sur les dates
     @Transactional(readOnly = true)
     public List<DemandeDto> getExpiredDemandes() {
-        return demandeRepository.findExpiredDemandes(LocalDateTime.now())
-                .stream()
-                .map(socialMapper::toDemandeDto)
-                .toList();
+        return findByIdsOrderedByDeadline(demandeSlaMonitor.getDemandeIdsDueBetween(null, LocalDateTime.now()));
     }
 
     @Transactional(readOnly = true)
@@ -193,8 +387,16 @@ public class DemandeService {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime deadline = now.plusDays(daysAhead);
 
-        return demandeRepository.findDemandesComingDue(now, deadline)
+        return findByIdsOrderedByDeadline(demandeSlaMonitor.getDemandeIdsDueBetween(now, deadline));
+    }
+
+    private List<DemandeDto> findByIdsOrderedByDeadline(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return demandeRepository.findAllById(ids)
                 .stream()
+                .sorted(Comparator.comparing(Demande::getExpectedProcessingDate))
                 .map(socialMapper::toDemandeDto)
                 .toList();
     }
@@ -211,13 +413,16 @@ public class DemandeService {
         }
 
         // Vérifier que la demande peut être annulée
-        if (demande.getStatus() == DemandeStatus.PAID ||
-                demande.getStatus() == DemandeStatus.CANCELLED) {
+        if (!demande.getStatus().canTransitionTo(DemandeStatus.CANCELLED)) {
             throw new RuntimeException("This demande cannot be cancelled");
         }
 
+        DemandeSnapshot before = DemandeSnapshot.of(demande);
         demande.setStatus(DemandeStatus.CANCELLED);
         demande = demandeRepository.save(demande);
+        DemandeSnapshot after = DemandeSnapshot.of(demande);
+        demandeEventLog.record(DemandeEventType.CANCELLED, before, after, userId, demande.getUserName(), null);
+        eventPublisher.publishEvent(new DemandeChangedEvent(before, after));
 
         log.info("Demande cancelled successfully: {}", demandeId);
         return socialMapper.toDemandeDto(demande);
@@ -230,6 +435,9 @@ public class DemandeService {
                 .orElseThrow(() -> new RuntimeException("Demande not found with ID: " + id));
 
         demandeRepository.delete(demande);
+        DemandeSnapshot deleted = DemandeSnapshot.of(demande);
+        demandeEventLog.record(DemandeEventType.DELETED, deleted, deleted, null, null, null);
+        eventPublisher.publishEvent(DemandeChangedEvent.deleted(deleted));
         log.info("Demande deleted successfully: {}", id);
     }
 
@@ -0,0 +1,298 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.dto.DemandeSlaStatsDto;
+import com.oussama.social_service.entity.Demande;
+import com.oussama.social_service.enums.DemandeEventType;
+import com.oussama.social_service.enums.DemandeStatus;
+import com.oussama.social_service.enums.PriorityLevel;
+import com.oussama.social_service.enums.SlaStage;
+import com.oussama.social_service.event.DemandeChangedEvent;
+import com.oussama.social_service.event.DemandeSlaEvent;
+import com.oussama.social_service.event.DemandeSnapshot;
+import com.oussama.social_service.repository.DemandeRepository;
+import com.oussama.social_service.repository.projection.PendingDeadlineRow;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Suivi des délais de traitement des demandes en attente (SUBMITTED, IN_REVIEW).
+ * Les échéances sont rangées dans une file de priorité ; un seul réveil est programmé pour la plus proche.
+ * À l'approche de la date prévue la demande passe au moins en priorité HIGH, une fois dépassée en URGENT,
+ * et un DemandeSlaEvent est publié. L'escalade passe par l'entité, comme les autres écritures : elle est
+ * journalisée et publiée en DemandeChangedEvent. La file est reconstruite depuis la base au démarrage ;
+ * l'étape déjà notifiée (sla_stage) évite de renvoyer un événement après un redémarrage.
+ */
+@Service
+@Slf4j
+public class DemandeSlaMonitor {
+
+    private static final Set<DemandeStatus> PENDING = EnumSet.of(DemandeStatus.SUBMITTED, DemandeStatus.IN_REVIEW);
+
+    private final DemandeRepository demandeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DemandeEventLog demandeEventLog;
+    private final TransactionTemplate transactionTemplate;
+    private final long warningMillis;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "demande-sla-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Object lock = new Object();
+
+    // Protégés par lock. La file peut contenir des échéances périmées, ignorées grâce à la génération
+    private final PriorityQueue<Deadline> queue = new PriorityQueue<>(Comparator.comparingLong(Deadline::fireAt));
+    private final Map<Long, Tracked> tracked = new HashMap<>();
+    private long generation;
+    private ScheduledFuture<?> wakeUp;
+    private long wakeUpAt = Long.MAX_VALUE;
+
+    private final AtomicLong comingDueNotified = new AtomicLong();
+    private final AtomicLong expiredNotified = new AtomicLong();
+
+    public DemandeSlaMonitor(DemandeRepository demandeRepository,
+                             ApplicationEventPublisher eventPublisher,
+                             DemandeEventLog demandeEventLog,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${social.sla.warning-hours:24}") long warningHours) {
+        this.demandeRepository = demandeRepository;
+        this.eventPublisher = eventPublisher;
+        this.demandeEventLog = demandeEventLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.warningMillis = Duration.ofHours(warningHours).toMillis();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        List<PendingDeadlineRow> rows = demandeRepository.findPendingDeadlines();
+        synchronized (lock) {
+            queue.clear();
+            tracked.clear();
+            for (PendingDeadlineRow row : rows) {
+                track(row.getId(), row.getExpectedProcessingDate(), row.getSlaStage());
+            }
+            reschedule();
+        }
+        log.info("SLA monitor tracking {} pending demandes", rows.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDemandeChanged(DemandeChangedEvent event) {
+        DemandeSnapshot after = event.after();
+        synchronized (lock) {
+            if (after == null || !PENDING.contains(after.status()) || after.expectedProcessingDate() == null) {
+                Long id = after != null ? after.id() : event.before().id();
+                tracked.remove(id);
+                return;
+            }
+            Tracked current = tracked.get(after.id());
+            if (current != null && current.expected.equals(after.expectedProcessingDate())) {
+                return;
+            }
+            // Nouvelle échéance (soumission) : aucune étape encore notifiée
+            track(after.id(), after.expectedProcessingDate(), null);
+            reschedule();
+        }
+    }
+
+    public DemandeSlaStatsDto getStats() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime warningLimit = now.plus(Duration.ofMillis(warningMillis));
+        long comingDue = 0;
+        long overdue = 0;
+        LocalDateTime next = null;
+        synchronized (lock) {
+            for (Tracked entry : tracked.values()) {
+                if (!entry.expected.isAfter(now)) {
+                    overdue++;
+                } else {
+                    if (!entry.expected.isAfter(warningLimit)) {
+                        comingDue++;
+                    }
+                    if (next == null || entry.expected.isBefore(next)) {
+                        next = entry.expected;
+                    }
+                }
+            }
+            return DemandeSlaStatsDto.builder()
+                    .tracked((long) tracked.size())
+                    .comingDue(comingDue)
+                    .overdue(overdue)
+                    .comingDueNotified(comingDueNotified.get())
+                    .expiredNotified(expiredNotified.get())
+                    .nextDeadline(next)
+                    .build();
+        }
+    }
+
+    /**
+     * Identifiants des demandes en attente dont la date prévue tombe dans [from, to].
+     */
+    public List<Long> getDemandeIdsDueBetween(LocalDateTime from, LocalDateTime to) {
+        List<Long> ids = new ArrayList<>();
+        synchronized (lock) {
+            tracked.forEach((id, entry) -> {
+                if ((from == null || !entry.expected.isBefore(from)) && !entry.expected.isAfter(to)) {
+                    ids.add(id);
+                }
+            });
+        }
+        return ids;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void track(Long demandeId, LocalDateTime expected, SlaStage reached) {
+        long gen = ++generation;
+        long expectedAt = toEpochMillis(expected);
+        tracked.put(demandeId, new Tracked(expected, reached, gen));
+        if (reached == null && warningMillis > 0) {
+            queue.add(new Deadline(demandeId, expectedAt - warningMillis, SlaStage.COMING_DUE, gen));
+        }
+        if (reached != SlaStage.EXPIRED) {
+            queue.add(new Deadline(demandeId, expectedAt, SlaStage.EXPIRED, gen));
+        }
+        compactIfNeeded();
+    }
+
+    private void fireDueDeadlines() {
+        List<Deadline> due = new ArrayList<>();
+        Map<Long, LocalDateTime> expectedDates = new HashMap<>();
+        synchronized (lock) {
+            wakeUp = null;
+            wakeUpAt = Long.MAX_VALUE;
+            long now = System.currentTimeMillis();
+            while (!queue.isEmpty() && queue.peek().fireAt() <= now) {
+                Deadline deadline = queue.poll();
+                Tracked entry = tracked.get(deadline.demandeId());
+                if (entry == null || entry.generation != deadline.generation()
+                        || (entry.reached != null && entry.reached.compareTo(deadline.stage()) >= 0)) {
+                    continue;
+                }
+                entry.reached = deadline.stage();
+                due.add(deadline);
+                expectedDates.put(deadline.demandeId(), entry.expected);
+            }
+            reschedule();
+        }
+
+        for (Deadline deadline : due) {
+            try {
+                LocalDateTime expected = expectedDates.get(deadline.demandeId());
+                if (!escalate(deadline, expected)) {
+                    continue;
+                }
+                eventPublisher.publishEvent(new DemandeSlaEvent(deadline.demandeId(), deadline.stage(), expected));
+                (deadline.stage() == SlaStage.EXPIRED ? expiredNotified : comingDueNotified).incrementAndGet();
+            } catch (RuntimeException e) {
+                log.error("SLA handling failed for demande {} ({})", deadline.demandeId(), deadline.stage(), e);
+            }
+        }
+    }
+
+    /**
+     * Enregistre l'étape atteinte et relève la priorité si elle est plus basse, dans une transaction.
+     *
+     * @return false si la demande n'est plus en attente, a changé d'échéance ou a déjà été notifiée
+     */
+    private boolean escalate(Deadline deadline, LocalDateTime expected) {
+        SlaStage stage = deadline.stage();
+        PriorityLevel level = stage == SlaStage.EXPIRED ? PriorityLevel.URGENT : PriorityLevel.HIGH;
+        Boolean escalated = transactionTemplate.execute(status -> {
+            Demande demande = demandeRepository.findById(deadline.demandeId()).orElse(null);
+            if (demande == null || !PENDING.contains(demande.getStatus())
+                    || !expected.equals(demande.getExpectedProcessingDate())
+                    || (demande.getSlaStage() != null && demande.getSlaStage().compareTo(stage) >= 0)) {
+                return false;
+            }
+            DemandeSnapshot before = DemandeSnapshot.of(demande);
+            demande.setSlaStage(stage);
+            if (demande.getPriorityLevel() == null || demande.getPriorityLevel().compareTo(level) < 0) {
+                demande.setPriorityLevel(level);
+            }
+            demande = demandeRepository.save(demande);
+            DemandeSnapshot after = DemandeSnapshot.of(demande);
+            demandeEventLog.record(DemandeEventType.SLA_ESCALATED, before, after, null, null, "SLA " + stage);
+            eventPublisher.publishEvent(new DemandeChangedEvent(before, after));
+            return true;
+        });
+        if (Boolean.TRUE.equals(escalated)) {
+            log.info("Demande {} reached SLA stage {}", deadline.demandeId(), stage);
+        }
+        return Boolean.TRUE.equals(escalated);
+    }
+
+    // Appelé sous lock : programme un réveil pour l'échéance la plus proche si elle précède le réveil actuel
+    private void reschedule() {
+        Deadline head = queue.peek();
+        if (head == null || head.fireAt() >= wakeUpAt) {
+            return;
+        }
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+        }
+        wakeUpAt = head.fireAt();
+        long delay = Math.max(0, wakeUpAt - System.currentTimeMillis());
+        wakeUp = scheduler.schedule(this::fireDueDeadlines, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // Appelé sous lock : supprime les échéances périmées quand elles dominent la file
+    private void compactIfNeeded() {
+        if (queue.size() <= 2 * tracked.size() + 1024) {
+            return;
+        }
+        queue.removeIf(deadline -> {
+            Tracked entry = tracked.get(deadline.demandeId());
+            return entry == null || entry.generation != deadline.generation();
+        });
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record Deadline(Long demandeId, long fireAt, SlaStage stage, long generation) {
+    }
+
+    private static final class Tracked {
+        private final LocalDateTime expected;
+        private final long generation;
+        private SlaStage reached;
+
+        Tracked(LocalDateTime expected, SlaStage reached, long generation) {
+            this.expected = expected;
+            this.reached = reached;
+            this.generation = generation;
+        }
+    }
+}
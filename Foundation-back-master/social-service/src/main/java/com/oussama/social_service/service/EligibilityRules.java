@@ -0,0 +1,164 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.entity.Prestation;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Règles d'éligibilité d'une prestation, compilées une fois à partir de sa configuration.
+ *
+ * Les lignes de {@code eligibilityCriteria} de la forme {@code amount <= 5000} ou {@code documents >= 2}
+ * sont compilées en contraintes supplémentaires ; les autres lignes sont du texte libre destiné aux usagers.
+ */
+public final class EligibilityRules {
+
+    private static final Pattern CRITERION =
+            Pattern.compile("^\\s*(amount|documents)\\s*(<=|>=|<|>|=)\\s*(\\d+(?:\\.\\d+)?)\\s*$");
+
+    private final Long prestationId;
+    private final LocalDateTime version;
+    private final String title;
+    private final boolean active;
+    private final Integer maxRequestsPerYear;
+    private final boolean requiresDocuments;
+    private final Integer processingTimeDays;
+    private final List<Constraint> creationConstraints;
+    private final List<Constraint> submissionConstraints;
+
+    private EligibilityRules(Prestation prestation) {
+        this.prestationId = prestation.getId();
+        this.version = prestation.getUpdatedAt();
+        this.title = prestation.getTitle();
+        this.active = Boolean.TRUE.equals(prestation.getIsActive());
+        this.maxRequestsPerYear = prestation.getMaxRequestsPerYear();
+        this.requiresDocuments = Boolean.TRUE.equals(prestation.getRequiresDocuments());
+        this.processingTimeDays = prestation.getProcessingTimeDays();
+
+        List<Constraint> creation = new ArrayList<>();
+        List<Constraint> submission = new ArrayList<>();
+        if (prestation.getMinAmount() != null) {
+            creation.add(new Constraint("<", prestation.getMinAmount(),
+                    "Requested amount is below minimum allowed", true));
+        }
+        if (prestation.getMaxAmount() != null) {
+            creation.add(new Constraint(">", prestation.getMaxAmount(),
+                    "Requested amount exceeds maximum allowed", true));
+        }
+        if (prestation.getEligibilityCriteria() != null) {
+            for (String line : prestation.getEligibilityCriteria().split("\\R")) {
+                Matcher matcher = CRITERION.matcher(line.toLowerCase(Locale.ROOT));
+                if (!matcher.matches()) {
+                    continue;
+                }
+                Subject subject = Subject.valueOf(matcher.group(1).toUpperCase(Locale.ROOT));
+                Constraint constraint = new Constraint(matcher.group(2), new BigDecimal(matcher.group(3)),
+                        "Eligibility criterion not met: " + line.trim(), false);
+                (subject == Subject.DOCUMENTS ? submission : creation).add(constraint);
+            }
+        }
+        this.creationConstraints = List.copyOf(creation);
+        this.submissionConstraints = List.copyOf(submission);
+    }
+
+    public static EligibilityRules compile(Prestation prestation) {
+        return new EligibilityRules(prestation);
+    }
+
+    /**
+     * Contrôles à la création d'une demande ; {@code yearlyRequests} est le nombre de demandes
+     * déjà faites cette année par l'utilisateur pour cette prestation.
+     */
+    public void checkCreation(BigDecimal requestedAmount, long yearlyRequests) {
+        if (!active) {
+            throw new RuntimeException("This prestation is not available");
+        }
+        if (maxRequestsPerYear != null && yearlyRequests >= maxRequestsPerYear) {
+            throw new RuntimeException("Maximum number of requests per year exceeded for this prestation");
+        }
+        if (requestedAmount != null) {
+            for (Constraint constraint : creationConstraints) {
+                constraint.check(requestedAmount);
+            }
+        }
+    }
+
+    /**
+     * Contrôles à la soumission : pièces justificatives, références ({@code documentsUploaded} séparés
+     * par des virgules) et pièces jointes envoyées.
+     */
+    public void checkSubmission(String documentsUploaded, long attachments) {
+        long documents = countDocuments(documentsUploaded) + attachments;
+        if (requiresDocuments && documents == 0) {
+            throw new RuntimeException("Required documents must be uploaded before submission");
+        }
+        for (Constraint constraint : submissionConstraints) {
+            constraint.check(BigDecimal.valueOf(documents));
+        }
+    }
+
+    public boolean hasYearlyQuota() {
+        return maxRequestsPerYear != null;
+    }
+
+    public Long getPrestationId() {
+        return prestationId;
+    }
+
+    public LocalDateTime getVersion() {
+        return version;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public Integer getProcessingTimeDays() {
+        return processingTimeDays;
+    }
+
+    private static int countDocuments(String documentsUploaded) {
+        if (documentsUploaded == null || documentsUploaded.isBlank()) {
+            return 0;
+        }
+        int count = 0;
+        for (String document : documentsUploaded.split(",")) {
+            if (!document.isBlank()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private enum Subject {
+        AMOUNT,
+        DOCUMENTS
+    }
+
+    /**
+     * Comparaison {@code valeur <op> seuil}. Pour les bornes min/max de la prestation, l'opérateur décrit
+     * la violation ({@code violatedWhenTrue}) ; pour les critères, il décrit la condition à respecter.
+     */
+    private record Constraint(String operator, BigDecimal threshold, String message,
+                              boolean violatedWhenTrue) {
+
+        void check(BigDecimal value) {
+            int comparison = value.compareTo(threshold);
+            boolean matches = switch (operator) {
+                case "<" -> comparison < 0;
+                case "<=" -> comparison <= 0;
+                case ">" -> comparison > 0;
+                case ">=" -> comparison >= 0;
+                default -> comparison == 0;
+            };
+            if (matches == violatedWhenTrue) {
+                throw new RuntimeException(message);
+            }
+        }
+    }
+}
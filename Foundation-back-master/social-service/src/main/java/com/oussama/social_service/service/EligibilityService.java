@@ -0,0 +1,141 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.entity.Prestation;
+import com.oussama.social_service.event.DemandeChangedEvent;
+import com.oussama.social_service.event.DemandeSnapshot;
+import com.oussama.social_service.repository.DemandeRepository;
+import com.oussama.social_service.repository.PrestationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Éligibilité des demandes : règles compilées par prestation et compteurs annuels par utilisateur, en cache.
+ * Dans le cas courant, créer une demande ne nécessite aucune lecture en base avant l'insertion.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EligibilityService {
+
+    private static final int MAX_YEARLY_COUNTERS = 10_000;
+    private static final long COUNTER_TTL_MILLIS = 10 * 60 * 1000L;
+
+    private final PrestationRepository prestationRepository;
+    private final DemandeRepository demandeRepository;
+
+    private final Map<Long, EligibilityRules> rules = new ConcurrentHashMap<>();
+
+    // Incrémenté à chaque invalidation : une compilation commencée avant ne doit pas être mise en cache
+    private final AtomicLong generation = new AtomicLong();
+
+    // LRU (ordre d'accès), protégé par synchronized (yearlyCounters)
+    private final Map<YearlyKey, YearlyCounter> yearlyCounters = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<YearlyKey, YearlyCounter> eldest) {
+            return size() > MAX_YEARLY_COUNTERS;
+        }
+    };
+
+    public EligibilityRules getRules(Long prestationId) {
+        EligibilityRules cached = rules.get(prestationId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadGeneration = generation.get();
+        Prestation prestation = prestationRepository.findById(prestationId)
+                .orElseThrow(() -> new RuntimeException("Prestation not found with ID: " + prestationId));
+        EligibilityRules compiled = EligibilityRules.compile(prestation);
+        if (generation.get() == loadGeneration) {
+            rules.put(prestationId, compiled);
+            if (generation.get() != loadGeneration) {
+                rules.remove(prestationId);
+            }
+        }
+        log.debug("Eligibility rules compiled for prestation {} (version {})", prestationId, compiled.getVersion());
+        return compiled;
+    }
+
+    /**
+     * Vérifie qu'un utilisateur peut créer une demande pour cette prestation et renvoie les règles appliquées.
+     */
+    public EligibilityRules checkCreation(Long prestationId, Long userId, BigDecimal requestedAmount) {
+        EligibilityRules prestationRules = getRules(prestationId);
+        long yearlyRequests = prestationRules.hasYearlyQuota() ? countThisYear(userId, prestationId) : 0L;
+        prestationRules.checkCreation(requestedAmount, yearlyRequests);
+        return prestationRules;
+    }
+
+    public void evictAfterCommit(Long prestationId) {
+        TransactionHooks.afterCommit(() -> {
+            generation.incrementAndGet();
+            rules.remove(prestationId);
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDemandeChanged(DemandeChangedEvent event) {
+        if (event.before() != null && event.after() != null) {
+            return;
+        }
+        DemandeSnapshot demande = event.after() != null ? event.after() : event.before();
+        if (demande.userId() == null || demande.prestationId() == null) {
+            return;
+        }
+        int year = demande.createdAt() != null ? demande.createdAt().getYear() : LocalDate.now().getYear();
+        YearlyKey key = new YearlyKey(demande.userId(), demande.prestationId(), year);
+        synchronized (yearlyCounters) {
+            // Seuls les compteurs déjà chargés sont ajustés ; les autres seront lus en base au besoin
+            YearlyCounter counter = yearlyCounters.get(key);
+            if (counter != null) {
+                counter.count = Math.max(0, counter.count + (event.after() != null ? 1 : -1));
+            }
+        }
+    }
+
+    private long countThisYear(Long userId, Long prestationId) {
+        int year = LocalDate.now().getYear();
+        YearlyKey key = new YearlyKey(userId, prestationId, year);
+        long now = System.currentTimeMillis();
+        synchronized (yearlyCounters) {
+            YearlyCounter counter = yearlyCounters.get(key);
+            if (counter != null && now - counter.loadedAt < COUNTER_TTL_MILLIS) {
+                return counter.count;
+            }
+        }
+
+        // Une création validée entre cette lecture et la mise en cache peut être comptée deux fois :
+        // l'écart est borné par l'expiration du compteur
+        LocalDateTime startOfYear = LocalDate.ofYearDay(year, 1).atStartOfDay();
+        Long count = demandeRepository.countUserDemandesForPrestationInYear(
+                userId, prestationId, startOfYear, startOfYear.plusYears(1));
+        long value = count != null ? count : 0L;
+        synchronized (yearlyCounters) {
+            yearlyCounters.put(key, new YearlyCounter(value, now));
+        }
+        return value;
+    }
+
+    private record YearlyKey(Long userId, Long prestationId, int year) {
+    }
+
+    private static final class YearlyCounter {
+        private long count;
+        private final long loadedAt;
+
+        YearlyCounter(long count, long loadedAt) {
+            this.count = count;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.oussama.social_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oussama.social_service.entity.IdempotencyRecord;
+import com.oussama.social_service.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Garde contre les doubles soumissions (double clic, renvoi d'un client mobile) : une création
+ * accompagnée d'un en-tête Idempotency-Key n'est exécutée qu'une fois par utilisateur et par clé, les
+ * répétitions reçoivent la réponse d'origine.
+ *
+ * La clé est insérée dans la transaction de l'écriture, avant celle-ci : une requête concurrente avec la
+ * même clé attend sur l'index unique puis rejoue la réponse validée, ou s'exécute si la première a été
+ * annulée. Une clé réutilisée pour une autre requête est refusée en 422, une clé dont la requête est encore
+ * en cours en 409 : le client peut alors réessayer. Les clés récentes sont aussi gardées en mémoire (cacheSize au plus) pour rejouer sans requête.
+ */
+@Service
+@Slf4j
+public class IdempotencyKeyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+
+    private static final String INSERT_SQL = "INSERT INTO idempotency_keys (scope, user_key, idempotency_key, "
+            + "request_hash, created_at, expires_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String RESPONSE_SQL = "UPDATE idempotency_keys SET response_body = ? "
+            + "WHERE scope = ? AND user_key = ? AND idempotency_key = ?";
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transaction;
+    private final Duration ttl;
+
+    private final Object lock = new Object();
+
+    // Protégé par lock ; ordre d'accès pour évincer la clé la moins récemment utilisée
+    private final LinkedHashMap<String, Entry> entries;
+
+    public IdempotencyKeyStore(IdempotencyRecordRepository recordRepository,
+                               JdbcTemplate jdbcTemplate,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${social.idempotency.ttl-hours:24}") long ttlHours,
+                               @Value("${social.idempotency.cache-size:10000}") int cacheSize) {
+        this.recordRepository = recordRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofHours(ttlHours);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public record Result<T>(T response, boolean replayed) {
+    }
+
+    /**
+     * Exécute action dans une transaction, sauf si la clé a déjà servi à cet utilisateur pour cette
+     * opération : la réponse d'origine est alors renvoyée. Sans clé, action est simplement exécutée.
+     */
+    public <T> Result<T> execute(String scope, String userKey, String key, Object request,
+                                 Class<T> responseType, Supplier<T> action) {
+        if (key == null) {
+            return new Result<>(action.get(), false);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid " + HEADER + " header");
+        }
+        String requestHash = hash(request);
+        String cacheKey = scope + '\n' + userKey + '\n' + key;
+
+        Entry cached = cached(cacheKey);
+        if (cached != null) {
+            return replay(scope, key, cached, requestHash, responseType);
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T response = transaction.execute(status ->
+                        claimAndRun(scope, userKey, key, cacheKey, requestHash, action));
+                return new Result<>(response, false);
+            } catch (KeyTaken e) {
+                IdempotencyRecord record = recordRepository
+                        .findByScopeAndUserKeyAndIdempotencyKey(scope, userKey, key)
+                        .orElse(null);
+                if (record != null && record.getExpiresAt().isAfter(LocalDateTime.now())) {
+                    Entry entry = new Entry(record.getRequestHash(), record.getResponseBody(), record.getExpiresAt());
+                    remember(cacheKey, entry);
+                    return replay(scope, key, entry, requestHash, responseType);
+                }
+                // Clé expirée pas encore purgée, ou supprimée entre-temps : elle peut être reprise
+                if (record != null) {
+                    transaction.executeWithoutResult(status -> recordRepository.deleteById(record.getId()));
+                }
+                if (attempt >= MAX_CLAIM_ATTEMPTS) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, HEADER + " could not be claimed, retry the request");
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${social.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer deleted = transaction.execute(status -> recordRepository.deleteExpired(now));
+        synchronized (lock) {
+            entries.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+        }
+        if (deleted != null && deleted > 0) {
+            log.info("{} expired idempotency keys purged", deleted);
+        }
+    }
+
+    private <T> T claimAndRun(String scope, String userKey, String key, String cacheKey,
+                              String requestHash, Supplier<T> action) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(ttl);
+        try {
+            jdbcTemplate.update(INSERT_SQL, scope, userKey, key, requestHash,
+                    Timestamp.valueOf(now), Timestamp.valueOf(expiresAt));
+        } catch (DuplicateKeyException e) {
+            throw new KeyTaken();
+        } catch (PessimisticLockingFailureException e) {
+            // La requête d'origine tient encore la clé au-delà du délai d'attente du verrou
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A request with this " + HEADER + " is still being processed");
+        }
+
+        T response = action.get();
+        String responseBody = toJson(response);
+        jdbcTemplate.update(RESPONSE_SQL, responseBody, scope, userKey, key);
+        TransactionHooks.afterCommit(() -> remember(cacheKey, new Entry(requestHash, responseBody, expiresAt)));
+        return response;
+    }
+
+    private <T> Result<T> replay(String scope, String key, Entry entry, String requestHash, Class<T> responseType) {
+        if (!entry.requestHash().equals(requestHash)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    HEADER + " already used for a different request");
+        }
+        if (entry.responseBody() == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A request with this " + HEADER + " is still being processed");
+        }
+        log.info("Replaying {} response for {} {}", scope, HEADER, key);
+        try {
+            return new Result<>(objectMapper.readValue(entry.responseBody(), responseType), true);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Cannot read stored response for " + HEADER + " " + key, e);
+        }
+    }
+
+    private Entry cached(String cacheKey) {
+        synchronized (lock) {
+            Entry entry = entries.get(cacheKey);
+            if (entry != null && !entry.expiresAt().isAfter(LocalDateTime.now())) {
+                entries.remove(cacheKey);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void remember(String cacheKey, Entry entry) {
+        if (entry.responseBody() == null) {
+            return;
+        }
+        synchronized (lock) {
+            entries.put(cacheKey, entry);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Cannot serialize request for " + HEADER, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Cannot serialize response for " + HEADER, e);
+        }
+    }
+
+    private record Entry(String requestHash, String responseBody, LocalDateTime expiresAt) {
+    }
+
+    // Clé déjà prise : annule la transaction avant l'écriture
+    private static final class KeyTaken extends RuntimeException {
+        KeyTaken() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.enums.AvisStatus;
+import com.oussama.social_service.enums.DemandeStatus;
+import com.oussama.social_service.enums.OutboxStatus;
+import com.oussama.social_service.event.AvisChangedEvent;
+import com.oussama.social_service.event.AvisSnapshot;
+import com.oussama.social_service.event.DemandeChangedEvent;
+import com.oussama.social_service.event.DemandeSnapshot;
+import com.oussama.social_service.event.DemandesStatusBatchEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Écriture de l'outbox des notifications. Les écouteurs sont synchrones : ils s'exécutent dans la
+ * transaction qui publie l'événement, et les messages de la transaction sont insérés en un lot juste
+ * avant son commit. Une modification annulée n'est donc jamais notifiée, et une modification validée
+ * l'est toujours, sans appel réseau pendant la requête ; l'envoi est fait par NotificationRelay.
+ */
+@Service
+@Slf4j
+public class NotificationOutbox {
+
+    static final String DEMANDE = "DEMANDE";
+    static final String AVIS = "AVIS";
+    static final String DEMANDE_BATCH = "DEMANDE_BATCH";
+
+    // Demandes de la transaction déjà notifiées par un changement de statut groupé
+    private static final Object BATCHED_DEMANDES = new Object();
+
+    // Statuts décidés par l'administration, notifiés à l'auteur de la demande
+    private static final Set<DemandeStatus> NOTIFIED_STATUSES =
+            EnumSet.of(DemandeStatus.IN_REVIEW, DemandeStatus.APPROVED, DemandeStatus.REJECTED, DemandeStatus.PAID);
+
+    private static final String INSERT_SQL = "INSERT INTO notification_outbox (idempotency_key, aggregate_type, "
+            + "aggregate_id, recipient, subject, html, status, attempts, next_attempt_at, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, 0, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PrestationCatalog prestationCatalog;
+
+    public NotificationOutbox(JdbcTemplate jdbcTemplate, PrestationCatalog prestationCatalog) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.prestationCatalog = prestationCatalog;
+    }
+
+    @EventListener
+    public void onDemandeChanged(DemandeChangedEvent event) {
+        DemandeSnapshot before = event.before();
+        DemandeSnapshot after = event.after();
+        if (before == null || after == null || before.status() == after.status()
+                || !NOTIFIED_STATUSES.contains(after.status()) || after.userEmail() == null) {
+            return;
+        }
+        if (TransactionHooks.<Long>transactionSet(BATCHED_DEMANDES).contains(after.id())) {
+            return;
+        }
+        String title = prestationCatalog.getTitle(after.prestationId());
+        if (before.status() == DemandeStatus.PAID && after.status() == DemandeStatus.APPROVED) {
+            // Virement rejeté par la banque : la demande n'est pas de nouveau « approuvée »
+            enqueue(DEMANDE, after.id(), after.userEmail(), "Your payment could not be completed",
+                    paymentRejectedHtml(title != null ? title : "-", after.adminComment()));
+            return;
+        }
+        enqueue(DEMANDE, after.id(), after.userEmail(), "Your demande status has been updated",
+                demandeStatusHtml(title != null ? title : "-", after.status(), after.adminComment()));
+    }
+
+    /**
+     * Changement de statut groupé : un seul message par destinataire pour toutes ses demandes du lot.
+     * Publié avant les DemandeChangedEvent individuels, qui ne sont alors plus notifiés.
+     */
+    @EventListener
+    public void onDemandesStatusBatch(DemandesStatusBatchEvent event) {
+        if (!NOTIFIED_STATUSES.contains(event.status())) {
+            return;
+        }
+        Map<String, List<DemandeSnapshot>> byRecipient = event.demandes().stream()
+                .filter(demande -> demande.userEmail() != null)
+                .collect(Collectors.groupingBy(DemandeSnapshot::userEmail, LinkedHashMap::new, Collectors.toList()));
+        Set<Long> batched = TransactionHooks.transactionSet(BATCHED_DEMANDES);
+
+        byRecipient.forEach((recipient, demandes) -> {
+            demandes.forEach(demande -> batched.add(demande.id()));
+            if (demandes.size() == 1) {
+                DemandeSnapshot demande = demandes.get(0);
+                String title = prestationCatalog.getTitle(demande.prestationId());
+                enqueue(DEMANDE, demande.id(), recipient, "Your demande status has been updated",
+                        demandeStatusHtml(title != null ? title : "-", event.status(), event.adminComment()));
+                return;
+            }
+            List<String> titles = demandes.stream()
+                    .map(demande -> prestationCatalog.getTitle(demande.prestationId()))
+                    .map(title -> title != null ? title : "-")
+                    .toList();
+            enqueue(DEMANDE_BATCH, demandes.get(0).id(), recipient, "Your demandes status has been updated",
+                    demandesStatusHtml(titles, event.status(), event.adminComment()));
+        });
+    }
+
+    @EventListener
+    public void onAvisChanged(AvisChangedEvent event) {
+        AvisSnapshot before = event.before();
+        AvisSnapshot after = event.after();
+        if (before == null || after == null || before.status() == after.status()
+                || after.status() == AvisStatus.PENDING || after.userEmail() == null) {
+            return;
+        }
+        boolean published = after.status() == AvisStatus.PUBLISHED;
+        enqueue(AVIS, after.id(), after.userEmail(),
+                published ? "Your review has been published" : "Your review was not published",
+                avisModeratedHtml(published));
+    }
+
+    private void enqueue(String aggregateType, Long aggregateId, String recipient, String subject, String html) {
+        LocalDateTime now = LocalDateTime.now();
+        Message message = new Message(UUID.randomUUID().toString(), aggregateType, aggregateId, recipient, subject, html, now);
+        TransactionHooks.beforeCommit(this, message, this::insert);
+    }
+
+    private void insert(List<Message> messages) {
+        // Identifiants IDENTITY : Hibernate n'enchaîne pas les INSERT, le lot passe par JDBC
+        jdbcTemplate.batchUpdate(INSERT_SQL, messages, messages.size(), (statement, message) -> {
+            Timestamp createdAt = Timestamp.valueOf(message.createdAt());
+            statement.setString(1, message.idempotencyKey());
+            statement.setString(2, message.aggregateType());
+            statement.setLong(3, message.aggregateId());
+            statement.setString(4, message.recipient());
+            statement.setString(5, message.subject());
+            statement.setString(6, message.html());
+            statement.setString(7, OutboxStatus.PENDING.name());
+            statement.setTimestamp(8, createdAt);
+            statement.setTimestamp(9, createdAt);
+        });
+        log.debug("{} notifications added to the outbox", messages.size());
+    }
+
+    private static String demandeStatusHtml(String prestationTitle, DemandeStatus status, String adminComment) {
+        return String.format("""
+                <html>
+                <body>
+                    <h2>Your demande status has been updated</h2>
+                    <p><strong>Prestation:</strong> %s</p>
+                    <p><strong>New Status:</strong> <span style="color: %s; font-weight: bold;">%s</span></p>
+                    %s
+                    <p>You can view the details of your demande in your account dashboard.</p>
+                    <p><em>Thank you for using our services.</em></p>
+                </body>
+                </html>
+                """, HtmlUtils.htmlEscape(prestationTitle), statusColor(status), status,
+                adminComment != null ? "<p><strong>Admin Comment:</strong> " + HtmlUtils.htmlEscape(adminComment) + "</p>" : "");
+    }
+
+    private static String paymentRejectedHtml(String prestationTitle, String adminComment) {
+        return String.format("""
+                <html>
+                <body>
+                    <h2>Your payment could not be completed</h2>
+                    <p><strong>Prestation:</strong> %s</p>
+                    <p>The bank transfer for your approved demande was rejected. It will be sent again with the next payment batch.</p>
+                    %s
+                    <p>Please check that your bank details are up to date in your account.</p>
+                    <p><em>Thank you for using our services.</em></p>
+                </body>
+                </html>
+                """, HtmlUtils.htmlEscape(prestationTitle),
+                adminComment != null ? "<p><strong>Admin Comment:</strong> " + HtmlUtils.htmlEscape(adminComment) + "</p>" : "");
+    }
+
+    private static String demandesStatusHtml(List<String> prestationTitles, DemandeStatus status, String adminComment) {
+        String items = prestationTitles.stream()
+                .map(title -> "<li>" + HtmlUtils.htmlEscape(title) + "</li>")
+                .collect(Collectors.joining());
+        return String.format("""
+                <html>
+                <body>
+                    <h2>Your demandes status has been updated</h2>
+                    <p><strong>New Status:</strong> <span style="color: %s; font-weight: bold;">%s</span></p>
+                    <p><strong>Prestations:</strong></p>
+                    <ul>%s</ul>
+                    %s
+                    <p>You can view the details of your demandes in your account dashboard.</p>
+                    <p><em>Thank you for using our services.</em></p>
+                </body>
+                </html>
+                """, statusColor(status), status, items,
+                adminComment != null ? "<p><strong>Admin Comment:</strong> " + HtmlUtils.htmlEscape(adminComment) + "</p>" : "");
+    }
+
+    private static String statusColor(DemandeStatus status) {
+        return switch (status) {
+            case APPROVED, PAID -> "#28a745";
+            case REJECTED -> "#dc3545";
+            case IN_REVIEW -> "#ffc107";
+            default -> "#6c757d";
+        };
+    }
+
+    private static String avisModeratedHtml(boolean published) {
+        return String.format("""
+                <html>
+                <body>
+                    <h2>%s</h2>
+                    <p>%s</p>
+                    <p><em>Thank you for your feedback.</em></p>
+                </body>
+                </html>
+                """,
+                published ? "Your review has been published" : "Your review was not published",
+                published ? "Your review is now visible to other users."
+                        : "Your review did not meet our publication guidelines.");
+    }
+
+    private record Message(String idempotencyKey, String aggregateType, Long aggregateId,
+                           String recipient, String subject, String html, LocalDateTime createdAt) {
+    }
+}
@@ -0,0 +1,207 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.client.NotificationClient;
+import com.oussama.social_service.dto.EmailRequest;
+import com.oussama.social_service.entity.NotificationOutboxMessage;
+import com.oussama.social_service.enums.OutboxStatus;
+import com.oussama.social_service.repository.NotificationOutboxRepository;
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Relais de l'outbox vers notification-service, en trois temps pour ne garder ni verrou ni connexion
+ * pendant les appels HTTP :
+ * <ol>
+ *   <li>réservation d'un lot dans une transaction courte (SKIP LOCKED, plusieurs instances peuvent relayer
+ *   en parallèle) : l'essai est compté et la prochaine tentative repoussée de claimMillis ;</li>
+ *   <li>envoi hors transaction, avec la clé d'idempotence du message ;</li>
+ *   <li>enregistrement des résultats dans une seconde transaction courte.</li>
+ * </ol>
+ * Un message réservé par une instance arrêtée avant l'étape 3 redevient dû à l'expiration de la réservation.
+ * Un échec est réessayé avec un délai doublé à chaque tentative, jusqu'à maxAttempts ; un refus du destinataire
+ * (4xx, hors 408 et 429) ne se corrigera pas et passe directement en FAILED. Un message FAILED peut être remis
+ * en file par un administrateur.
+ */
+@Service
+@Slf4j
+public class NotificationRelay {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationClient notificationClient;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+    private final long claimMillis;
+
+    public NotificationRelay(NotificationOutboxRepository outboxRepository,
+                             NotificationClient notificationClient,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${social.notifications.batch-size:50}") int batchSize,
+                             @Value("${social.notifications.max-attempts:10}") int maxAttempts,
+                             @Value("${social.notifications.backoff-ms:10000}") long backoffMillis,
+                             @Value("${social.notifications.max-backoff-ms:3600000}") long maxBackoffMillis,
+                             @Value("${social.notifications.claim-ms:600000}") long claimMillis) {
+        this.outboxRepository = outboxRepository;
+        this.notificationClient = notificationClient;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.claimMillis = claimMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${social.notifications.relay-interval-ms:5000}")
+    public void relay() {
+        try {
+            // Lots successifs tant que le précédent était plein et entièrement envoyé
+            int sent;
+            do {
+                sent = relayBatch();
+            } while (sent == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Notification relay failed", e);
+        }
+    }
+
+    public Map<OutboxStatus, Long> getStats() {
+        Map<OutboxStatus, Long> stats = new EnumMap<>(OutboxStatus.class);
+        for (OutboxStatus status : OutboxStatus.values()) {
+            stats.put(status, outboxRepository.countByStatus(status));
+        }
+        return stats;
+    }
+
+    /**
+     * Remet en file les messages abandonnés ; renvoie leur nombre.
+     */
+    public int retryFailed() {
+        Integer count = transaction.execute(status ->
+                outboxRepository.retryFailed(OutboxStatus.FAILED, OutboxStatus.PENDING, LocalDateTime.now()));
+        log.info("{} failed notifications queued again", count);
+        return count != null ? count : 0;
+    }
+
+    private int relayBatch() {
+        List<Claim> claimed = claim();
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        List<Outcome> outcomes = new ArrayList<>(claimed.size());
+        for (Claim claim : claimed) {
+            outcomes.add(send(claim));
+        }
+        record(outcomes);
+
+        long delivered = outcomes.stream().filter(outcome -> outcome.error() == null).count();
+        log.info("Notification relay: {} sent, {} failed", delivered, outcomes.size() - delivered);
+        return (int) delivered;
+    }
+
+    // Transaction courte : les lignes verrouillées sont libérées avant les appels HTTP
+    private List<Claim> claim() {
+        List<Claim> claimed = transaction.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<NotificationOutboxMessage> due = outboxRepository.findDue(OutboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+            List<Claim> claims = new ArrayList<>(due.size());
+            for (NotificationOutboxMessage message : due) {
+                message.setAttempts(message.getAttempts() + 1);
+                message.setNextAttemptAt(now.plus(Duration.ofMillis(claimMillis)));
+                claims.add(new Claim(message, message.getAttempts()));
+            }
+            return claims;
+        });
+        return claimed != null ? claimed : List.of();
+    }
+
+    // Hors transaction ; le numéro d'essai est celui de la réservation, pas celui relu après l'appel
+    private Outcome send(Claim claim) {
+        NotificationOutboxMessage message = claim.message();
+        try {
+            notificationClient.sendEmail(message.getIdempotencyKey(), EmailRequest.builder()
+                    .to(message.getRecipient())
+                    .subject(message.getSubject())
+                    .html(message.getHtml())
+                    .build());
+            return new Outcome(message.getId(), claim.attempts(), LocalDateTime.now(), null, false);
+        } catch (RuntimeException e) {
+            return new Outcome(message.getId(), claim.attempts(), LocalDateTime.now(),
+                    String.valueOf(e.getMessage()), isPermanent(e));
+        }
+    }
+
+    private void record(List<Outcome> outcomes) {
+        transaction.executeWithoutResult(status -> {
+            Map<Long, NotificationOutboxMessage> messages = outboxRepository
+                    .findAllById(outcomes.stream().map(Outcome::messageId).toList()).stream()
+                    .collect(Collectors.toMap(NotificationOutboxMessage::getId, Function.identity()));
+            for (Outcome outcome : outcomes) {
+                NotificationOutboxMessage message = messages.get(outcome.messageId());
+                // Réservation expirée puis reprise ailleurs, ou message remis en file entre-temps
+                if (message == null || message.getStatus() != OutboxStatus.PENDING
+                        || !message.getAttempts().equals(outcome.attempts())) {
+                    continue;
+                }
+                apply(message, outcome);
+            }
+        });
+    }
+
+    // Met à jour le message géré ; l'écriture a lieu au commit
+    private void apply(NotificationOutboxMessage message, Outcome outcome) {
+        if (outcome.error() == null) {
+            message.setStatus(OutboxStatus.SENT);
+            message.setSentAt(outcome.at());
+            message.setLastError(null);
+            return;
+        }
+        String error = outcome.error();
+        message.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        if (outcome.permanent() || message.getAttempts() >= maxAttempts) {
+            message.setStatus(OutboxStatus.FAILED);
+            log.warn("Notification {} to {} abandoned after {} attempts: {}",
+                    message.getId(), message.getRecipient(), message.getAttempts(), error);
+        } else {
+            message.setNextAttemptAt(outcome.at().plus(Duration.ofMillis(backoff(message.getAttempts()))));
+        }
+    }
+
+    // Requête refusée par notification-service : la renvoyer telle quelle échouerait de nouveau
+    private static boolean isPermanent(RuntimeException e) {
+        if (!(e instanceof FeignException feign)) {
+            return false;
+        }
+        int httpStatus = feign.status();
+        return httpStatus >= 400 && httpStatus < 500 && httpStatus != 408 && httpStatus != 429;
+    }
+
+    private long backoff(int attempts) {
+        int doublings = Math.min(attempts - 1, 30);
+        return Math.min(backoffMillis << doublings, maxBackoffMillis);
+    }
+
+    private record Claim(NotificationOutboxMessage message, int attempts) {
+    }
+
+    private record Outcome(Long messageId, int attempts, LocalDateTime at, String error, boolean permanent) {
+    }
+}
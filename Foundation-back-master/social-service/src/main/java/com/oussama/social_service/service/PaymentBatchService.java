@@ -0,0 +1,275 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.dto.PaymentBatchDto;
+import com.oussama.social_service.dto.PaymentReconciliationResult;
+import com.oussama.social_service.entity.Demande;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Lots de paiement des demandes approuvées. L'export parcourt les demandes APPROVED par tranches : chaque
+ * tranche passe à PAID dans sa propre transaction, sous une référence préfixée par l'identifiant du lot, si bien
+ * que la mémoire utilisée ne dépend pas du nombre de demandes. Le fichier de virements (CSV) est ensuite écrit
+ * depuis la base à partir de ces références : il ne contient que des paiements validés, et un fichier absent
+ * (arrêt pendant l'export, autre instance) est reconstruit au téléchargement. Le fichier de retour de la banque
+ * est rapproché par tranches de la même façon.
+ *
+ * L'identifiant du lot porte un suffixe aléatoire : deux instances qui exportent dans la même seconde obtiennent
+ * des lots distincts, et le verrouillage des demandes lues fait qu'aucune n'est payée deux fois.
+ */
+@Service
+@Slf4j
+public class PaymentBatchService {
+
+    private static final DateTimeFormatter BATCH_ID_FORMAT = DateTimeFormatter.ofPattern("'PAY'yyyyMMddHHmmss");
+    // Les lots antérieurs au suffixe aléatoire restent téléchargeables
+    private static final Pattern BATCH_ID = Pattern.compile("PAY\\d{14}(-[0-9A-F]{8})?");
+    private static final String EXPORT_HEADER = "payment_reference,demande_id,employee_id,beneficiary_name,beneficiary_email,amount";
+
+    // Statuts du fichier de retour (libellés ou codes ISO 20022)
+    private static final Set<String> ACCEPTED = Set.of("ACCEPTED", "ACSC", "ACCP", "OK");
+    private static final Set<String> REJECTED = Set.of("REJECTED", "RJCT", "KO");
+
+    private static final int MAX_UNMATCHED_REFERENCES = 100;
+
+    private final DemandeService demandeService;
+    private final Path exportPath;
+    private final int chunkSize;
+
+    // Évite deux exports simultanés sur cette instance ; entre instances, les lots restent distincts
+    private final AtomicBoolean exportRunning = new AtomicBoolean();
+
+    public PaymentBatchService(DemandeService demandeService,
+                               @Value("${social.payments.export-dir:./exports/payments}") String exportDir,
+                               @Value("${social.payments.chunk-size:500}") int chunkSize) {
+        this.demandeService = demandeService;
+        this.exportPath = Paths.get(exportDir).toAbsolutePath().normalize();
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Passe toutes les demandes approuvées à PAID dans un nouveau lot, puis écrit son fichier de virements.
+     */
+    public PaymentBatchDto exportApproved(Long processedBy, String processedByName) {
+        if (!exportRunning.compareAndSet(false, true)) {
+            throw new RuntimeException("A payment export is already running");
+        }
+        try {
+            LocalDateTime createdAt = LocalDateTime.now();
+            String batchId = createdAt.format(BATCH_ID_FORMAT) + "-"
+                    + UUID.randomUUID().toString().substring(0, 8).toUpperCase(Locale.ROOT);
+
+            long count = 0;
+            BigDecimal total = BigDecimal.ZERO;
+            long afterId = 0;
+            List<Demande> chunk;
+            do {
+                chunk = demandeService.payApprovedChunk(afterId, chunkSize, batchId, processedBy, processedByName);
+                for (Demande demande : chunk) {
+                    BigDecimal amount = amountOf(demande);
+                    total = amount != null ? total.add(amount) : total;
+                    afterId = demande.getId();
+                }
+                count += chunk.size();
+            } while (chunk.size() == chunkSize);
+
+            try {
+                writeExportFile(batchId);
+            } catch (IOException | RuntimeException e) {
+                // Les paiements sont validés : le fichier sera reconstruit au téléchargement
+                log.error("Payment batch {} committed but its file could not be written", batchId, e);
+            }
+
+            log.info("Payment batch {} exported: {} demandes, total {}", batchId, count, total);
+            return PaymentBatchDto.builder()
+                    .batchId(batchId)
+                    .fileName(fileOf(batchId).getFileName().toString())
+                    .demandes(count)
+                    .totalAmount(total)
+                    .createdAt(createdAt)
+                    .build();
+        } finally {
+            exportRunning.set(false);
+        }
+    }
+
+    /**
+     * Fichier de virements du lot, reconstruit depuis la base s'il est absent. Un fichier reconstruit après
+     * un rapprochement ne contient plus les paiements rejetés par la banque.
+     */
+    public AttachmentStorageService.AttachmentContent getExportFile(String batchId) {
+        if (!BATCH_ID.matcher(batchId).matches()) {
+            throw new RuntimeException("Payment batch not found: " + batchId);
+        }
+        Path file = fileOf(batchId);
+        if (!Files.isReadable(file)) {
+            if (demandeService.findPaymentBatchChunk(batchId, 0L, 1).isEmpty()) {
+                throw new RuntimeException("Payment batch not found: " + batchId);
+            }
+            try {
+                writeExportFile(batchId);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write payment batch file " + batchId, e);
+            }
+            log.info("Payment batch file {} rebuilt from the database", batchId);
+        }
+        return new AttachmentStorageService.AttachmentContent(new FileSystemResource(file), file.getFileName().toString(), "text/csv");
+    }
+
+    /**
+     * Rapproche un fichier de retour bancaire : lignes « référence,statut[,motif] », en-tête facultatif.
+     * Le fichier est lu en entier avant toute modification : une référence à la fois acceptée et rejetée le
+     * rend contradictoire et il est refusé ; une ligne répétée à l'identique n'est appliquée qu'une fois.
+     */
+    public PaymentReconciliationResult reconcile(InputStream statusFile, Long processedBy, String processedByName) {
+        PaymentReconciliationResult total = PaymentReconciliationResult.builder().build();
+        Set<String> accepted = new LinkedHashSet<>();
+        Map<String, String> rejected = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(statusFile, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.toLowerCase(Locale.ROOT).startsWith("payment_reference")
+                        || line.toLowerCase(Locale.ROOT).startsWith("reference")) {
+                    continue;
+                }
+                String[] fields = line.split("[,;]", 3);
+                String reference = fields[0].trim();
+                String status = fields.length > 1 ? fields[1].trim().toUpperCase(Locale.ROOT) : "";
+                if (reference.isEmpty() || !(ACCEPTED.contains(status) || REJECTED.contains(status))) {
+                    total.setInvalidLines(total.getInvalidLines() + 1);
+                    continue;
+                }
+                boolean isAccepted = ACCEPTED.contains(status);
+                if (isAccepted ? rejected.containsKey(reference) : accepted.contains(reference)) {
+                    throw new RuntimeException("Bank status file lists payment " + reference
+                            + " as both accepted and rejected");
+                }
+                if (isAccepted) {
+                    accepted.add(reference);
+                } else {
+                    rejected.putIfAbsent(reference, fields.length > 2 && !fields[2].isBlank() ? fields[2].trim() : null);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read bank status file", e);
+        }
+
+        List<String> acceptedReferences = List.copyOf(accepted);
+        for (int from = 0; from < acceptedReferences.size(); from += chunkSize) {
+            Set<String> chunk = new HashSet<>(acceptedReferences.subList(from, Math.min(from + chunkSize, acceptedReferences.size())));
+            merge(total, demandeService.reconcilePayments(chunk, Map.of(), processedBy, processedByName));
+        }
+        List<String> rejectedReferences = List.copyOf(rejected.keySet());
+        for (int from = 0; from < rejectedReferences.size(); from += chunkSize) {
+            Map<String, String> chunk = new HashMap<>();
+            for (String reference : rejectedReferences.subList(from, Math.min(from + chunkSize, rejectedReferences.size()))) {
+                chunk.put(reference, rejected.get(reference));
+            }
+            merge(total, demandeService.reconcilePayments(Set.of(), chunk, processedBy, processedByName));
+        }
+
+        log.info("Bank status file reconciled: {} confirmed, {} rejected, {} unmatched, {} invalid lines",
+                total.getConfirmed(), total.getRejected(), total.getUnmatched(), total.getInvalidLines());
+        return total;
+    }
+
+    private static void merge(PaymentReconciliationResult total, PaymentReconciliationResult chunk) {
+        total.setLines(total.getLines() + chunk.getLines());
+        total.setConfirmed(total.getConfirmed() + chunk.getConfirmed());
+        total.setRejected(total.getRejected() + chunk.getRejected());
+        total.setUnmatched(total.getUnmatched() + chunk.getUnmatched());
+        for (String reference : chunk.getUnmatchedReferences()) {
+            if (total.getUnmatchedReferences().size() >= MAX_UNMATCHED_REFERENCES) {
+                break;
+            }
+            total.getUnmatchedReferences().add(reference);
+        }
+    }
+
+    private Path fileOf(String batchId) {
+        return exportPath.resolve(batchId + ".csv");
+    }
+
+    // Écrit dans un fichier temporaire synchronisé sur disque, puis le renomme : le fichier du lot est complet ou absent
+    private void writeExportFile(String batchId) throws IOException {
+        Files.createDirectories(exportPath);
+        Path temp = Files.createTempFile(exportPath, batchId, ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+                 BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8))) {
+                writer.write(EXPORT_HEADER);
+                writer.newLine();
+                long afterId = 0;
+                List<Demande> chunk;
+                do {
+                    chunk = demandeService.findPaymentBatchChunk(batchId, afterId, chunkSize);
+                    for (Demande demande : chunk) {
+                        writeLine(writer, demande, amountOf(demande));
+                        afterId = demande.getId();
+                    }
+                } while (chunk.size() == chunkSize);
+                writer.flush();
+                channel.force(true);
+            }
+            Files.move(temp, fileOf(batchId), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static BigDecimal amountOf(Demande demande) {
+        return demande.getApprovedAmount() != null ? demande.getApprovedAmount() : demande.getRequestedAmount();
+    }
+
+    private static void writeLine(BufferedWriter writer, Demande demande, BigDecimal amount) throws IOException {
+        writer.write(String.join(",",
+                csv(demande.getPaymentReference()),
+                String.valueOf(demande.getId()),
+                csv(demande.getEmployeeId()),
+                csv(demande.getUserName()),
+                csv(demande.getUserEmail()),
+                amount != null ? amount.toPlainString() : ""));
+        writer.newLine();
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
@@ -0,0 +1,255 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.entity.Prestation;
+import com.oussama.social_service.enums.PrestationCategory;
+import com.oussama.social_service.enums.PrestationType;
+import com.oussama.social_service.repository.PrestationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Catalogue des prestations en mémoire. Chaque version est immuable : liste triée par ordre d'affichage
+ * et facettes (catégorie, type, actif, justificatifs requis) sous forme de BitSet sur les positions.
+ * Toute écriture d'un administrateur recharge le catalogue après commit et remplace la version en service ;
+ * les lectures n'accèdent jamais à la base une fois le catalogue chargé.
+ *
+ * Les entités renvoyées sont partagées par toutes les lectures et ne doivent pas être modifiées.
+ */
+@Component
+@Slf4j
+public class PrestationCatalog {
+
+    private static final Comparator<Prestation> DISPLAY_ORDER = Comparator
+            .comparing(Prestation::getDisplayOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Prestation::getId);
+
+    private final PrestationRepository prestationRepository;
+
+    private final Object loadLock = new Object();
+    private volatile Snapshot snapshot;
+
+    public PrestationCatalog(PrestationRepository prestationRepository) {
+        this.prestationRepository = prestationRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        current();
+    }
+
+    /**
+     * Prestations correspondant au filtre, dans l'ordre d'affichage.
+     */
+    public List<Prestation> find(Filter filter) {
+        Snapshot current = current();
+        BitSet matches = current.match(filter);
+        List<Prestation> result = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            result.add(current.prestations.get(i));
+        }
+        return result;
+    }
+
+    public Page<Prestation> find(Filter filter, Pageable pageable) {
+        List<Prestation> matches = find(filter);
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(matches, pageable, matches.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        return new PageImpl<>(matches.subList(from, to), pageable, matches.size());
+    }
+
+    public Optional<Prestation> get(Long prestationId) {
+        Snapshot current = current();
+        Integer position = current.positions.get(prestationId);
+        return position != null ? Optional.of(current.prestations.get(position)) : Optional.empty();
+    }
+
+    /**
+     * Titres des prestations demandées ; les prestations inexistantes sont absentes du résultat.
+     */
+    public Map<Long, String> getTitles(Collection<Long> prestationIds) {
+        Snapshot current = current();
+        Map<Long, String> titles = new HashMap<>();
+        for (Long id : prestationIds) {
+            Integer position = id != null ? current.positions.get(id) : null;
+            if (position != null) {
+                titles.put(id, current.prestations.get(position).getTitle());
+            }
+        }
+        return titles;
+    }
+
+    public String getTitle(Long prestationId) {
+        return get(prestationId).map(Prestation::getTitle).orElse(null);
+    }
+
+    public PrestationCategory getCategory(Long prestationId) {
+        return get(prestationId).map(Prestation::getCategory).orElse(null);
+    }
+
+    public long getVersion() {
+        return current().version;
+    }
+
+    public int size() {
+        return current().prestations.size();
+    }
+
+    public void refreshAfterCommit() {
+        TransactionHooks.afterCommit(this::refresh);
+    }
+
+    /**
+     * Recharge le catalogue depuis la base et met la nouvelle version en service.
+     */
+    public long refresh() {
+        synchronized (loadLock) {
+            Snapshot previous = snapshot;
+            Snapshot loaded = new Snapshot(prestationRepository.findAll(), previous != null ? previous.version + 1 : 1);
+            snapshot = loaded;
+            log.info("Prestation catalog version {} loaded: {} prestations", loaded.version, loaded.prestations.size());
+            return loaded.version;
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (loadLock) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Critères de recherche ; un critère null n'est pas appliqué.
+     */
+    public record Filter(PrestationCategory category,
+                         PrestationType type,
+                         Boolean active,
+                         Boolean requiresDocuments,
+                         String search) {
+
+        public static Filter all() {
+            return new Filter(null, null, null, null, null);
+        }
+
+        public static Filter activeOnly() {
+            return new Filter(null, null, true, null, null);
+        }
+
+        public Filter withCategory(PrestationCategory category) {
+            return new Filter(category, type, active, requiresDocuments, search);
+        }
+
+        public Filter withType(PrestationType type) {
+            return new Filter(category, type, active, requiresDocuments, search);
+        }
+
+        public Filter withRequiresDocuments(Boolean requiresDocuments) {
+            return new Filter(category, type, active, requiresDocuments, search);
+        }
+
+        public Filter withSearch(String search) {
+            return new Filter(category, type, active, requiresDocuments, search);
+        }
+    }
+
+    private static final class Snapshot {
+        private final long version;
+        private final List<Prestation> prestations;
+        private final Map<Long, Integer> positions = new HashMap<>();
+        private final Map<PrestationCategory, BitSet> byCategory = new EnumMap<>(PrestationCategory.class);
+        private final Map<PrestationType, BitSet> byType = new EnumMap<>(PrestationType.class);
+        private final BitSet active = new BitSet();
+        private final BitSet requiresDocuments = new BitSet();
+        private final BitSet all = new BitSet();
+
+        // Titre, description courte et description, sans accents ni majuscules
+        private final String[] searchText;
+
+        Snapshot(List<Prestation> loaded, long version) {
+            this.version = version;
+            this.prestations = loaded.stream().sorted(DISPLAY_ORDER).toList();
+            this.searchText = new String[prestations.size()];
+            for (int i = 0; i < prestations.size(); i++) {
+                Prestation prestation = prestations.get(i);
+                positions.put(prestation.getId(), i);
+                all.set(i);
+                if (prestation.getCategory() != null) {
+                    byCategory.computeIfAbsent(prestation.getCategory(), key -> new BitSet()).set(i);
+                }
+                if (prestation.getPrestationType() != null) {
+                    byType.computeIfAbsent(prestation.getPrestationType(), key -> new BitSet()).set(i);
+                }
+                if (Boolean.TRUE.equals(prestation.getIsActive())) {
+                    active.set(i);
+                }
+                if (Boolean.TRUE.equals(prestation.getRequiresDocuments())) {
+                    requiresDocuments.set(i);
+                }
+                searchText[i] = TextFolding.fold(String.join("\n",
+                        nullToEmpty(prestation.getTitle()),
+                        nullToEmpty(prestation.getShortDescription()),
+                        nullToEmpty(prestation.getDescription())));
+            }
+        }
+
+        BitSet match(Filter filter) {
+            BitSet result = (BitSet) all.clone();
+            if (filter.category() != null) {
+                result.and(byCategory.getOrDefault(filter.category(), new BitSet()));
+            }
+            if (filter.type() != null) {
+                result.and(byType.getOrDefault(filter.type(), new BitSet()));
+            }
+            applyFlag(result, active, filter.active());
+            applyFlag(result, requiresDocuments, filter.requiresDocuments());
+            if (filter.search() != null && !filter.search().isBlank()) {
+                String keyword = TextFolding.fold(filter.search().trim());
+                for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+                    if (!searchText[i].contains(keyword)) {
+                        result.clear(i);
+                    }
+                }
+            }
+            return result;
+        }
+
+        private static void applyFlag(BitSet result, BitSet flag, Boolean expected) {
+            if (expected == null) {
+                return;
+            }
+            if (expected) {
+                result.and(flag);
+            } else {
+                result.andNot(flag);
+            }
+        }
+
+        private static String nullToEmpty(String value) {
+            return value != null ? value : "";
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.event.DemandeChangedEvent;
+import com.oussama.social_service.event.DemandeSnapshot;
+import com.oussama.social_service.repository.DemandeRepository;
+import com.oussama.social_service.repository.projection.PrestationDemandCount;
+import com.oussama.social_service.repository.projection.RecentDemandeRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Nombre de demandes par prestation et score de tendance, maintenus en mémoire.
+ * Le score de tendance compte chaque demande avec un poids divisé par deux à chaque demi-vie écoulée
+ * depuis sa création ; il est décroissant dans le temps sans aucune mise à jour.
+ */
+@Service
+@Slf4j
+public class PrestationDemandCounter {
+
+    // Au-delà de ce nombre de demi-vies, le poids d'une demande est négligeable (< 0,1 %)
+    private static final int TRENDING_WINDOW_HALF_LIVES = 10;
+
+    private final DemandeRepository demandeRepository;
+    private final CommittedChangeTracker changeTracker;
+    private final double halfLifeMillis;
+
+    private final Object lock = new Object();
+
+    // Protégés par lock
+    private Map<Long, Counter> counters = new HashMap<>();
+
+    public PrestationDemandCounter(DemandeRepository demandeRepository,
+                                   CommittedChangeTracker changeTracker,
+                                   @Value("${social.trending.half-life-hours:72}") long halfLifeHours) {
+        this.demandeRepository = demandeRepository;
+        this.changeTracker = changeTracker;
+        this.halfLifeMillis = Duration.ofHours(halfLifeHours).toMillis();
+    }
+
+    public long getTotal(Long prestationId) {
+        synchronized (lock) {
+            Counter counter = counters.get(prestationId);
+            return counter != null ? counter.total : 0L;
+        }
+    }
+
+    /**
+     * Instantané des compteurs, pour trier une liste de prestations sans requête.
+     */
+    public Map<Long, Long> getTotals() {
+        Map<Long, Long> totals = new HashMap<>();
+        synchronized (lock) {
+            counters.forEach((id, counter) -> totals.put(id, counter.total));
+        }
+        return totals;
+    }
+
+    /**
+     * Scores de tendance ramenés à l'instant présent.
+     */
+    public Map<Long, Double> getTrendingScores() {
+        long now = System.currentTimeMillis();
+        Map<Long, Double> scores = new HashMap<>();
+        synchronized (lock) {
+            counters.forEach((id, counter) -> scores.put(id, counter.scoreAt(now, halfLifeMillis)));
+        }
+        return scores;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDemandeChanged(DemandeChangedEvent event) {
+        if (event.before() != null && event.after() != null) {
+            return;
+        }
+        DemandeSnapshot demande = event.after() != null ? event.after() : event.before();
+        if (demande.prestationId() == null) {
+            return;
+        }
+
+        int sign = event.after() != null ? 1 : -1;
+        long now = System.currentTimeMillis();
+        long createdAt = demande.createdAt() != null ? toEpochMillis(demande.createdAt()) : now;
+        synchronized (lock) {
+            counters.computeIfAbsent(demande.prestationId(), id -> new Counter())
+                    .add(sign, createdAt, now, halfLifeMillis);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${social.trending.reconcile-interval-ms:900000}",
+            initialDelayString = "${social.trending.reconcile-interval-ms:900000}")
+    public void reconcile() {
+        changeTracker.reload(lock, this::loadFromDatabase, fresh -> {
+            counters = fresh;
+            log.info("Prestation demand counters loaded for {} prestations", fresh.size());
+        }, true);
+    }
+
+    private Map<Long, Counter> loadFromDatabase() {
+        Map<Long, Counter> fresh = new HashMap<>();
+        for (PrestationDemandCount row : demandeRepository.countByPrestation()) {
+            fresh.computeIfAbsent(row.getPrestationId(), id -> new Counter()).total = row.getTotal();
+        }
+
+        long now = System.currentTimeMillis();
+        LocalDateTime since = LocalDateTime.now()
+                .minus(Duration.ofMillis((long) halfLifeMillis * TRENDING_WINDOW_HALF_LIVES));
+        for (RecentDemandeRow row : demandeRepository.findCreatedSince(since)) {
+            fresh.computeIfAbsent(row.getPrestationId(), id -> new Counter())
+                    .addScore(toEpochMillis(row.getCreatedAt()), now, halfLifeMillis);
+        }
+        return fresh;
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static final class Counter {
+        private long total;
+        private double score;
+        private long scoredAt;
+
+        void add(int sign, long createdAt, long now, double halfLifeMillis) {
+            total = Math.max(0, total + sign);
+            if (sign > 0) {
+                addScore(createdAt, now, halfLifeMillis);
+            } else {
+                // Retirer le poids résiduel de la demande supprimée
+                score = Math.max(0, scoreAt(now, halfLifeMillis) - weight(createdAt, now, halfLifeMillis));
+                scoredAt = now;
+            }
+        }
+
+        void addScore(long createdAt, long now, double halfLifeMillis) {
+            score = scoreAt(now, halfLifeMillis) + weight(createdAt, now, halfLifeMillis);
+            scoredAt = now;
+        }
+
+        double scoreAt(long now, double halfLifeMillis) {
+            if (score == 0 || now <= scoredAt) {
+                return score;
+            }
+            return score * Math.pow(0.5, (now - scoredAt) / halfLifeMillis);
+        }
+
+        private static double weight(long createdAt, long now, double halfLifeMillis) {
+            return Math.pow(0.5, Math.max(0, now - createdAt) / halfLifeMillis);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.dto.PrestationRatingDto;
+import com.oussama.social_service.event.AvisChangedEvent;
+import com.oussama.social_service.event.AvisSnapshot;
+import com.oussama.social_service.repository.AvisRepository;
+import com.oussama.social_service.repository.projection.PrestationRatingCount;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Notes des prestations (nombre, somme, histogramme 1-5 des avis approuvés) maintenues en mémoire.
+ * Chaque approbation, rejet ou suppression d'avis applique un delta après commit ;
+ * une réconciliation périodique recharge l'histogramme depuis la base.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PrestationRatingStore {
+
+    private static final int MIN_RATING = 1;
+    private static final int MAX_RATING = 5;
+    private final AvisRepository avisRepository;
+    private final CommittedChangeTracker changeTracker;
+
+    private final Object lock = new Object();
+
+    // Protégés par lock
+    private Map<Long, long[]> histograms = new HashMap<>();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public List<PrestationRatingDto> getAllRatings() {
+        return snapshot.ratings();
+    }
+
+    public PrestationRatingDto getRating(Long prestationId) {
+        PrestationRatingDto rating = snapshot.byPrestation().get(prestationId);
+        return rating != null ? rating : toDto(prestationId, new long[MAX_RATING]);
+    }
+
+    /**
+     * Moyenne de tous les avis approuvés, toutes prestations confondues (0 s'il n'y en a aucun).
+     */
+    public double getOverallAverage() {
+        return snapshot.overallAverage();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvisChanged(AvisChangedEvent event) {
+        synchronized (lock) {
+            boolean changed = apply(event.before(), -1);
+            changed |= apply(event.after(), 1);
+            if (changed) {
+                publish();
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${social.ratings.reconcile-interval-ms:900000}",
+            initialDelayString = "${social.ratings.reconcile-interval-ms:900000}")
+    public void reconcile() {
+        changeTracker.reload(lock, this::loadFromDatabase, fresh -> {
+            histograms = fresh;
+            publish();
+            log.info("Prestation ratings loaded for {} prestations", fresh.size());
+        }, true);
+    }
+
+    private Map<Long, long[]> loadFromDatabase() {
+        Map<Long, long[]> fresh = new HashMap<>();
+        for (PrestationRatingCount row : avisRepository.countApprovedRatingsByPrestation()) {
+            int rating = row.getRating();
+            if (rating >= MIN_RATING && rating <= MAX_RATING) {
+                fresh.computeIfAbsent(row.getPrestationId(), id -> new long[MAX_RATING])[rating - 1] += row.getTotal();
+            }
+        }
+        return fresh;
+    }
+
+    private boolean apply(AvisSnapshot avis, int sign) {
+        if (avis == null || !avis.approved() || avis.prestationId() == null || avis.rating() == null) {
+            return false;
+        }
+        int rating = avis.rating();
+        if (rating < MIN_RATING || rating > MAX_RATING) {
+            return false;
+        }
+        long[] histogram = histograms.computeIfAbsent(avis.prestationId(), id -> new long[MAX_RATING]);
+        histogram[rating - 1] = Math.max(0, histogram[rating - 1] + sign);
+        return true;
+    }
+
+    private void publish() {
+        Map<Long, PrestationRatingDto> byPrestation = new HashMap<>();
+        long totalCount = 0;
+        long totalSum = 0;
+        for (Map.Entry<Long, long[]> entry : histograms.entrySet()) {
+            long[] histogram = entry.getValue();
+            for (int i = 0; i < histogram.length; i++) {
+                totalCount += histogram[i];
+                totalSum += histogram[i] * (i + 1);
+            }
+            byPrestation.put(entry.getKey(), toDto(entry.getKey(), histogram));
+        }
+
+        List<PrestationRatingDto> ratings = new ArrayList<>(byPrestation.values());
+        ratings.sort(Comparator.comparing(PrestationRatingDto::getPrestationId));
+        snapshot = new Snapshot(List.copyOf(ratings), Map.copyOf(byPrestation), average(totalSum, totalCount));
+    }
+
+    private static PrestationRatingDto toDto(Long prestationId, long[] histogram) {
+        Map<Integer, Long> distribution = new LinkedHashMap<>();
+        long count = 0;
+        long sum = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            distribution.put(i + 1, histogram[i]);
+            count += histogram[i];
+            sum += histogram[i] * (i + 1);
+        }
+        return PrestationRatingDto.builder()
+                .prestationId(prestationId)
+                .count(count)
+                .average(average(sum, count))
+                .distribution(distribution)
+                .build();
+    }
+
+    private static double average(long sum, long count) {
+        return count > 0
+                ? BigDecimal.valueOf((double) sum / count).setScale(2, RoundingMode.HALF_UP).doubleValue()
+                : 0.0;
+    }
+
+    private record Snapshot(List<PrestationRatingDto> ratings,
+                            Map<Long, PrestationRatingDto> byPrestation,
+                            double overallAverage) {
+        static final Snapshot EMPTY = new Snapshot(List.of(), Map.of(), 0.0);
+    }
+}
@@ -7,14 +7,19 @@ import com.oussama.social_service.enums.PrestationCategory;
 import com.oussama.social_service.enums.PrestationType;
 import com.oussama.social_service.mapper.SocialMapper;
 import com.oussama.social_service.repository.PrestationRepository;
+import com.oussama.social_service.service.PrestationCatalog.Filter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
 
 @Service
 @RequiredArgsConstructor
@@ -24,6 +29,9 @@ public class PrestationService {
 
     private final PrestationRepository prestationRepository;
     private final SocialMapper socialMapper;
+    private final PrestationCatalog prestationCatalog;
+    private final PrestationDemandCounter prestationDemandCounter;
+    private final EligibilityService eligibilityService;
 
     public PrestationDto createPrestation(PrestationDto prestationDto) {
         log.info("Creating prestation: {}", prestationDto.getTitle());
@@ -48,6 +56,7 @@ public class PrestationService {
         }
 
         prestation = prestationRepository.save(prestation);
+        prestationCatalog.refreshAfterCommit();
         log.info("Prestation created with ID: {}", prestation.getId());
 
         return socialMapper.toPrestationDto(prestation);
@@ -107,77 +116,81 @@ public class PrestationService {
         }
 
         prestation = prestationRepository.save(prestation);
+        prestationCatalog.refreshAfterCommit();
+        eligibilityService.evictAfterCommit(id);
         log.info("Prestation updated successfully: {}", id);
 
         return socialMapper.toPrestationDto(prestation);
     }
 
-    @Transactional(readOnly = true)
+    // Lectures servies par le catalogue en mémoire, sans transaction ni accès à la base
+    @Transactional(propagation = Propagation.SUPPORTS)
     public PrestationDto getPrestationById(Long id) {
-        Prestation prestation = prestationRepository.findById(id)
+        Prestation prestation = prestationCatalog.get(id)
                 .orElseThrow(() -> new RuntimeException("Prestation not found with ID: " + id));
 
         return socialMapper.toPrestationDto(prestation);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<PrestationDto> getActivePrestations() {
-        return prestationRepository.findByIsActiveTrueOrderByDisplayOrderAsc()
-                .stream()
-                .map(socialMapper::toPrestationDto)
-                .toList();
+        return toDtos(prestationCatalog.find(Filter.activeOnly()));
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public PageResponse<PrestationDto> getAllPrestations(Pageable pageable) {
-        Page<Prestation> prestationPage = prestationRepository.findAllByOrderByDisplayOrderAsc(pageable);
-        return buildPageResponse(prestationPage);
+        return buildPageResponse(prestationCatalog.find(Filter.all(), pageable));
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public PageResponse<PrestationDto> getActivePrestations(Pageable pageable) {
-        Page<Prestation> prestationPage = prestationRepository.findByIsActiveTrueOrderByDisplayOrderAsc(pageable);
-        return buildPageResponse(prestationPage);
+        return buildPageResponse(prestationCatalog.find(Filter.activeOnly(), pageable));
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<PrestationDto> getPrestationsByCategory(PrestationCategory category) {
-        return prestationRepository.findByCategoryAndIsActiveTrueOrderByDisplayOrderAsc(category)
-                .stream()
-                .map(socialMapper::toPrestationDto)
-                .toList();
+        return toDtos(prestationCatalog.find(Filter.activeOnly().withCategory(category)));
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public PageResponse<PrestationDto> getPrestationsByCategory(PrestationCategory category, Pageable pageable) {
-        Page<Prestation> prestationPage = prestationRepository.findByCategoryAndIsActiveTrueOrderByDisplayOrderAsc(category, pageable);
-        return buildPageResponse(prestationPage);
+        return buildPageResponse(prestationCatalog.find(Filter.activeOnly().withCategory(category), pageable));
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<PrestationDto> getPrestationsByType(PrestationType prestationType) {
-        return prestationRepository.findByPrestationTypeAndIsActiveTrueOrderByDisplayOrderAsc(prestationType)
-                .stream()
-                .map(socialMapper::toPrestationDto)
-                .toList();
+        return toDtos(prestationCatalog.find(Filter.activeOnly().withType(prestationType)));
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public PageResponse<PrestationDto> getPrestationsByType(PrestationType prestationType, Pageable pageable) {
-        Page<Prestation> prestationPage = prestationRepository.findByPrestationTypeAndIsActiveTrueOrderByDisplayOrderAsc(prestationType, pageable);
-        return buildPageResponse(prestationPage);
+        return buildPageResponse(prestationCatalog.find(Filter.activeOnly().withType(prestationType), pageable));
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public PageResponse<PrestationDto> searchPrestations(String keyword, Pageable pageable) {
-        Page<Prestation> prestationPage = prestationRepository.searchActiveByKeyword(keyword, pageable);
-        return buildPageResponse(prestationPage);
+        return buildPageResponse(prestationCatalog.find(Filter.activeOnly().withSearch(keyword), pageable));
     }
 
-    @Transactional(readOnly = true)
+    // Classement calculé en mémoire à partir des compteurs de demandes
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<PrestationDto> getMostRequestedPrestations(int limit) {
-        return prestationRepository.findMostRequestedPrestations(Pageable.ofSize(limit))
+        Map<Long, Long> totals = prestationDemandCounter.getTotals();
+        return rankActivePrestations(id -> totals.getOrDefault(id, 0L).doubleValue(), limit);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<PrestationDto> getTrendingPrestations(int limit) {
+        Map<Long, Double> scores = prestationDemandCounter.getTrendingScores();
+        return rankActivePrestations(id -> scores.getOrDefault(id, 0.0), limit);
+    }
+
+    private List<PrestationDto> rankActivePrestations(ToDoubleFunction<Long> score, int limit) {
+        // Liste déjà triée par ordre d'affichage : le tri stable le conserve à score égal
+        return prestationCatalog.find(Filter.activeOnly())
                 .stream()
+                .sorted(Comparator.comparingDouble((Prestation p) -> score.applyAsDouble(p.getId())).reversed())
+                .limit(limit)
                 .map(socialMapper::toPrestationDto)
                 .toList();
     }
@@ -190,6 +203,8 @@ public class PrestationService {
 
         prestation.setIsActive(true);
         prestation = prestationRepository.save(prestation);
+        prestationCatalog.refreshAfterCommit();
+        eligibilityService.evictAfterCommit(id);
 
         log.info("Prestation activated successfully: {}", id);
         return socialMapper.toPrestationDto(prestation);
@@ -203,6 +218,8 @@ public class PrestationService {
 
         prestation.setIsActive(false);
         prestation = prestationRepository.save(prestation);
+        prestationCatalog.refreshAfterCommit();
+        eligibilityService.evictAfterCommit(id);
 
         log.info("Prestation deactivated successfully: {}", id);
         return socialMapper.toPrestationDto(prestation);
@@ -219,6 +236,7 @@ public class PrestationService {
             prestation.setDisplayOrder(i + 1);
             prestationRepository.save(prestation);
         }
+        prestationCatalog.refreshAfterCommit();
 
         log.info("Prestations reordered successfully");
     }
@@ -230,9 +248,15 @@ public class PrestationService {
                 .orElseThrow(() -> new RuntimeException("Prestation not found with ID: " + id));
 
         prestationRepository.delete(prestation);
+        prestationCatalog.refreshAfterCommit();
+        eligibilityService.evictAfterCommit(id);
         log.info("Prestation deleted successfully: {}", id);
     }
 
+    private List<PrestationDto> toDtos(List<Prestation> prestations) {
+        return prestations.stream().map(socialMapper::toPrestationDto).toList();
+    }
+
     private PageResponse<PrestationDto> buildPageResponse(Page<Prestation> prestationPage) {
         return PageResponse.from(prestationPage).map(socialMapper::toPrestationDto);
     }
@@ -0,0 +1,173 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.event.AvisChangedEvent;
+import com.oussama.social_service.event.AvisSnapshot;
+import com.oussama.social_service.event.DemandeChangedEvent;
+import com.oussama.social_service.event.DemandeSnapshot;
+import com.oussama.social_service.repository.AvisRepository;
+import com.oussama.social_service.repository.DemandeRepository;
+import com.oussama.social_service.repository.projection.AvisSearchRow;
+import com.oussama.social_service.repository.projection.DemandeSearchRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Recherche plein texte sur les demandes (nom, email, justification) et les avis approuvés (commentaire, nom).
+ * Les index sont chargés au démarrage puis tenus à jour par les événements de modification ; les
+ * modifications reçues pendant le chargement sont rejouées sur les nouveaux index avant leur mise en service.
+ */
+@Service
+@Slf4j
+public class SearchIndexService {
+
+    private final DemandeRepository demandeRepository;
+    private final AvisRepository avisRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Object lock = new Object();
+
+    // Protégés par lock
+    private TextIndex demandes = new TextIndex();
+    private TextIndex avis = new TextIndex();
+    private List<Object> changesDuringLoad;
+
+    public SearchIndexService(DemandeRepository demandeRepository,
+                              AvisRepository avisRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.demandeRepository = demandeRepository;
+        this.avisRepository = avisRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (lock) {
+            if (changesDuringLoad != null) {
+                return;
+            }
+            changesDuringLoad = new ArrayList<>();
+        }
+
+        TextIndex loadedDemandes = new TextIndex();
+        TextIndex loadedAvis = new TextIndex();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<DemandeSearchRow> rows = demandeRepository.streamSearchFields()) {
+                    rows.forEach(row -> loadedDemandes.put(row.getId(), row.getUserName(), row.getUserEmail(), row.getJustification()));
+                }
+                try (Stream<AvisSearchRow> rows = avisRepository.streamApprovedSearchFields()) {
+                    rows.forEach(row -> loadedAvis.put(row.getId(), row.getComment(), row.getUserName()));
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                changesDuringLoad.forEach(this::apply);
+                changesDuringLoad = null;
+            }
+            throw e;
+        }
+
+        synchronized (lock) {
+            List<Object> pending = changesDuringLoad;
+            changesDuringLoad = null;
+            demandes = loadedDemandes;
+            avis = loadedAvis;
+            pending.forEach(this::apply);
+            log.info("Search index loaded: {} demandes, {} avis ({} terms)",
+                    demandes.size(), avis.size(), demandes.termCount() + avis.termCount());
+        }
+    }
+
+    /**
+     * Identifiants des demandes correspondant à la recherche, des plus récentes aux plus anciennes.
+     */
+    public List<Long> searchDemandes(String query) {
+        synchronized (lock) {
+            return demandes.search(query);
+        }
+    }
+
+    /**
+     * Identifiants des avis approuvés correspondant à la recherche, des plus récents aux plus anciens.
+     */
+    public List<Long> searchAvis(String query) {
+        synchronized (lock) {
+            return avis.search(query);
+        }
+    }
+
+    /**
+     * Identifiants de la page demandée parmi les résultats d'une recherche.
+     */
+    public static List<Long> slice(List<Long> ids, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return ids;
+        }
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+        return ids.subList(from, to);
+    }
+
+    public Map<String, Integer> getStats() {
+        synchronized (lock) {
+            return Map.of(
+                    "demandes", demandes.size(),
+                    "avis", avis.size(),
+                    "terms", demandes.termCount() + avis.termCount());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDemandeChanged(DemandeChangedEvent event) {
+        record(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvisChanged(AvisChangedEvent event) {
+        record(event);
+    }
+
+    private void record(Object event) {
+        synchronized (lock) {
+            apply(event);
+            if (changesDuringLoad != null) {
+                changesDuringLoad.add(event);
+            }
+        }
+    }
+
+    // Appelé sous lock
+    private void apply(Object event) {
+        if (event instanceof DemandeChangedEvent changed) {
+            DemandeSnapshot before = changed.before();
+            DemandeSnapshot after = changed.after();
+            if (after == null) {
+                demandes.remove(before.id());
+            } else if (before == null || !Objects.equals(before.userName(), after.userName())
+                    || !Objects.equals(before.userEmail(), after.userEmail())
+                    || !Objects.equals(before.justification(), after.justification())) {
+                demandes.put(after.id(), after.userName(), after.userEmail(), after.justification());
+            }
+        } else if (event instanceof AvisChangedEvent changed) {
+            AvisSnapshot after = changed.after();
+            if (after == null || !after.approved()) {
+                avis.remove(after != null ? after.id() : changed.before().id());
+            } else {
+                avis.put(after.id(), after.comment(), after.userName());
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.oussama.social_service.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalisation commune des textes comparés ou indexés (recherche, catalogue, pré-modération des avis) :
+ * minuscules, sans accents, ligatures développées, découpage sur tout ce qui n'est ni lettre ni chiffre.
+ */
+final class TextFolding {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TextFolding() {
+    }
+
+    /**
+     * Texte en minuscules, sans accents, ligatures développées.
+     */
+    static String fold(String text) {
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return folded.toLowerCase(Locale.ROOT).replace("œ", "oe").replace("æ", "ae");
+    }
+
+    /**
+     * Mots du texte normalisé, dans l'ordre ; liste vide pour un texte absent ou blanc.
+     */
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        for (String term : SEPARATORS.split(fold(text))) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+}
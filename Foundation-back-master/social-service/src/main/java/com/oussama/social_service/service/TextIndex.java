@@ -0,0 +1,97 @@
+package com.oussama.social_service.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Index inversé en mémoire : chaque terme renvoie aux identifiants des documents qui le contiennent.
+ * Les termes sont normalisés par {@link TextFolding} ; chaque mot d'une recherche est traité comme
+ * un préfixe et tous doivent être présents (« dem rembours » trouve « Demande de remboursement »).
+ *
+ * Non synchronisé : l'appelant protège les accès.
+ */
+final class TextIndex {
+
+    static final int MIN_QUERY_TERM_LENGTH = 2;
+
+    // Trié pour servir les recherches par préfixe
+    private final NavigableMap<String, Set<Long>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> documentTerms = new HashMap<>();
+
+    void put(Long id, String... fields) {
+        remove(id);
+        Set<String> terms = new HashSet<>();
+        for (String field : fields) {
+            terms.addAll(TextFolding.terms(field));
+        }
+        if (terms.isEmpty()) {
+            return;
+        }
+        documentTerms.put(id, terms);
+        for (String term : terms) {
+            postings.computeIfAbsent(term, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    void remove(Long id) {
+        Set<String> terms = documentTerms.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Set<Long> ids = postings.get(term);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Identifiants des documents contenant tous les mots de la recherche (en préfixe), du plus récent
+     * (identifiant le plus grand) au plus ancien. Les mots de moins de deux caractères sont ignorés.
+     */
+    List<Long> search(String query) {
+        List<String> prefixes = TextFolding.terms(query).stream()
+                .filter(term -> term.length() >= MIN_QUERY_TERM_LENGTH)
+                .distinct()
+                .toList();
+        if (prefixes.isEmpty()) {
+            return List.of();
+        }
+
+        List<Set<Long>> matches = new ArrayList<>(prefixes.size());
+        for (String prefix : prefixes) {
+            Set<Long> ids = new HashSet<>();
+            postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values().forEach(ids::addAll);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            matches.add(ids);
+        }
+
+        // Intersection en partant de l'ensemble le plus petit
+        matches.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(matches.get(0));
+        for (int i = 1; i < matches.size() && !result.isEmpty(); i++) {
+            result.retainAll(matches.get(i));
+        }
+        List<Long> ids = new ArrayList<>(result);
+        ids.sort(Comparator.reverseOrder());
+        return ids;
+    }
+
+    int size() {
+        return documentTerms.size();
+    }
+
+    int termCount() {
+        return postings.size();
+    }
+}
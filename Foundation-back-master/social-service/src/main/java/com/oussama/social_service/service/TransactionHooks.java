@@ -0,0 +1,91 @@
+package com.oussama.social_service.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Exécute une action après le commit de la transaction courante (ou immédiatement hors transaction),
+ * pour que les caches en mémoire ne reflètent jamais une écriture annulée.
+ */
+public final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Ensemble propre à la transaction courante (un par clé), libéré à sa fin. Hors transaction,
+     * renvoie un ensemble vide qui n'est partagé avec aucun autre appel.
+     */
+    public static <T> Set<T> transactionSet(Object key) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return new HashSet<>();
+        }
+        @SuppressWarnings("unchecked")
+        Set<T> set = (Set<T>) TransactionSynchronizationManager.getResource(key);
+        if (set == null) {
+            Set<T> created = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(key, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(key);
+                }
+            });
+            set = created;
+        }
+        return set;
+    }
+
+    /**
+     * Ajoute un élément au lot de la transaction courante (un lot par clé) ; le lot est écrit en une fois
+     * juste avant le commit, dans la transaction, et abandonné en cas de rollback. Hors transaction,
+     * l'élément est écrit immédiatement.
+     */
+    public static <T> void beforeCommit(Object key, T item, Consumer<List<T>> write) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            write.accept(List.of(item));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<T> batch = (List<T>) TransactionSynchronizationManager.getResource(key);
+        if (batch == null) {
+            List<T> created = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(key, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    if (!created.isEmpty()) {
+                        write.accept(List.copyOf(created));
+                        created.clear();
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(key);
+                }
+            });
+            batch = created;
+        }
+        batch.add(item);
+    }
+}
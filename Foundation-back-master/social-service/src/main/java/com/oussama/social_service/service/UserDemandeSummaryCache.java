@@ -0,0 +1,157 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.dto.UserDemandeSummaryDto;
+import com.oussama.social_service.enums.DemandeStatus;
+import com.oussama.social_service.event.DemandeChangedEvent;
+import com.oussama.social_service.event.DemandeSnapshot;
+import com.oussama.social_service.repository.DemandeRepository;
+import com.oussama.social_service.repository.projection.StatusCount;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Résumé des demandes par utilisateur pour l'accueil employé : compteurs par statut, dernières demandes
+ * et actions en attente. Les résumés sont chargés à la première consultation (deux requêtes) puis tenus
+ * à jour par les événements de modification ; seuls les cacheSize utilisateurs les plus récemment
+ * consultés sont conservés.
+ */
+@Service
+@Slf4j
+public class UserDemandeSummaryCache {
+
+    private final DemandeRepository demandeRepository;
+    private final CommittedChangeTracker changeTracker;
+    private final int recentSize;
+
+    private final Object lock = new Object();
+
+    // Protégés par lock ; ordre d'accès pour évincer le résumé le moins récemment consulté
+    private final LinkedHashMap<String, Summary> summaries;
+    private long hits;
+    private long misses;
+
+    public UserDemandeSummaryCache(DemandeRepository demandeRepository,
+                                   CommittedChangeTracker changeTracker,
+                                   @Value("${social.summary.cache-size:10000}") int cacheSize,
+                                   @Value("${social.summary.recent-size:5}") int recentSize) {
+        this.demandeRepository = demandeRepository;
+        this.changeTracker = changeTracker;
+        this.recentSize = recentSize;
+        this.summaries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Summary> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public UserDemandeSummaryDto getSummary(String userEmail) {
+        synchronized (lock) {
+            Summary cached = summaries.get(userEmail);
+            if (cached != null) {
+                hits++;
+                return cached.toDto(userEmail);
+            }
+            misses++;
+        }
+
+        // Sous écritures concurrentes répétées, le résumé est servi sans être mis en cache
+        Summary loaded = changeTracker.reload(lock, () -> load(userEmail),
+                summary -> summaries.put(userEmail, summary), false);
+        synchronized (lock) {
+            return loaded.toDto(userEmail);
+        }
+    }
+
+    public Map<String, Long> getStats() {
+        synchronized (lock) {
+            return Map.of("users", (long) summaries.size(), "hits", hits, "misses", misses);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDemandeChanged(DemandeChangedEvent event) {
+        DemandeSnapshot before = event.before();
+        DemandeSnapshot after = event.after();
+        synchronized (lock) {
+            String userEmail = after != null ? after.userEmail() : before.userEmail();
+            Summary summary = summaries.get(userEmail);
+            if (summary == null) {
+                return;
+            }
+            if (after == null && summary.recentIds.contains(before.id())) {
+                // La liste des dernières demandes doit être complétée depuis la base
+                summaries.remove(userEmail);
+                return;
+            }
+            if (before != null) {
+                summary.add(before.status(), -1);
+            }
+            if (after != null) {
+                summary.add(after.status(), 1);
+            }
+            if (before == null) {
+                summary.addRecent(after.id(), recentSize);
+            }
+        }
+    }
+
+    private Summary load(String userEmail) {
+        Summary summary = new Summary();
+        for (StatusCount row : demandeRepository.countByStatusForUser(userEmail)) {
+            summary.add(row.getStatus(), row.getTotal());
+        }
+        summary.recentIds.addAll(demandeRepository.findRecentIdsByUserEmail(userEmail, PageRequest.of(0, recentSize)));
+        return summary;
+    }
+
+    private static final class Summary {
+        private final Map<DemandeStatus, Long> byStatus = new EnumMap<>(DemandeStatus.class);
+        private final List<Long> recentIds = new ArrayList<>();
+
+        void add(DemandeStatus status, long delta) {
+            if (status == null) {
+                return;
+            }
+            long total = byStatus.getOrDefault(status, 0L) + delta;
+            if (total > 0) {
+                byStatus.put(status, total);
+            } else {
+                byStatus.remove(status);
+            }
+        }
+
+        void addRecent(Long id, int recentSize) {
+            int position = 0;
+            while (position < recentIds.size() && recentIds.get(position) > id) {
+                position++;
+            }
+            recentIds.add(position, id);
+            if (recentIds.size() > recentSize) {
+                recentIds.remove(recentIds.size() - 1);
+            }
+        }
+
+        UserDemandeSummaryDto toDto(String userEmail) {
+            long total = byStatus.values().stream().mapToLong(Long::longValue).sum();
+            return UserDemandeSummaryDto.builder()
+                    .userEmail(userEmail)
+                    .total(total)
+                    .byStatus(new EnumMap<>(byStatus))
+                    .recentDemandeIds(List.copyOf(recentIds))
+                    .draftsToSubmit(byStatus.getOrDefault(DemandeStatus.DRAFT, 0L))
+                    .awaitingDecision(byStatus.getOrDefault(DemandeStatus.SUBMITTED, 0L)
+                            + byStatus.getOrDefault(DemandeStatus.IN_REVIEW, 0L))
+                    .build();
+        }
+    }
+}
@@ -5,13 +5,22 @@ import com.oussama.social_service.entity.Avis;
 import com.oussama.social_service.entity.Demande;
 import com.oussama.social_service.entity.Prestation;
 import com.oussama.social_service.enums.AvisStatus;
+import com.oussama.social_service.enums.DemandeEventType;
 import com.oussama.social_service.enums.DemandeStatus;
+import com.oussama.social_service.enums.PrestationCategory;
+import com.oussama.social_service.event.AvisChangedEvent;
+import com.oussama.social_service.event.AvisSnapshot;
+import com.oussama.social_service.event.DemandeChangedEvent;
+import com.oussama.social_service.event.DemandeSnapshot;
 import com.oussama.social_service.repository.AvisRepository;
 import com.oussama.social_service.repository.DemandeRepository;
-import com.oussama.social_service.repository.PrestationRepository;
+import com.oussama.social_service.service.DemandeEventLog;
+import com.oussama.social_service.service.PrestationCatalog;
+import com.oussama.social_service.service.PrestationCatalog.Filter;
 import com.oussama.social_service.service.SocialService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -20,6 +29,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,15 +37,23 @@ import java.util.stream.Collectors;
 @Slf4j
 public class SocialServiceImpl implements SocialService {
 
-    private final PrestationRepository prestationRepository;
     private final DemandeRepository demandeRepository;
     private final AvisRepository avisRepository;
+    private final PrestationCatalog prestationCatalog;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DemandeEventLog demandeEventLog;
+
+    private static final String UNKNOWN_PRESTATION = "Unknown";
 
     @Override
     public List<PrestationDto> getActivePrestations(String category, String search) {
         log.info("Getting active prestations - category: {}, search: {}", category, search);
         
-        List<Prestation> prestations = prestationRepository.findActivePrestationsWithFilters(category, search);
+        Filter filter = Filter.activeOnly().withSearch(search);
+        if (category != null && !category.isBlank()) {
+            filter = filter.withCategory(PrestationCategory.valueOf(category.trim().toUpperCase()));
+        }
+        List<Prestation> prestations = prestationCatalog.find(filter);
         
         return prestations.stream()
                 .map(this::convertToPrestationDto)
@@ -47,7 +65,7 @@ public class SocialServiceImpl implements SocialService {
     public DemandeDto createDemande(DemandeDto demandeDto, String userEmail) {
         log.info("Creating demande for user: {}", userEmail);
         
-        Prestation prestation = prestationRepository.findById(demandeDto.getPrestationId())
+        Prestation prestation = prestationCatalog.get(demandeDto.getPrestationId())
                 .orElseThrow(() -> new RuntimeException("Prestation not found"));
         
         Demande demande = Demande.builder()
@@ -59,6 +77,9 @@ public class SocialServiceImpl implements SocialService {
                 .build();
         
         Demande savedDemande = demandeRepository.save(demande);
+        DemandeSnapshot created = DemandeSnapshot.of(savedDemande);
+        demandeEventLog.record(DemandeEventType.CREATED, null, created, null, userEmail, null);
+        eventPublisher.publishEvent(DemandeChangedEvent.created(created));
         
         log.info("Demande created successfully with ID: {}", savedDemande.getId());
         
@@ -79,12 +100,14 @@ public class SocialServiceImpl implements SocialService {
             demandePage = demandeRepository.findByUserEmail(userEmail, pageable);
         }
         
+        // Titres résolus en une fois pour toute la page
+        Map<Long, String> titles = prestationCatalog.getTitles(demandePage.getContent().stream()
+                .map(Demande::getPrestationId)
+                .collect(Collectors.toSet()));
+
         List<DemandeDto> content = demandePage.getContent().stream()
-                .map(demande -> {
-                    Prestation prestation = prestationRepository.findById(demande.getPrestationId())
-                            .orElse(null);
-                    return convertToDemandeDto(demande, prestation != null ? prestation.getTitle() : "Unknown");
-                })
+                .map(demande -> convertToDemandeDto(demande,
+                        titles.getOrDefault(demande.getPrestationId(), UNKNOWN_PRESTATION)))
                 .collect(Collectors.toList());
         
         return PageResponse.<DemandeDto>builder()
@@ -110,10 +133,9 @@ public class SocialServiceImpl implements SocialService {
             throw new RuntimeException("Access denied");
         }
         
-        Prestation prestation = prestationRepository.findById(demande.getPrestationId())
-                .orElse(null);
+        String prestationTitle = prestationCatalog.getTitle(demande.getPrestationId());
         
-        return convertToDemandeDto(demande, prestation != null ? prestation.getTitle() : "Unknown");
+        return convertToDemandeDto(demande, prestationTitle != null ? prestationTitle : UNKNOWN_PRESTATION);
     }
 
     @Override
@@ -121,7 +143,7 @@ public class SocialServiceImpl implements SocialService {
     public AvisDto createAvis(AvisDto avisDto, String userEmail) {
         log.info("Creating avis for user: {}", userEmail);
         
-        Prestation prestation = prestationRepository.findById(avisDto.getPrestationId())
+        Prestation prestation = prestationCatalog.get(avisDto.getPrestationId())
                 .orElseThrow(() -> new RuntimeException("Prestation not found"));
         
         Avis avis = Avis.builder()
@@ -135,6 +157,7 @@ public class SocialServiceImpl implements SocialService {
                 .build();
         
         Avis savedAvis = avisRepository.save(avis);
+        eventPublisher.publishEvent(AvisChangedEvent.created(AvisSnapshot.of(savedAvis)));
         
         log.info("Avis created successfully with ID: {}", savedAvis.getId());
         
@@ -147,12 +170,13 @@ public class SocialServiceImpl implements SocialService {
         
         List<Avis> avisList = avisRepository.findByUserEmail(userEmail);
         
+        Map<Long, String> titles = prestationCatalog.getTitles(avisList.stream()
+                .map(Avis::getPrestationId)
+                .collect(Collectors.toSet()));
+        
         return avisList.stream()
-                .map(avis -> {
-                    Prestation prestation = prestationRepository.findById(avis.getPrestationId())
-                            .orElse(null);
-                    return convertToAvisDto(avis, prestation != null ? prestation.getTitle() : "Unknown");
-                })
+                .map(avis -> convertToAvisDto(avis,
+                        titles.getOrDefault(avis.getPrestationId(), UNKNOWN_PRESTATION)))
                 .collect(Collectors.toList());
     }
 
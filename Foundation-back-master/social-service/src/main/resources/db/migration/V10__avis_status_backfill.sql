@@ -0,0 +1,12 @@
+-- Avant la file de modération, approuver ou rejeter un avis ne modifiait que is_approved : le statut
+-- restait PENDING. On aligne le statut sur la décision enregistrée.
+
+UPDATE avis SET status = 'PUBLISHED', moderated_at = COALESCE(moderated_at, approved_at)
+WHERE is_approved = TRUE AND status = 'PENDING';
+
+-- Un rejet remettait seulement is_approved, approved_by et approved_at à leurs valeurs initiales
+-- (updated_at n'est jamais mis à jour) : un avis rejeté est indiscernable d'un avis jamais modéré.
+-- Ces avis restent PENDING et reviennent dans la file, ce qui ne publie rien. Inversement, un avis
+-- REJECTED ne doit jamais rester marqué approuvé.
+UPDATE avis SET is_approved = FALSE, approved_by = NULL, approved_at = NULL
+WHERE status = 'REJECTED' AND is_approved = TRUE;
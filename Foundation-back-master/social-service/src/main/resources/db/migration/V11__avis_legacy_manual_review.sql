@@ -0,0 +1,8 @@
+-- Un rejet antérieur à la file de modération ne laissait aucune trace (voir V10) : les avis restés
+-- PENDING sans score peuvent avoir déjà été rejetés par un modérateur. Ils restent dans la file mais ne
+-- sont jamais repris par la pré-classification, qui pourrait les publier automatiquement.
+
+ALTER TABLE avis ADD COLUMN manual_review_only BOOLEAN;
+
+UPDATE avis SET manual_review_only = TRUE
+WHERE status = 'PENDING' AND classification_score IS NULL;
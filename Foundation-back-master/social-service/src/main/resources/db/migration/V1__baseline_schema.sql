@@ -0,0 +1,106 @@
+-- Schéma initial du social-service, tel que généré jusqu'ici par ddl-auto=update.
+-- Les bases existantes sont marquées à cette version (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE prestations (
+    id                    BIGINT       NOT NULL AUTO_INCREMENT,
+    title                 VARCHAR(255) NOT NULL,
+    short_description     TEXT,
+    description           TEXT,
+    prestation_type       VARCHAR(32),
+    category              VARCHAR(32)  NOT NULL,
+    max_amount            DECIMAL(38, 2),
+    min_amount            DECIMAL(38, 2),
+    duration_label        VARCHAR(255),
+    conditions            TEXT,
+    is_active             BOOLEAN      NOT NULL,
+    requires_documents    BOOLEAN,
+    required_documents    TEXT,
+    eligibility_criteria  TEXT,
+    processing_time_days  INT,
+    max_requests_per_year INT,
+    image_url             VARCHAR(255),
+    display_order         INT,
+    created_at            DATETIME(6)  NOT NULL,
+    updated_at            DATETIME(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE demandes (
+    id                       BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id                  BIGINT       NOT NULL,
+    user_email               VARCHAR(255) NOT NULL,
+    user_name                VARCHAR(255) NOT NULL,
+    employee_id              VARCHAR(255),
+    prestation_id            BIGINT       NOT NULL,
+    prestation_title         VARCHAR(255) NOT NULL,
+    status                   VARCHAR(32)  NOT NULL,
+    requested_amount         DECIMAL(38, 2),
+    approved_amount          DECIMAL(38, 2),
+    justification            TEXT,
+    rejection_reason         TEXT,
+    documents_uploaded       VARCHAR(255),
+    priority_level           VARCHAR(32),
+    submitted_at             DATETIME(6),
+    processed_at             DATETIME(6),
+    processed_by             BIGINT,
+    processed_by_name        VARCHAR(255),
+    expected_processing_date DATETIME(6),
+    payment_reference        VARCHAR(255),
+    payment_date             DATETIME(6),
+    admin_comment            TEXT,
+    created_at               DATETIME(6)  NOT NULL,
+    updated_at               DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE avis (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id        BIGINT       NOT NULL,
+    user_name      VARCHAR(255) NOT NULL,
+    is_approved    BOOLEAN      NOT NULL,
+    is_featured    BOOLEAN      NOT NULL,
+    user_email     VARCHAR(255) NOT NULL,
+    prestation_id  BIGINT       NOT NULL,
+    rating         INT          NOT NULL,
+    comment        TEXT,
+    status         VARCHAR(32)  NOT NULL,
+    created_at     DATETIME(6)  NOT NULL,
+    updated_at     DATETIME(6)  NOT NULL,
+    moderated_at   DATETIME(6),
+    approved_by    BIGINT,
+    approved_at    DATETIME(6),
+    admin_response TEXT,
+    response_date  DATETIME(6),
+    avis_type      VARCHAR(32),
+    demande_id     BIGINT,
+    is_anonymous   BOOLEAN,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_avis_user_id UNIQUE (user_id)
+);
+
+CREATE TABLE attachments (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    demande_id  BIGINT       NOT NULL,
+    filename    VARCHAR(255) NOT NULL,
+    path        VARCHAR(255) NOT NULL,
+    size_bytes  BIGINT,
+    uploaded_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE demande_rollups (
+    id               BIGINT         NOT NULL AUTO_INCREMENT,
+    bucket_date      DATE           NOT NULL,
+    category         VARCHAR(32)    NOT NULL,
+    created_count    BIGINT         NOT NULL,
+    submitted_count  BIGINT         NOT NULL,
+    approved_count   BIGINT         NOT NULL,
+    rejected_count   BIGINT         NOT NULL,
+    paid_count       BIGINT         NOT NULL,
+    cancelled_count  BIGINT         NOT NULL,
+    requested_amount DECIMAL(38, 2) NOT NULL,
+    approved_amount  DECIMAL(38, 2) NOT NULL,
+    paid_amount      DECIMAL(38, 2) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_demande_rollups_bucket UNIQUE (bucket_date, category)
+);
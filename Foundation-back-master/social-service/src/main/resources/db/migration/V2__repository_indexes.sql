@@ -0,0 +1,32 @@
+-- Index composites couvrant les filtres et tris des repositories (voir RepositoryIndexUsageTest).
+
+-- demandes
+CREATE INDEX idx_demandes_user_created ON demandes (user_id, created_at);
+CREATE INDEX idx_demandes_user_prestation_created ON demandes (user_id, prestation_id, created_at);
+CREATE INDEX idx_demandes_email_status ON demandes (user_email, status);
+CREATE INDEX idx_demandes_status_created ON demandes (status, created_at);
+CREATE INDEX idx_demandes_status_expected ON demandes (status, expected_processing_date);
+CREATE INDEX idx_demandes_prestation_created ON demandes (prestation_id, created_at);
+CREATE INDEX idx_demandes_created ON demandes (created_at);
+
+-- avis
+CREATE INDEX idx_avis_email ON avis (user_email);
+CREATE INDEX idx_avis_status_created ON avis (status, created_at);
+CREATE INDEX idx_avis_prestation_status ON avis (prestation_id, status);
+CREATE INDEX idx_avis_prestation_approved_created ON avis (prestation_id, is_approved, created_at);
+CREATE INDEX idx_avis_approved_created ON avis (is_approved, created_at);
+CREATE INDEX idx_avis_approved_rating ON avis (is_approved, rating);
+CREATE INDEX idx_avis_approved_prestation_rating ON avis (is_approved, prestation_id, rating);
+CREATE INDEX idx_avis_featured_approved_created ON avis (is_featured, is_approved, created_at);
+CREATE INDEX idx_avis_type_approved_created ON avis (avis_type, is_approved, created_at);
+
+-- prestations
+CREATE INDEX idx_prestations_active_order ON prestations (is_active, display_order);
+CREATE INDEX idx_prestations_category_active_order ON prestations (category, is_active, display_order);
+CREATE INDEX idx_prestations_type_active_order ON prestations (prestation_type, is_active, display_order);
+
+-- attachments
+CREATE INDEX idx_attachments_demande ON attachments (demande_id);
+
+-- demande_rollups (l'unique (bucket_date, category) sert déjà les plages toutes catégories)
+CREATE INDEX idx_demande_rollups_category_date ON demande_rollups (category, bucket_date);
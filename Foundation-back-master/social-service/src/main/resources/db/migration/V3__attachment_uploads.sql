@@ -0,0 +1,17 @@
+-- Envois de pièces jointes par morceaux, reprenables, avec dé-duplication par SHA-256.
+
+ALTER TABLE attachments ADD COLUMN content_type VARCHAR(255);
+ALTER TABLE attachments ADD COLUMN sha256 VARCHAR(64);
+
+CREATE TABLE attachment_uploads (
+    id           VARCHAR(36)  NOT NULL,
+    demande_id   BIGINT       NOT NULL,
+    user_email   VARCHAR(255) NOT NULL,
+    filename     VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255),
+    total_size   BIGINT       NOT NULL,
+    created_at   DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_attachment_uploads_created ON attachment_uploads (created_at);
@@ -0,0 +1,4 @@
+-- Pré-classification automatique des avis en attente.
+
+ALTER TABLE avis ADD COLUMN classification_score DOUBLE;
+ALTER TABLE avis ADD COLUMN profanity_flagged BOOLEAN;
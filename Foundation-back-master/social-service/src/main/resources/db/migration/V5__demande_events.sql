@@ -0,0 +1,30 @@
+-- Journal append-only des évènements de demandes (création, transitions, annulation, suppression).
+
+CREATE TABLE demande_events (
+    id               BIGINT       NOT NULL AUTO_INCREMENT,
+    demande_id       BIGINT       NOT NULL,
+    event_type       VARCHAR(32)  NOT NULL,
+    from_status      VARCHAR(32),
+    to_status        VARCHAR(32),
+    user_id          BIGINT,
+    prestation_id    BIGINT,
+    requested_amount DECIMAL(38, 2),
+    approved_amount  DECIMAL(38, 2),
+    actor_id         BIGINT,
+    actor_name       VARCHAR(255),
+    note             TEXT,
+    occurred_at      DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_demande_events_demande ON demande_events (demande_id, id);
+CREATE INDEX idx_demande_events_user ON demande_events (user_id, id);
+CREATE INDEX idx_demande_events_prestation ON demande_events (prestation_id, id);
+
+-- Demandes existantes : un évènement IMPORTED portant leur état courant, point de départ des rejeux
+INSERT INTO demande_events (demande_id, event_type, to_status, user_id, prestation_id, requested_amount,
+                            approved_amount, actor_id, actor_name, occurred_at)
+SELECT id, 'IMPORTED', status, user_id, prestation_id, requested_amount,
+       approved_amount, processed_by, processed_by_name, COALESCE(updated_at, created_at, CURRENT_TIMESTAMP)
+FROM demandes
+ORDER BY id;
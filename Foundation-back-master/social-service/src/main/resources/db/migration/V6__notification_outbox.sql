@@ -0,0 +1,21 @@
+-- Outbox des notifications : écrite dans la transaction métier, relayée vers notification-service.
+
+CREATE TABLE notification_outbox (
+    id               BIGINT        NOT NULL AUTO_INCREMENT,
+    idempotency_key  VARCHAR(64)   NOT NULL,
+    aggregate_type   VARCHAR(32)   NOT NULL,
+    aggregate_id     BIGINT        NOT NULL,
+    recipient        VARCHAR(255)  NOT NULL,
+    subject          VARCHAR(255)  NOT NULL,
+    html             TEXT          NOT NULL,
+    status           VARCHAR(16)   NOT NULL,
+    attempts         INT           NOT NULL,
+    next_attempt_at  DATETIME(6)   NOT NULL,
+    last_error       VARCHAR(1000),
+    created_at       DATETIME(6)   NOT NULL,
+    sent_at          DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_notification_outbox_key UNIQUE (idempotency_key)
+);
+
+CREATE INDEX idx_notification_outbox_status_next ON notification_outbox (status, next_attempt_at);
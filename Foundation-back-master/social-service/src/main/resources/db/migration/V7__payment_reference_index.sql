@@ -0,0 +1,3 @@
+-- Rapprochement des fichiers de retour bancaire par référence de paiement.
+
+CREATE INDEX idx_demandes_payment_reference ON demandes (payment_reference);
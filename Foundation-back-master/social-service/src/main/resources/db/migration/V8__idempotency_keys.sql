@@ -0,0 +1,16 @@
+-- Clés d'idempotence des créations : la réponse d'origine est rejouée pour une requête répétée.
+
+CREATE TABLE idempotency_keys (
+    id               BIGINT        NOT NULL AUTO_INCREMENT,
+    scope            VARCHAR(32)   NOT NULL,
+    user_key         VARCHAR(255)  NOT NULL,
+    idempotency_key  VARCHAR(128)  NOT NULL,
+    request_hash     VARCHAR(64)   NOT NULL,
+    response_body    TEXT,
+    created_at       DATETIME(6)   NOT NULL,
+    expires_at       DATETIME(6)   NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_idempotency_keys_key UNIQUE (scope, user_key, idempotency_key)
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
@@ -0,0 +1,13 @@
+-- Dernière étape de délai notifiée par le moniteur (COMING_DUE, EXPIRED), indépendante de la priorité
+-- qu'un administrateur peut fixer à la main.
+
+ALTER TABLE demandes ADD COLUMN sla_stage VARCHAR(16);
+
+-- Demandes en attente existantes : les échéances déjà passées ont été traitées par le moniteur
+-- (avertissement par défaut 24 h avant la date prévue)
+UPDATE demandes SET sla_stage = 'EXPIRED'
+WHERE status IN ('SUBMITTED', 'IN_REVIEW') AND expected_processing_date <= CURRENT_TIMESTAMP;
+
+UPDATE demandes SET sla_stage = 'COMING_DUE'
+WHERE status IN ('SUBMITTED', 'IN_REVIEW') AND sla_stage IS NULL
+  AND expected_processing_date <= TIMESTAMPADD(DAY, 1, CURRENT_TIMESTAMP);
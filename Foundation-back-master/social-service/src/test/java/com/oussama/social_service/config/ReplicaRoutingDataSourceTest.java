@@ -0,0 +1,156 @@
+package com.oussama.social_service.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Primaire et réplica sur deux bases H2 distinctes, chacune contenant son propre nom : la requête
+ * « SELECT name FROM node » indique la base qui a servi la transaction.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private DriverManagerDataSource primary;
+    private DriverManagerDataSource replica;
+    private ReplicaRoutingDataSource routing;
+    private LazyConnectionDataSourceProxy dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = node("primary");
+        replica = node("replica");
+        new JdbcTemplate(replica).execute("CREATE TABLE lag (seconds_behind_source BIGINT)");
+        new JdbcTemplate(replica).execute("INSERT INTO lag VALUES (0)");
+
+        routing = routing();
+        routing.afterPropertiesSet();
+        dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingDataSource.setCurrentUser(null);
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertThat(servedBy(readOnly)).isEqualTo("replica");
+        assertThat(servedBy(readWrite)).isEqualTo("primary");
+    }
+
+    @Test
+    void jpaReadOnlyTransactionsUseTheReplica() {
+        // Hibernate prend la connexion dès le début de la transaction : sans le proxy paresseux devant le
+        // routage, elle serait choisie avant que la transaction ne soit marquée lecture seule
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setPackagesToScan(ReplicaRoutingDataSourceTest.class.getPackageName());
+        factory.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "none"));
+        factory.afterPropertiesSet();
+        try {
+            EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(factory.getObject());
+            JpaTransactionManager transactionManager = new JpaTransactionManager(factory.getObject());
+            TransactionTemplate jpaReadOnly = new TransactionTemplate(transactionManager);
+            jpaReadOnly.setReadOnly(true);
+            TransactionTemplate jpaReadWrite = new TransactionTemplate(transactionManager);
+
+            String readOnlyNode = jpaReadOnly.execute(status ->
+                    (String) entityManager.createNativeQuery("SELECT name FROM node").getSingleResult());
+            String readWriteNode = jpaReadWrite.execute(status ->
+                    (String) entityManager.createNativeQuery("SELECT name FROM node").getSingleResult());
+            assertThat(readOnlyNode).isEqualTo("replica");
+            assertThat(readWriteNode).isEqualTo("primary");
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    @Test
+    void replicaStaysOutOfRotationUntilItsLagIsMeasured() {
+        ReplicaRoutingDataSource unmeasured = routing();
+        ReplicaRoutingDataSource.Target beforeMeasure = readOnly.execute(status -> unmeasured.route());
+        assertThat(beforeMeasure).isEqualTo(ReplicaRoutingDataSource.Target.PRIMARY);
+
+        new JdbcTemplate(replica).update("UPDATE lag SET seconds_behind_source = 30");
+        ReplicaRoutingDataSource lagging = routing();
+        lagging.afterPropertiesSet();
+        ReplicaRoutingDataSource.Target whileLagging = readOnly.execute(status -> lagging.route());
+        assertThat(whileLagging).isEqualTo(ReplicaRoutingDataSource.Target.PRIMARY);
+    }
+
+    @Test
+    void stickyWindowCoversMaxLagAndTheCheckInterval() {
+        assertThat(routing.getStickyMillis()).isEqualTo(60_000);
+    }
+
+    @Test
+    void userReadsFromThePrimaryAfterAWrite() {
+        ReplicaRoutingDataSource.setCurrentUser("user@example.com");
+        routing.markWrite("user@example.com");
+        assertThat(servedBy(readOnly)).isEqualTo("primary");
+
+        ReplicaRoutingDataSource.setCurrentUser("other@example.com");
+        assertThat(servedBy(readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void laggingReplicaLeavesRotation() {
+        new JdbcTemplate(replica).update("UPDATE lag SET seconds_behind_source = 30");
+        routing.checkReplicaLag();
+        assertThat(servedBy(readOnly)).isEqualTo("primary");
+
+        new JdbcTemplate(replica).update("UPDATE lag SET seconds_behind_source = 1");
+        routing.checkReplicaLag();
+        assertThat(servedBy(readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void replicaWithoutReplicationStatusLeavesRotation() {
+        new JdbcTemplate(replica).update("DELETE FROM lag");
+        routing.checkReplicaLag();
+        assertThat(servedBy(readOnly)).isEqualTo("primary");
+    }
+
+    // 5 s de retard toléré, mesuré toutes les 55 s : 60 s de lecture sur le primaire après une écriture
+    private ReplicaRoutingDataSource routing() {
+        return new ReplicaRoutingDataSource(primary, replica, "SELECT seconds_behind_source FROM lag", 5, 55_000);
+    }
+
+    private String servedBy(TransactionTemplate transaction) {
+        return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static DriverManagerDataSource node(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(16))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+}
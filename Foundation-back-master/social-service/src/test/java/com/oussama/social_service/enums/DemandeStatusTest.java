@@ -0,0 +1,56 @@
+package com.oussama.social_service.enums;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.oussama.social_service.enums.DemandeStatus.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DemandeStatusTest {
+
+    private static final Map<DemandeStatus, Set<DemandeStatus>> ALLOWED = Map.of(
+            DRAFT, EnumSet.of(SUBMITTED, CANCELLED),
+            SUBMITTED, EnumSet.of(IN_REVIEW, APPROVED, REJECTED, CANCELLED),
+            IN_REVIEW, EnumSet.of(APPROVED, REJECTED, CANCELLED),
+            APPROVED, EnumSet.of(PAID, CANCELLED),
+            REJECTED, EnumSet.noneOf(DemandeStatus.class),
+            PAID, EnumSet.noneOf(DemandeStatus.class),
+            CANCELLED, EnumSet.noneOf(DemandeStatus.class));
+
+    @Test
+    void canTransitionToMatchesTheLifecycle() {
+        for (DemandeStatus from : DemandeStatus.values()) {
+            for (DemandeStatus to : DemandeStatus.values()) {
+                assertThat(from.canTransitionTo(to))
+                        .as("%s -> %s", from, to)
+                        .isEqualTo(ALLOWED.get(from).contains(to));
+            }
+        }
+    }
+
+    @Test
+    void paymentRejectionOnlyRevertsPaidToApproved() {
+        for (DemandeStatus from : DemandeStatus.values()) {
+            for (DemandeStatus to : DemandeStatus.values()) {
+                assertThat(from.canTransitionTo(to, DemandeEventType.PAYMENT_REJECTED))
+                        .as("%s -> %s", from, to)
+                        .isEqualTo(from == PAID && to == APPROVED);
+                // Les autres causes suivent le cycle de vie des décisions
+                assertThat(from.canTransitionTo(to, DemandeEventType.STATUS_CHANGED))
+                        .as("%s -> %s", from, to)
+                        .isEqualTo(from.canTransitionTo(to));
+            }
+        }
+    }
+
+    @Test
+    void noStatusTransitionsToItselfOrBackToDraft() {
+        for (DemandeStatus status : DemandeStatus.values()) {
+            assertThat(status.canTransitionTo(status)).as(status.name()).isFalse();
+            assertThat(status.canTransitionTo(DRAFT)).as(status.name()).isFalse();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.oussama.social_service.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Avis créés avant la file de modération (schéma V9), puis migrations V10 et V11 : une approbation d'alors
+ * est publiée, et un avis resté PENDING sans score (jamais modéré ou rejeté, indiscernables) est réservé
+ * aux modérateurs.
+ */
+class AvisStatusBackfillTest {
+
+    private static final String URL = "jdbc:h2:mem:avis_backfill;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void legacyPendingAvisAreNeverAutoApproved() throws SQLException {
+        migrate("9");
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute(avis(1, "PENDING", true, "NULL"));
+            statement.execute(avis(2, "PENDING", false, "NULL"));
+            statement.execute(avis(3, "PENDING", false, "0.97"));
+
+            migrate(null);
+
+            Map<Long, String> rows = new HashMap<>();
+            try (ResultSet resultSet = statement.executeQuery(
+                    "SELECT id, status, manual_review_only FROM avis ORDER BY id")) {
+                while (resultSet.next()) {
+                    rows.put(resultSet.getLong(1), resultSet.getString(2) + "/" + resultSet.getObject(3));
+                }
+            }
+            assertThat(rows).containsExactlyInAnyOrderEntriesOf(Map.of(
+                    1L, "PUBLISHED/null",
+                    // Peut-être rejeté avant la file : exclu de la pré-classification
+                    2L, "PENDING/true",
+                    // Déjà classé par le pré-classifieur
+                    3L, "PENDING/null"));
+        }
+    }
+
+    private static void migrate(String target) {
+        var configuration = Flyway.configure()
+                .dataSource(URL, "sa", "")
+                .locations("classpath:db/migration")
+                .cleanDisabled(false);
+        if (target != null) {
+            configuration.target(target);
+            configuration.load().clean();
+        }
+        configuration.load().migrate();
+    }
+
+    private static String avis(long id, String status, boolean approved, String score) {
+        return "INSERT INTO avis (id, user_id, user_name, is_approved, is_featured, user_email, prestation_id, rating, "
+                + "status, created_at, updated_at, approved_at, classification_score) VALUES ("
+                + id + ", " + id + ", 'Employé', " + approved + ", FALSE, 'user" + id + "@example.com', 1, 4, '"
+                + status + "', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, "
+                + (approved ? "CURRENT_TIMESTAMP" : "NULL") + ", " + score + ")";
+    }
+}
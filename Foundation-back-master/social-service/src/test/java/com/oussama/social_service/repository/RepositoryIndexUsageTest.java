@@ -0,0 +1,188 @@
+package com.oussama.social_service.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Applique les migrations Flyway sur H2 (mode MySQL) et vérifie avec EXPLAIN que chaque filtre
+ * des repositories passe par un index. Ajouter ici la requête SQL équivalente à toute nouvelle
+ * méthode de repository qui filtre ou trie.
+ *
+ * Volontairement absents : les recherches LIKE '%mot%' (non indexables) et les agrégats
+ * qui lisent toute la table lors des réconciliations.
+ */
+class RepositoryIndexUsageTest {
+
+    private static final String URL = "jdbc:h2:mem:index_usage;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void migrate() throws SQLException {
+        Flyway.configure()
+                .dataSource(URL, "sa", "")
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        connection = DriverManager.getConnection(URL, "sa", "");
+    }
+
+    @AfterAll
+    static void close() throws SQLException {
+        connection.close();
+    }
+
+    static Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                // DemandeRepository
+                query("findByUserEmail", "SELECT * FROM demandes WHERE user_email = 'a@b.c'"),
+                query("findByUserEmailAndStatus",
+                        "SELECT * FROM demandes WHERE user_email = 'a@b.c' AND status = 'SUBMITTED'"),
+                query("countByUserEmailAndStatus",
+                        "SELECT COUNT(*) FROM demandes WHERE user_email = 'a@b.c' AND status = 'SUBMITTED'"),
+                query("countByStatusForUser",
+                        "SELECT status, COUNT(*) FROM demandes WHERE user_email = 'a@b.c' GROUP BY status"),
+                query("findRecentIdsByUserEmail",
+                        "SELECT id FROM demandes WHERE user_email = 'a@b.c' ORDER BY id DESC LIMIT 5"),
+                query("findByUserIdOrderByCreatedAtDesc",
+                        "SELECT * FROM demandes WHERE user_id = 1 ORDER BY created_at DESC"),
+                query("findByStatusOrderByCreatedAtDesc",
+                        "SELECT * FROM demandes WHERE status = 'APPROVED' ORDER BY created_at DESC"),
+                query("findPendingDemandes",
+                        "SELECT * FROM demandes WHERE status IN ('SUBMITTED', 'IN_REVIEW') ORDER BY created_at DESC"),
+                query("findByPrestationIdOrderByCreatedAtDesc",
+                        "SELECT * FROM demandes WHERE prestation_id = 1 ORDER BY created_at DESC"),
+                query("findByStatusAndIdGreaterThanOrderByIdAsc",
+                        "SELECT * FROM demandes WHERE status = 'APPROVED' AND id > 0 ORDER BY id LIMIT 500"),
+                query("findByPaymentReferenceIn",
+                        "SELECT * FROM demandes WHERE payment_reference IN ('PAY1-1', 'PAY1-2')"),
+                query("findByPaymentReferenceStartingWithAndIdGreaterThanOrderByIdAsc",
+                        "SELECT * FROM demandes WHERE payment_reference LIKE 'PAY20240101000000-0A1B2C3D-%' " +
+                                "AND id > 0 ORDER BY id LIMIT 500"),
+                query("findPendingDeadlines",
+                        "SELECT id, expected_processing_date, sla_stage FROM demandes " +
+                                "WHERE status IN ('SUBMITTED', 'IN_REVIEW') AND expected_processing_date IS NOT NULL"),
+                query("countUserDemandesForPrestationInYear",
+                        "SELECT COUNT(*) FROM demandes WHERE user_id = 1 AND prestation_id = 1 " +
+                                "AND created_at BETWEEN '2024-01-01 00:00:00' AND '2024-12-31 23:59:59'"),
+                query("findCreatedSince",
+                        "SELECT prestation_id, created_at FROM demandes " +
+                                "WHERE prestation_id IS NOT NULL AND created_at >= '2024-01-01 00:00:00'"),
+
+                // AvisRepository
+                query("avis.findByUserEmail", "SELECT * FROM avis WHERE user_email = 'a@b.c'"),
+                query("avis.findByStatus", "SELECT * FROM avis WHERE status = 'PENDING' ORDER BY created_at DESC"),
+                query("findByPrestationIdAndStatus",
+                        "SELECT * FROM avis WHERE prestation_id = 1 AND status = 'PUBLISHED'"),
+                query("existsByUserIdAndPrestationId",
+                        "SELECT id FROM avis WHERE user_id = 1 AND prestation_id = 1 LIMIT 1"),
+                query("existsByUserIdAndDemandeId",
+                        "SELECT id FROM avis WHERE user_id = 1 AND demande_id = 1 LIMIT 1"),
+                query("findByIsApprovedTrueOrderByCreatedAtDesc",
+                        "SELECT * FROM avis WHERE is_approved = TRUE ORDER BY created_at DESC"),
+                query("findByStatusOrderByCreatedAtAsc",
+                        "SELECT * FROM avis WHERE status = 'PENDING' ORDER BY created_at LIMIT 20"),
+                query("findByStatusAndIdNotInOrderByCreatedAtAsc",
+                        "SELECT * FROM avis WHERE status = 'PENDING' AND id NOT IN (1, 2, 3) ORDER BY created_at LIMIT 20"),
+                query("countByStatus (avis)", "SELECT COUNT(*) FROM avis WHERE status = 'PENDING'"),
+                query("findUnclassifiedIds",
+                        "SELECT id FROM avis WHERE status = 'PENDING' AND classification_score IS NULL " +
+                                "AND (manual_review_only IS NULL OR manual_review_only = FALSE)"),
+                query("findByIsFeaturedTrueAndIsApprovedTrueOrderByCreatedAtDesc",
+                        "SELECT * FROM avis WHERE is_featured = TRUE AND is_approved = TRUE ORDER BY created_at DESC"),
+                query("findByPrestationIdAndIsApprovedTrueOrderByCreatedAtDesc",
+                        "SELECT * FROM avis WHERE prestation_id = 1 AND is_approved = TRUE ORDER BY created_at DESC"),
+                query("findByUserIdOrderByCreatedAtDesc (avis)",
+                        "SELECT * FROM avis WHERE user_id = 1 ORDER BY created_at DESC"),
+                query("findByAvisTypeAndIsApprovedTrueOrderByCreatedAtDesc",
+                        "SELECT * FROM avis WHERE avis_type = 'PRESTATION' AND is_approved = TRUE ORDER BY created_at DESC"),
+                query("findByRatingAndIsApprovedTrueOrderByCreatedAtDesc",
+                        "SELECT * FROM avis WHERE rating = 5 AND is_approved = TRUE ORDER BY created_at DESC"),
+                query("findPositiveAvis",
+                        "SELECT * FROM avis WHERE is_approved = TRUE AND rating >= 4 ORDER BY created_at DESC"),
+                query("findNegativeAvis",
+                        "SELECT * FROM avis WHERE is_approved = TRUE AND rating <= 2 ORDER BY created_at DESC"),
+                query("findAvisNeedingResponse",
+                        "SELECT * FROM avis WHERE is_approved = TRUE AND admin_response IS NULL ORDER BY created_at DESC"),
+                query("countApprovedRatingsByPrestation",
+                        "SELECT prestation_id, rating, COUNT(*) FROM avis WHERE is_approved = TRUE " +
+                                "AND prestation_id IS NOT NULL AND rating IS NOT NULL GROUP BY prestation_id, rating"),
+
+                // PrestationRepository
+                query("countByIsActiveTrue", "SELECT COUNT(*) FROM prestations WHERE is_active = TRUE"),
+
+                // AttachmentRepository / AttachmentUploadRepository
+                query("findByDemandeIdOrderByUploadedAtAsc",
+                        "SELECT * FROM attachments WHERE demande_id = 1 ORDER BY uploaded_at"),
+                query("countByDemandeId", "SELECT COUNT(*) FROM attachments WHERE demande_id = 1"),
+                query("findByCreatedAtBefore",
+                        "SELECT * FROM attachment_uploads WHERE created_at < '2024-01-01 00:00:00'"),
+
+                // DemandeRollupRepository
+                query("findByBucketDateBetweenOrderByBucketDateAsc",
+                        "SELECT * FROM demande_rollups WHERE bucket_date BETWEEN '2024-01-01' AND '2024-03-31' " +
+                                "ORDER BY bucket_date"),
+                query("findByCategoryAndBucketDateBetweenOrderByBucketDateAsc",
+                        "SELECT * FROM demande_rollups WHERE category = 'SANTE' " +
+                                "AND bucket_date BETWEEN '2024-01-01' AND '2024-03-31' ORDER BY bucket_date"),
+
+                // DemandeEventRepository
+                query("findByDemandeIdOrderByIdAsc",
+                        "SELECT * FROM demande_events WHERE demande_id = 1 ORDER BY id"),
+                query("streamByUserIdOrderByIdAsc",
+                        "SELECT * FROM demande_events WHERE user_id = 1 ORDER BY id"),
+                query("streamByPrestationIdOrderByIdAsc",
+                        "SELECT * FROM demande_events WHERE prestation_id = 1 ORDER BY id"),
+
+                // NotificationOutboxRepository
+                query("findDue",
+                        "SELECT * FROM notification_outbox WHERE status = 'PENDING' " +
+                                "AND next_attempt_at <= '2024-01-01 00:00:00' ORDER BY id LIMIT 50"),
+                query("countByStatus (outbox)", "SELECT COUNT(*) FROM notification_outbox WHERE status = 'FAILED'"),
+
+                // IdempotencyRecordRepository
+                query("findByScopeAndUserKeyAndIdempotencyKey",
+                        "SELECT * FROM idempotency_keys WHERE scope = 'DEMANDE_CREATE' " +
+                                "AND user_key = 'a@b.c' AND idempotency_key = 'k1'"),
+                query("deleteExpired", "SELECT id FROM idempotency_keys WHERE expires_at < '2024-01-01 00:00:00'")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void queryUsesAnIndex(String method, String sql) throws SQLException {
+        String plan = explain(sql);
+
+        assertThat(plan)
+                .as("Plan for %s:%n%s", method, plan)
+                .doesNotContainIgnoringCase("tableScan");
+    }
+
+    private static Arguments query(String method, String sql) {
+        return Arguments.of(method, sql);
+    }
+
+    private static String explain(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+            StringBuilder plan = new StringBuilder();
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append('\n');
+            }
+            return plan.toString();
+        }
+    }
+}
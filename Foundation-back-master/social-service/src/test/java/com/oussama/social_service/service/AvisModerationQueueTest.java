@@ -0,0 +1,131 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.dto.AvisDto;
+import com.oussama.social_service.dto.ModerationBatchDto;
+import com.oussama.social_service.dto.ModerationDecisionRequest;
+import com.oussama.social_service.dto.ModerationResult;
+import com.oussama.social_service.dto.ModeratorStatsDto;
+import com.oussama.social_service.entity.Avis;
+import com.oussama.social_service.enums.AvisStatus;
+import com.oussama.social_service.mapper.SocialMapper;
+import com.oussama.social_service.repository.AvisRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AvisModerationQueueTest {
+
+    private static final Long ALICE = 10L;
+    private static final Long BOB = 20L;
+
+    @Mock
+    private AvisRepository avisRepository;
+
+    @Mock
+    private AvisService avisService;
+
+    @Mock
+    private SocialMapper socialMapper;
+
+    @BeforeEach
+    void setUp() {
+        when(socialMapper.toAvisDto(any(Avis.class)))
+                .thenAnswer(invocation -> AvisDto.builder().id(invocation.<Avis>getArgument(0).getId()).build());
+    }
+
+    @Test
+    void decisionOnAvisClaimedByAnotherModeratorIsSkipped() {
+        AvisModerationQueue queue = queue(300);
+        when(avisRepository.findByStatusOrderByCreatedAtAsc(eq(AvisStatus.PENDING), any()))
+                .thenReturn(List.of(pending(1L)));
+
+        assertThat(ids(queue.claim(ALICE, 5))).containsExactly(1L);
+
+        // L'avis réservé par Alice n'est pas proposé à Bob
+        when(avisRepository.findByStatusAndIdNotInOrderByCreatedAtAsc(eq(AvisStatus.PENDING), eq(List.of(1L)), any()))
+                .thenReturn(List.of());
+        assertThat(ids(queue.claim(BOB, 5))).isEmpty();
+
+        ModerationResult bobResult = queue.decide(BOB, reject(1L));
+        assertThat(bobResult.getRejectedIds()).isEmpty();
+        assertThat(bobResult.getSkipped()).containsEntry(1L, "Claimed by another moderator");
+        verify(avisService).moderateBatch(List.of(), List.of(), BOB);
+
+        when(avisService.moderateBatch(List.of(), List.of(1L), ALICE)).thenReturn(List.of(1L));
+        ModerationResult aliceResult = queue.decide(ALICE, reject(1L));
+        assertThat(aliceResult.getRejectedIds()).containsExactly(1L);
+        assertThat(aliceResult.getSkipped()).isEmpty();
+
+        assertThat(stats(queue, ALICE).getRejected()).isEqualTo(1L);
+        assertThat(stats(queue, BOB).getRejected()).isZero();
+    }
+
+    @Test
+    void expiredLeaseIsRefusedAndReturnsAvisToTheQueue() {
+        // Réservation de durée nulle : expirée dès l'appel suivant
+        AvisModerationQueue queue = queue(0);
+        when(avisRepository.findByStatusOrderByCreatedAtAsc(eq(AvisStatus.PENDING), any()))
+                .thenReturn(List.of(pending(1L)));
+
+        assertThat(ids(queue.claim(ALICE, 5))).containsExactly(1L);
+
+        ModerationResult result = queue.decide(ALICE, ModerationDecisionRequest.builder().approveIds(List.of(1L)).build());
+        assertThat(result.getApprovedIds()).isEmpty();
+        assertThat(result.getSkipped()).containsEntry(1L, "Not claimed or lease expired");
+        verify(avisService).moderateBatch(List.of(), List.of(), ALICE);
+
+        // Sans réservation active, l'avis est de nouveau proposé
+        assertThat(ids(queue.claim(BOB, 5))).containsExactly(1L);
+        assertThat(stats(queue, ALICE).getExpired()).isEqualTo(1L);
+        assertThat(stats(queue, ALICE).getActiveLeases()).isZero();
+    }
+
+    @Test
+    void releasedAvisCanBeClaimedByAnotherModerator() {
+        AvisModerationQueue queue = queue(300);
+        when(avisRepository.findByStatusOrderByCreatedAtAsc(eq(AvisStatus.PENDING), any()))
+                .thenReturn(List.of(pending(1L)));
+
+        queue.claim(ALICE, 5);
+        assertThat(queue.release(BOB, List.of(1L))).isZero();
+        assertThat(queue.release(ALICE, List.of(1L))).isEqualTo(1);
+
+        assertThat(ids(queue.claim(BOB, 5))).containsExactly(1L);
+        assertThat(stats(queue, ALICE).getReleased()).isEqualTo(1L);
+        assertThat(stats(queue, BOB).getActiveLeases()).isEqualTo(1);
+    }
+
+    private AvisModerationQueue queue(long leaseSeconds) {
+        return new AvisModerationQueue(avisRepository, avisService, socialMapper, leaseSeconds);
+    }
+
+    private static Avis pending(Long id) {
+        return Avis.builder().id(id).status(AvisStatus.PENDING).isApproved(false).build();
+    }
+
+    private static ModerationDecisionRequest reject(Long id) {
+        return ModerationDecisionRequest.builder().rejectIds(List.of(id)).build();
+    }
+
+    private static List<Long> ids(ModerationBatchDto batch) {
+        return batch.getAvis().stream().map(AvisDto::getId).toList();
+    }
+
+    private static ModeratorStatsDto stats(AvisModerationQueue queue, Long moderatorId) {
+        return queue.getStats().getModerators().stream()
+                .filter(moderator -> moderator.getModeratorId().equals(moderatorId))
+                .findFirst()
+                .orElseThrow();
+    }
+}
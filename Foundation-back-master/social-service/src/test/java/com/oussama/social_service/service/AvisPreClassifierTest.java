@@ -0,0 +1,92 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.enums.AvisStatus;
+import com.oussama.social_service.repository.AvisRepository;
+import com.oussama.social_service.repository.projection.ModeratedAvisRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AvisPreClassifierTest {
+
+    @Mock
+    private AvisRepository avisRepository;
+
+    @Mock
+    private AvisService avisService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AvisPreClassifier preClassifier;
+
+    @BeforeEach
+    void setUp() {
+        preClassifier = new AvisPreClassifier(avisRepository, avisService, transactionManager, 50, 60_000, 0.95, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        preClassifier.shutdown();
+    }
+
+    @Test
+    void untrainedClassifierDoesNotReloadUnscoredAvis() {
+        when(avisRepository.streamModeratedAvis(AvisStatus.PUBLISHED, AvisStatus.REJECTED)).thenReturn(Stream.empty());
+
+        assertThat(preClassifier.retrain()).isEqualTo(Map.of("approved", 0L, "rejected", 0L));
+
+        verify(avisRepository, never()).findUnclassifiedIds(any());
+    }
+
+    @Test
+    void unscoredAvisAreReloadedOnceWhenTheClassifierBecomesTrained() {
+        when(avisRepository.streamModeratedAvis(AvisStatus.PUBLISHED, AvisStatus.REJECTED))
+                .thenReturn(Stream.empty())
+                .thenAnswer(invocation -> Stream.of(row("Très bon accueil", 5, AvisStatus.PUBLISHED),
+                        row("Aucune réponse", 1, AvisStatus.REJECTED)));
+        when(avisRepository.findUnclassifiedIds(AvisStatus.PENDING)).thenReturn(List.of());
+
+        preClassifier.retrain();
+        verify(avisRepository, never()).findUnclassifiedIds(any());
+
+        preClassifier.retrain();
+        preClassifier.retrain();
+        verify(avisRepository, times(1)).findUnclassifiedIds(AvisStatus.PENDING);
+    }
+
+    private static ModeratedAvisRow row(String comment, Integer rating, AvisStatus status) {
+        return new ModeratedAvisRow() {
+            @Override
+            public String getComment() {
+                return comment;
+            }
+
+            @Override
+            public Integer getRating() {
+                return rating;
+            }
+
+            @Override
+            public AvisStatus getStatus() {
+                return status;
+            }
+        };
+    }
+}
@@ -0,0 +1,147 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.entity.Demande;
+import com.oussama.social_service.enums.DemandeEventType;
+import com.oussama.social_service.enums.DemandeStatus;
+import com.oussama.social_service.event.DemandeChangedEvent;
+import com.oussama.social_service.event.DemandeSnapshot;
+import com.oussama.social_service.repository.DemandeRepository;
+import com.oussama.social_service.repository.DemandeRollupRepository;
+import com.oussama.social_service.repository.projection.DemandeHistoryRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DemandeAnalyticsServiceTest {
+
+    @Mock
+    private DemandeRollupRepository demandeRollupRepository;
+
+    @Mock
+    private DemandeRepository demandeRepository;
+
+    @Mock
+    private PrestationCatalog prestationCatalog;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CommittedChangeTracker changeTracker;
+    private DemandeAnalyticsService analyticsService;
+
+    @BeforeEach
+    void setUp() {
+        changeTracker = new CommittedChangeTracker(transactionManager);
+        analyticsService = new DemandeAnalyticsService(demandeRollupRepository, demandeRepository,
+                prestationCatalog, changeTracker, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void demandeCreatedDuringTheHistoryReadIsCountedOnce() {
+        DemandeChangedEvent created = DemandeChangedEvent.created(snapshot(DemandeStatus.DRAFT));
+        DemandeHistoryRow row = mock(DemandeHistoryRow.class);
+        when(row.getCreatedAt()).thenReturn(LocalDateTime.now());
+        when(demandeRepository.streamHistory())
+                .thenAnswer(invocation -> {
+                    // Commitée après le début de la lecture : absente de cet historique
+                    commitConcurrently(created);
+                    return Stream.empty();
+                })
+                .thenAnswer(invocation -> Stream.of(row));
+
+        analyticsService.rebuild();
+
+        verify(demandeRollupRepository).deleteAllInBatch();
+        verify(demandeRollupRepository).addToBucket(eq(LocalDate.now()), anyString(), eq(1L), eq(0L), eq(0L),
+                eq(0L), eq(0L), eq(0L), any(), any(), any());
+        // Le delta reçu pendant la première lecture est compté par la seconde, pas en plus
+        analyticsService.flush();
+        verify(demandeRollupRepository).addToBucket(any(), anyString(), anyLong(), anyLong(), anyLong(),
+                anyLong(), anyLong(), anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void rebuildKeepsTheRollupsWhenDemandesKeepChanging() {
+        DemandeChangedEvent created = DemandeChangedEvent.created(snapshot(DemandeStatus.DRAFT));
+        when(demandeRepository.streamHistory()).thenAnswer(invocation -> {
+            commitConcurrently(created);
+            return Stream.empty();
+        });
+
+        assertThatThrownBy(() -> analyticsService.rebuild())
+                .hasMessage("Demandes changed during the rebuild, please retry");
+
+        verify(demandeRollupRepository, never()).deleteAllInBatch();
+        // Les deltas reçus restent en attente et sont écrits au prochain flush
+        analyticsService.flush();
+        verify(demandeRollupRepository).addToBucket(eq(LocalDate.now()), anyString(), eq(3L), eq(0L), eq(0L),
+                eq(0L), eq(0L), eq(0L), any(), any(), any());
+    }
+
+    @Test
+    void bankRejectionIsNotCountedAsAnotherApproval() {
+        DemandeSnapshot paid = snapshot(DemandeStatus.PAID);
+        DemandeSnapshot approved = snapshot(DemandeStatus.APPROVED);
+
+        analyticsService.onDemandeChanged(new DemandeChangedEvent(paid, approved, DemandeEventType.PAYMENT_REJECTED));
+        analyticsService.flush();
+        verify(demandeRollupRepository, never()).addToBucket(any(), anyString(), anyLong(), anyLong(), anyLong(),
+                anyLong(), anyLong(), anyLong(), any(), any(), any());
+
+        // Une décision d'approbation reste comptée
+        analyticsService.onDemandeChanged(new DemandeChangedEvent(snapshot(DemandeStatus.IN_REVIEW), approved));
+        analyticsService.flush();
+        verify(demandeRollupRepository).addToBucket(eq(LocalDate.now()), anyString(), eq(0L), eq(0L), eq(1L),
+                eq(0L), eq(0L), eq(0L), any(), eq(BigDecimal.TEN), any());
+    }
+
+    // Transaction d'un autre utilisateur : publication, commit puis delta après commit
+    private void commitConcurrently(DemandeChangedEvent event) {
+        TransactionSynchronizationManager.initSynchronization();
+        changeTracker.onDemandeChanged(event);
+        var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        analyticsService.onDemandeChanged(event);
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private static DemandeSnapshot snapshot(DemandeStatus status) {
+        return DemandeSnapshot.of(Demande.builder()
+                .id(1L)
+                .prestationId(1L)
+                .status(status)
+                .requestedAmount(BigDecimal.TEN)
+                .build());
+    }
+}
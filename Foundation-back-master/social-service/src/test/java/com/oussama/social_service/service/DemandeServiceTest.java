@@ -0,0 +1,162 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.dto.DemandeBulkStatusRequest;
+import com.oussama.social_service.dto.DemandeBulkStatusResult;
+import com.oussama.social_service.entity.Demande;
+import com.oussama.social_service.enums.DemandeEventType;
+import com.oussama.social_service.enums.DemandeStatus;
+import com.oussama.social_service.event.DemandeChangedEvent;
+import com.oussama.social_service.event.DemandesStatusBatchEvent;
+import com.oussama.social_service.mapper.SocialMapper;
+import com.oussama.social_service.repository.DemandeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DemandeServiceTest {
+
+    private static final Long ADMIN_ID = 1L;
+    private static final String ADMIN_NAME = "Admin";
+
+    @Mock
+    private DemandeRepository demandeRepository;
+
+    @Mock
+    private SocialMapper socialMapper;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EligibilityService eligibilityService;
+
+    @Mock
+    private AttachmentStorageService attachmentStorageService;
+
+    @Mock
+    private DemandeSlaMonitor demandeSlaMonitor;
+
+    @Mock
+    private SearchIndexService searchIndexService;
+
+    @Mock
+    private DemandeEventLog demandeEventLog;
+
+    private DemandeService demandeService;
+
+    @BeforeEach
+    void setUp() {
+        demandeService = new DemandeService(demandeRepository, socialMapper, eventPublisher, eligibilityService,
+                attachmentStorageService, demandeSlaMonitor, searchIndexService, demandeEventLog);
+    }
+
+    @Test
+    void bulkUpdateStatusAppliesAllowedTransitionsAndReportsTheOthers() {
+        Demande submitted = demande(1L, DemandeStatus.SUBMITTED);
+        Demande inReview = demande(2L, DemandeStatus.IN_REVIEW);
+        Demande paid = demande(3L, DemandeStatus.PAID);
+        when(demandeRepository.findAllById(List.of(1L, 2L, 3L, 99L))).thenReturn(List.of(submitted, inReview, paid));
+
+        DemandeBulkStatusResult result = demandeService.bulkUpdateStatus(DemandeBulkStatusRequest.builder()
+                .demandeIds(List.of(1L, 2L, 3L, 99L, 1L))
+                .status(DemandeStatus.APPROVED)
+                .adminComment("Campagne 2026")
+                .build(), ADMIN_ID, ADMIN_NAME);
+
+        assertThat(result.getRequested()).isEqualTo(4);
+        assertThat(result.getUpdatedIds()).containsExactly(1L, 2L);
+        assertThat(result.getSkipped()).containsExactly(
+                entry(3L, "Invalid status transition from PAID to APPROVED"),
+                entry(99L, "Demande not found"));
+
+        assertThat(submitted.getStatus()).isEqualTo(DemandeStatus.APPROVED);
+        assertThat(submitted.getProcessedBy()).isEqualTo(ADMIN_ID);
+        assertThat(submitted.getAdminComment()).isEqualTo("Campagne 2026");
+        assertThat(paid.getStatus()).isEqualTo(DemandeStatus.PAID);
+        assertThat(paid.getAdminComment()).isNull();
+        verify(demandeRepository).saveAll(List.of(submitted, inReview));
+        verify(demandeEventLog, times(2)).record(eq(DemandeEventType.STATUS_CHANGED), any(), any(),
+                eq(ADMIN_ID), eq(ADMIN_NAME), eq("Campagne 2026"));
+    }
+
+    @Test
+    void bulkUpdateStatusPublishesTheBatchBeforeTheIndividualChanges() {
+        when(demandeRepository.findAllById(List.of(1L, 2L)))
+                .thenReturn(List.of(demande(1L, DemandeStatus.SUBMITTED), demande(2L, DemandeStatus.SUBMITTED)));
+
+        demandeService.bulkUpdateStatus(DemandeBulkStatusRequest.builder()
+                .demandeIds(List.of(1L, 2L))
+                .status(DemandeStatus.REJECTED)
+                .build(), ADMIN_ID, ADMIN_NAME);
+
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(3)).publishEvent(events.capture());
+        assertThat(events.getAllValues().get(0)).isInstanceOfSatisfying(DemandesStatusBatchEvent.class, batch -> {
+            assertThat(batch.status()).isEqualTo(DemandeStatus.REJECTED);
+            assertThat(batch.demandes()).extracting("id").containsExactly(1L, 2L);
+        });
+        assertThat(events.getAllValues().subList(1, 3)).allSatisfy(event ->
+                assertThat(event).isInstanceOf(DemandeChangedEvent.class));
+    }
+
+    @Test
+    void bulkUpdateStatusWithNothingToChangePublishesNothing() {
+        when(demandeRepository.findAllById(List.of(5L))).thenReturn(List.of(demande(5L, DemandeStatus.CANCELLED)));
+
+        DemandeBulkStatusResult result = demandeService.bulkUpdateStatus(DemandeBulkStatusRequest.builder()
+                .demandeIds(List.of(5L))
+                .status(DemandeStatus.IN_REVIEW)
+                .build(), ADMIN_ID, ADMIN_NAME);
+
+        assertThat(result.getUpdatedIds()).isEmpty();
+        assertThat(result.getSkipped()).containsOnlyKeys(5L);
+        verify(demandeRepository).saveAll(List.of());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void cancelDemandeFollowsTheStateMachine() {
+        when(demandeRepository.findById(1L)).thenReturn(Optional.of(demande(1L, DemandeStatus.REJECTED)));
+
+        assertThatThrownBy(() -> demandeService.cancelDemande(1L, 7L))
+                .hasMessage("This demande cannot be cancelled");
+        verify(demandeRepository, never()).save(any());
+
+        Demande approved = demande(2L, DemandeStatus.APPROVED);
+        when(demandeRepository.findById(2L)).thenReturn(Optional.of(approved));
+        when(demandeRepository.save(approved)).thenReturn(approved);
+
+        demandeService.cancelDemande(2L, 7L);
+
+        assertThat(approved.getStatus()).isEqualTo(DemandeStatus.CANCELLED);
+        verify(demandeEventLog).record(eq(DemandeEventType.CANCELLED), any(), any(), eq(7L), any(), any());
+    }
+
+    private Demande demande(Long id, DemandeStatus status) {
+        return Demande.builder()
+                .id(id)
+                .userId(7L)
+                .userEmail("user" + id + "@example.com")
+                .prestationId(1L)
+                .status(status)
+                .build();
+    }
+}
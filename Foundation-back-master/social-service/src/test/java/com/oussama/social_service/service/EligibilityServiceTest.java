@@ -0,0 +1,165 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.entity.Demande;
+import com.oussama.social_service.entity.Prestation;
+import com.oussama.social_service.enums.DemandeStatus;
+import com.oussama.social_service.event.DemandeChangedEvent;
+import com.oussama.social_service.event.DemandeSnapshot;
+import com.oussama.social_service.repository.DemandeRepository;
+import com.oussama.social_service.repository.PrestationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EligibilityServiceTest {
+
+    private static final Long USER_ID = 7L;
+    private static final Long PRESTATION_ID = 1L;
+
+    @Mock
+    private PrestationRepository prestationRepository;
+
+    @Mock
+    private DemandeRepository demandeRepository;
+
+    private EligibilityService eligibilityService;
+
+    @BeforeEach
+    void setUp() {
+        eligibilityService = new EligibilityService(prestationRepository, demandeRepository);
+    }
+
+    @Test
+    void checkCreationEnforcesAmountBounds() {
+        givenPrestation(prestation().minAmount(new BigDecimal("100")).maxAmount(new BigDecimal("5000")).build());
+
+        assertThatCode(() -> eligibilityService.checkCreation(PRESTATION_ID, USER_ID, new BigDecimal("100")))
+                .doesNotThrowAnyException();
+        assertThatCode(() -> eligibilityService.checkCreation(PRESTATION_ID, USER_ID, new BigDecimal("5000")))
+                .doesNotThrowAnyException();
+        assertThatThrownBy(() -> eligibilityService.checkCreation(PRESTATION_ID, USER_ID, new BigDecimal("99.99")))
+                .hasMessage("Requested amount is below minimum allowed");
+        assertThatThrownBy(() -> eligibilityService.checkCreation(PRESTATION_ID, USER_ID, new BigDecimal("5000.01")))
+                .hasMessage("Requested amount exceeds maximum allowed");
+
+        // Règles compilées une seule fois
+        verify(prestationRepository, times(1)).findById(PRESTATION_ID);
+    }
+
+    @Test
+    void checkCreationRejectsInactivePrestation() {
+        givenPrestation(prestation().isActive(false).build());
+
+        assertThatThrownBy(() -> eligibilityService.checkCreation(PRESTATION_ID, USER_ID, BigDecimal.TEN))
+                .hasMessage("This prestation is not available");
+    }
+
+    @Test
+    void checkCreationAppliesCompiledCriteriaAndIgnoresFreeText() {
+        givenPrestation(prestation()
+                .eligibilityCriteria("Être salarié depuis 6 mois\namount <= 2000\ndocuments >= 2")
+                .build());
+
+        assertThatCode(() -> eligibilityService.checkCreation(PRESTATION_ID, USER_ID, new BigDecimal("2000")))
+                .doesNotThrowAnyException();
+        assertThatThrownBy(() -> eligibilityService.checkCreation(PRESTATION_ID, USER_ID, new BigDecimal("2001")))
+                .hasMessage("Eligibility criterion not met: amount <= 2000");
+
+        EligibilityRules rules = eligibilityService.getRules(PRESTATION_ID);
+        assertThatThrownBy(() -> rules.checkSubmission("cin.pdf", 0))
+                .hasMessage("Eligibility criterion not met: documents >= 2");
+        assertThatCode(() -> rules.checkSubmission("cin.pdf, ", 1)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void checkSubmissionRequiresDocumentsWhenConfigured() {
+        givenPrestation(prestation().requiresDocuments(true).build());
+        EligibilityRules rules = eligibilityService.getRules(PRESTATION_ID);
+
+        assertThatThrownBy(() -> rules.checkSubmission(" ", 0))
+                .hasMessage("Required documents must be uploaded before submission");
+        assertThatCode(() -> rules.checkSubmission(null, 1)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void yearlyQuotaIsCountedOnceThenKeptUpToDateByEvents() {
+        givenPrestation(prestation().maxRequestsPerYear(2).build());
+        when(demandeRepository.countUserDemandesForPrestationInYear(eq(USER_ID), eq(PRESTATION_ID), any(), any()))
+                .thenReturn(1L);
+
+        assertThatCode(() -> eligibilityService.checkCreation(PRESTATION_ID, USER_ID, BigDecimal.TEN))
+                .doesNotThrowAnyException();
+
+        // La demande créée est comptée par l'événement, sans relire la base
+        eligibilityService.onDemandeChanged(DemandeChangedEvent.created(demande(10L)));
+        assertThatThrownBy(() -> eligibilityService.checkCreation(PRESTATION_ID, USER_ID, BigDecimal.TEN))
+                .hasMessage("Maximum number of requests per year exceeded for this prestation");
+
+        eligibilityService.onDemandeChanged(DemandeChangedEvent.deleted(demande(10L)));
+        assertThatCode(() -> eligibilityService.checkCreation(PRESTATION_ID, USER_ID, BigDecimal.TEN))
+                .doesNotThrowAnyException();
+
+        verify(demandeRepository, times(1))
+                .countUserDemandesForPrestationInYear(eq(USER_ID), eq(PRESTATION_ID), any(), any());
+    }
+
+    @Test
+    void prestationWithoutQuotaNeverCountsDemandes() {
+        givenPrestation(prestation().build());
+
+        eligibilityService.checkCreation(PRESTATION_ID, USER_ID, BigDecimal.TEN);
+
+        verify(demandeRepository, never()).countUserDemandesForPrestationInYear(any(), any(), any(), any());
+    }
+
+    @Test
+    void evictedRulesAreRecompiled() {
+        givenPrestation(prestation().build());
+        eligibilityService.getRules(PRESTATION_ID);
+
+        // Hors transaction, l'éviction est immédiate
+        eligibilityService.evictAfterCommit(PRESTATION_ID);
+        eligibilityService.getRules(PRESTATION_ID);
+
+        verify(prestationRepository, times(2)).findById(PRESTATION_ID);
+    }
+
+    private void givenPrestation(Prestation prestation) {
+        when(prestationRepository.findById(PRESTATION_ID)).thenReturn(Optional.of(prestation));
+    }
+
+    private Prestation.PrestationBuilder prestation() {
+        return Prestation.builder()
+                .id(PRESTATION_ID)
+                .title("Aide au logement")
+                .isActive(true)
+                .requiresDocuments(false)
+                .updatedAt(LocalDateTime.now());
+    }
+
+    private DemandeSnapshot demande(Long id) {
+        return DemandeSnapshot.of(Demande.builder()
+                .id(id)
+                .userId(USER_ID)
+                .prestationId(PRESTATION_ID)
+                .status(DemandeStatus.DRAFT)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+}
@@ -0,0 +1,182 @@
+package com.oussama.social_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oussama.social_service.entity.IdempotencyRecord;
+import com.oussama.social_service.repository.IdempotencyRecordRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+
+/**
+ * Clés stockées dans la vraie table idempotency_keys (migrations Flyway sur H2 en mode MySQL) : l'index
+ * unique et les rollbacks sont ceux de la base, le repository est servi par la même table.
+ */
+@ExtendWith(MockitoExtension.class)
+class IdempotencyKeyStoreTest {
+
+    private static final String URL = "jdbc:h2:mem:idempotency;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    private static final String SCOPE = "DEMANDE_CREATE";
+    private static final String USER = "user@example.com";
+
+    private static DriverManagerDataSource dataSource;
+
+    @Mock
+    private IdempotencyRecordRepository recordRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    record Request(String title) {
+    }
+
+    record Response(Long id, String title) {
+    }
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(URL, "sa", "")
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        dataSource = new DriverManagerDataSource(URL, "sa", "");
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM idempotency_keys");
+        transactionManager = new DataSourceTransactionManager(dataSource);
+
+        lenient().when(recordRepository.findByScopeAndUserKeyAndIdempotencyKey(anyString(), anyString(), anyString()))
+                .thenAnswer(invocation -> jdbcTemplate.query(
+                        "SELECT * FROM idempotency_keys WHERE scope = ? AND user_key = ? AND idempotency_key = ?",
+                        new BeanPropertyRowMapper<>(IdempotencyRecord.class),
+                        invocation.getArguments()).stream().findFirst());
+        lenient().doAnswer(invocation -> jdbcTemplate.update("DELETE FROM idempotency_keys WHERE id = ?",
+                (Object) invocation.getArgument(0))).when(recordRepository).deleteById(anyLong());
+        lenient().when(recordRepository.deleteExpired(any())).thenAnswer(invocation -> jdbcTemplate.update(
+                "DELETE FROM idempotency_keys WHERE expires_at < ?", Timestamp.valueOf(invocation.<LocalDateTime>getArgument(0))));
+    }
+
+    @Test
+    void repeatedRequestReplaysTheOriginalResponse() {
+        IdempotencyKeyStore store = store();
+        IdempotencyKeyStore.Result<Response> first = create(store, "key-1", "Aide scolaire");
+        IdempotencyKeyStore.Result<Response> cached = create(store, "key-1", "Aide scolaire");
+        // Une autre instance (autre nœud, ou cache vidé) rejoue depuis la table
+        IdempotencyKeyStore.Result<Response> stored = create(store(), "key-1", "Aide scolaire");
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(cached.replayed()).isTrue();
+        assertThat(stored.replayed()).isTrue();
+        assertThat(cached.response()).isEqualTo(first.response());
+        assertThat(stored.response()).isEqualTo(first.response());
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void keyReusedForADifferentRequestIsRejected() {
+        IdempotencyKeyStore store = store();
+        create(store, "key-1", "Aide scolaire");
+
+        assertStatus(() -> create(store, "key-1", "Prime de naissance"), HttpStatus.UNPROCESSABLE_ENTITY);
+        assertStatus(() -> create(store(), "key-1", "Prime de naissance"), HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void keyStillBeingProcessedIsAConflict() throws Exception {
+        // Clé visible sans réponse : la requête d'origine n'a pas encore terminé
+        insertKey("key-1", "Aide scolaire", null, LocalDateTime.now().plusHours(1));
+
+        assertStatus(() -> create(store(), "key-1", "Aide scolaire"), HttpStatus.CONFLICT);
+        assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    void expiredKeyIsReclaimed() throws Exception {
+        insertKey("key-1", "Prime de naissance", "{\"id\":1,\"title\":\"Prime de naissance\"}",
+                LocalDateTime.now().minusMinutes(1));
+
+        IdempotencyKeyStore.Result<Response> result = create(store(), "key-1", "Aide scolaire");
+
+        assertThat(result.replayed()).isFalse();
+        assertThat(result.response().title()).isEqualTo("Aide scolaire");
+        assertThat(executions).hasValue(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT response_body FROM idempotency_keys WHERE idempotency_key = ?",
+                String.class, "key-1")).contains("Aide scolaire");
+    }
+
+    @Test
+    void rolledBackAttemptFreesTheKey() {
+        IdempotencyKeyStore store = store();
+        assertThatThrownBy(() -> store.execute(SCOPE, USER, "key-1", new Request("Aide scolaire"), Response.class,
+                () -> {
+                    executions.incrementAndGet();
+                    throw new RuntimeException("Prestation not found");
+                }))
+                .hasMessage("Prestation not found");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_keys", Integer.class)).isZero();
+
+        IdempotencyKeyStore.Result<Response> retry = create(store, "key-1", "Aide scolaire");
+
+        assertThat(retry.replayed()).isFalse();
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void invalidKeyIsABadRequest() {
+        assertStatus(() -> create(store(), " ", "Aide scolaire"), HttpStatus.BAD_REQUEST);
+        assertStatus(() -> create(store(), "k".repeat(129), "Aide scolaire"), HttpStatus.BAD_REQUEST);
+    }
+
+    private IdempotencyKeyStore store() {
+        return new IdempotencyKeyStore(recordRepository, jdbcTemplate, objectMapper, transactionManager, 24, 100);
+    }
+
+    private IdempotencyKeyStore.Result<Response> create(IdempotencyKeyStore store, String key, String title) {
+        return store.execute(SCOPE, USER, key, new Request(title), Response.class,
+                () -> new Response((long) executions.incrementAndGet(), title));
+    }
+
+    private void insertKey(String key, String title, String responseBody, LocalDateTime expiresAt) throws Exception {
+        // Empreinte calculée comme par le store, à partir de la requête sérialisée
+        String requestHash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest(objectMapper.writeValueAsBytes(new Request(title))));
+        jdbcTemplate.update("INSERT INTO idempotency_keys (scope, user_key, idempotency_key, request_hash, "
+                        + "response_body, created_at, expires_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                SCOPE, USER, key, requestHash, responseBody,
+                Timestamp.valueOf(expiresAt.minusHours(24)), Timestamp.valueOf(expiresAt));
+    }
+
+    private static void assertStatus(Runnable call, HttpStatus status) {
+        assertThatThrownBy(call::run).isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatusCode()).isEqualTo(status));
+    }
+}
@@ -0,0 +1,140 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.entity.Prestation;
+import com.oussama.social_service.enums.DemandeStatus;
+import com.oussama.social_service.event.DemandeChangedEvent;
+import com.oussama.social_service.event.DemandeSnapshot;
+import com.oussama.social_service.event.DemandesStatusBatchEvent;
+import com.oussama.social_service.repository.PrestationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationOutboxTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PrestationRepository prestationRepository;
+
+    private NotificationOutbox notificationOutbox;
+
+    @BeforeEach
+    void setUp() {
+        notificationOutbox = new NotificationOutbox(jdbcTemplate, new PrestationCatalog(prestationRepository));
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void bulkStatusChangeSendsOneMessagePerRecipient() {
+        when(prestationRepository.findAll()).thenReturn(List.of(
+                Prestation.builder().id(1L).title("Aide au logement").build(),
+                Prestation.builder().id(2L).title("Bourse scolaire").build()));
+        DemandeSnapshot first = approved(1L, "a@example.com", 1L);
+        DemandeSnapshot second = approved(2L, "a@example.com", 2L);
+        DemandeSnapshot third = approved(3L, "b@example.com", 1L);
+
+        // Même ordre que DemandeService.bulkUpdateStatus : le lot, puis les changements individuels
+        notificationOutbox.onDemandesStatusBatch(new DemandesStatusBatchEvent(DemandeStatus.APPROVED, "OK",
+                List.of(first, second, third)));
+        for (DemandeSnapshot after : List.of(first, second, third)) {
+            notificationOutbox.onDemandeChanged(new DemandeChangedEvent(submitted(after), after));
+        }
+        commit();
+
+        List<Object> messages = insertedMessages();
+        assertThat(messages).extracting("recipient").containsExactly("a@example.com", "b@example.com");
+        assertThat(messages).extracting("aggregateType")
+                .containsExactly(NotificationOutbox.DEMANDE_BATCH, NotificationOutbox.DEMANDE);
+        assertThat(messages.get(0)).extracting("html").asString()
+                .contains("Aide au logement", "Bourse scolaire", "APPROVED");
+    }
+
+    @Test
+    void individualStatusChangeIsStillNotified() {
+        DemandeSnapshot after = approved(4L, "c@example.com", 9L);
+
+        notificationOutbox.onDemandeChanged(new DemandeChangedEvent(submitted(after), after));
+        commit();
+
+        assertThat(insertedMessages()).extracting("aggregateId").containsExactly(4L);
+    }
+
+    @Test
+    void bankRejectionIsNotNotifiedAsAnApproval() {
+        DemandeSnapshot reverted = approved(6L, "e@example.com", 9L);
+
+        notificationOutbox.onDemandeChanged(new DemandeChangedEvent(
+                snapshot(6L, "e@example.com", 9L, DemandeStatus.PAID), reverted));
+        commit();
+
+        List<Object> messages = insertedMessages();
+        assertThat(messages).extracting("subject").containsExactly("Your payment could not be completed");
+        assertThat(messages.get(0)).extracting("html").asString().doesNotContain("APPROVED");
+    }
+
+    @Test
+    void unnotifiedBatchStatusEnqueuesNothing() {
+        DemandeSnapshot cancelled = snapshot(5L, "d@example.com", 1L, DemandeStatus.CANCELLED);
+
+        notificationOutbox.onDemandesStatusBatch(new DemandesStatusBatchEvent(DemandeStatus.CANCELLED, null,
+                List.of(cancelled)));
+        commit();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(Collection.class), anyInt(), any());
+    }
+
+    private void commit() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.beforeCommit(false));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<Object> insertedMessages() {
+        ArgumentCaptor<Collection> batch = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture(), anyInt(), any());
+        return List.copyOf(batch.getValue());
+    }
+
+    private DemandeSnapshot approved(Long id, String userEmail, Long prestationId) {
+        return snapshot(id, userEmail, prestationId, DemandeStatus.APPROVED);
+    }
+
+    private DemandeSnapshot submitted(DemandeSnapshot after) {
+        return snapshot(after.id(), after.userEmail(), after.prestationId(), DemandeStatus.SUBMITTED);
+    }
+
+    private DemandeSnapshot snapshot(Long id, String userEmail, Long prestationId, DemandeStatus status) {
+        return new DemandeSnapshot(id, 7L, userEmail, prestationId, status, null, null, null, null, null,
+                null, null, null, null, null);
+    }
+}
@@ -0,0 +1,144 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.client.NotificationClient;
+import com.oussama.social_service.entity.NotificationOutboxMessage;
+import com.oussama.social_service.enums.OutboxStatus;
+import com.oussama.social_service.repository.NotificationOutboxRepository;
+import feign.FeignException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationRelayTest {
+
+    private static final long BACKOFF_MS = 1_000;
+    private static final long MAX_BACKOFF_MS = 3_000;
+    private static final long CLAIM_MS = 60_000;
+
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+
+    @Mock
+    private NotificationClient notificationClient;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationRelay relay;
+    private NotificationOutboxMessage message;
+
+    @BeforeEach
+    void setUp() {
+        relay = new NotificationRelay(outboxRepository, notificationClient, transactionManager,
+                10, 4, BACKOFF_MS, MAX_BACKOFF_MS, CLAIM_MS);
+        message = NotificationOutboxMessage.builder()
+                .id(1L)
+                .idempotencyKey("DEMANDE-1-APPROVED")
+                .recipient("karim@example.com")
+                .subject("Demande approuvée")
+                .html("<p>Bonne nouvelle</p>")
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+        when(outboxRepository.findDue(eq(OutboxStatus.PENDING), any(), any())).thenReturn(List.of(message));
+        when(outboxRepository.findAllById(List.of(1L))).thenReturn(List.of(message));
+    }
+
+    @Test
+    void messageIsClaimedBeforeSendingAndMarkedSentAfterwards() {
+        LocalDateTime start = LocalDateTime.now();
+        doAnswer(invocation -> {
+            // Pendant l'envoi, hors transaction, le message est réservé : essai compté, reprise repoussée
+            assertThat(message.getAttempts()).isEqualTo(1);
+            assertThat(message.getNextAttemptAt()).isAfterOrEqualTo(start.plusNanos(CLAIM_MS * 1_000_000));
+            return null;
+        }).when(notificationClient).sendEmail(eq("DEMANDE-1-APPROVED"), any());
+
+        relay.relay();
+
+        assertThat(message.getStatus()).isEqualTo(OutboxStatus.SENT);
+        assertThat(message.getSentAt()).isNotNull();
+        assertThat(message.getLastError()).isNull();
+    }
+
+    @Test
+    void failuresAreRetriedWithDoublingCappedBackoffThenAbandoned() {
+        doThrow(new RuntimeException("Connection refused")).when(notificationClient).sendEmail(any(), any());
+
+        long[] expectedBackoffs = {1_000, 2_000, 3_000};
+        for (long expected : expectedBackoffs) {
+            LocalDateTime before = LocalDateTime.now();
+            relay.relay();
+            LocalDateTime after = LocalDateTime.now();
+
+            assertThat(message.getStatus()).isEqualTo(OutboxStatus.PENDING);
+            assertThat(message.getLastError()).isEqualTo("Connection refused");
+            assertThat(message.getNextAttemptAt())
+                    .isBetween(before.plusNanos(expected * 1_000_000), after.plusNanos(expected * 1_000_000));
+        }
+
+        relay.relay();
+        assertThat(message.getAttempts()).isEqualTo(4);
+        assertThat(message.getStatus()).isEqualTo(OutboxStatus.FAILED);
+    }
+
+    @Test
+    void clientErrorIsAbandonedWithoutRetry() {
+        doThrow(feignError(400)).when(notificationClient).sendEmail(any(), any());
+
+        relay.relay();
+
+        assertThat(message.getAttempts()).isEqualTo(1);
+        assertThat(message.getStatus()).isEqualTo(OutboxStatus.FAILED);
+    }
+
+    @Test
+    void throttlingAndServerErrorsAreRetried() {
+        doThrow(feignError(429), feignError(503)).when(notificationClient).sendEmail(any(), any());
+
+        relay.relay();
+        assertThat(message.getStatus()).isEqualTo(OutboxStatus.PENDING);
+
+        relay.relay();
+        assertThat(message.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(message.getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void outcomeIsDroppedWhenTheMessageWasQueuedAgainDuringTheSend() {
+        doAnswer(invocation -> {
+            // Remise en file par un administrateur pendant l'appel
+            message.setAttempts(0);
+            return null;
+        }).when(notificationClient).sendEmail(any(), any());
+
+        relay.relay();
+
+        assertThat(message.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(message.getSentAt()).isNull();
+        verify(notificationClient).sendEmail(eq("DEMANDE-1-APPROVED"), any());
+    }
+
+    private static FeignException feignError(int status) {
+        FeignException error = mock(FeignException.class);
+        when(error.status()).thenReturn(status);
+        return error;
+    }
+}
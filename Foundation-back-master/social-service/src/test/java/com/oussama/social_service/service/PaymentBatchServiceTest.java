@@ -0,0 +1,231 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.dto.PaymentBatchDto;
+import com.oussama.social_service.dto.PaymentReconciliationResult;
+import com.oussama.social_service.entity.Demande;
+import com.oussama.social_service.enums.DemandeEventType;
+import com.oussama.social_service.enums.DemandeStatus;
+import com.oussama.social_service.mapper.SocialMapper;
+import com.oussama.social_service.repository.DemandeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Aller-retour export / retour bancaire avec le vrai DemandeService, sur un repository simulé en mémoire.
+ */
+@ExtendWith(MockitoExtension.class)
+class PaymentBatchServiceTest {
+
+    private static final Long ADMIN_ID = 1L;
+    private static final String ADMIN_NAME = "Admin";
+
+    @TempDir
+    Path exportDir;
+
+    @Mock
+    private DemandeRepository demandeRepository;
+
+    @Mock
+    private SocialMapper socialMapper;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EligibilityService eligibilityService;
+
+    @Mock
+    private AttachmentStorageService attachmentStorageService;
+
+    @Mock
+    private DemandeSlaMonitor demandeSlaMonitor;
+
+    @Mock
+    private SearchIndexService searchIndexService;
+
+    @Mock
+    private DemandeEventLog demandeEventLog;
+
+    private PaymentBatchService paymentBatchService;
+
+    // Demandes en base, par identifiant croissant
+    private List<Demande> demandes;
+
+    @BeforeEach
+    void setUp() {
+        DemandeService demandeService = new DemandeService(demandeRepository, socialMapper, eventPublisher,
+                eligibilityService, attachmentStorageService, demandeSlaMonitor, searchIndexService, demandeEventLog);
+        // Tranches d'une demande : le découpage est parcouru à chaque étape
+        paymentBatchService = new PaymentBatchService(demandeService, exportDir.toString(), 1);
+        demandes = List.of(
+                demande(1L, DemandeStatus.APPROVED, new BigDecimal("100.00"), new BigDecimal("80.00")),
+                demande(2L, DemandeStatus.APPROVED, new BigDecimal("250.00"), null),
+                demande(3L, DemandeStatus.SUBMITTED, new BigDecimal("40.00"), null));
+    }
+
+    @Test
+    void exportedFileIsReconciledAndRebuiltFromTheDatabase() throws IOException {
+        givenRepositoryQueries();
+
+        PaymentBatchDto batch = paymentBatchService.exportApproved(ADMIN_ID, ADMIN_NAME);
+
+        String batchId = batch.getBatchId();
+        assertThat(batchId).matches("PAY\\d{14}-[0-9A-F]{8}");
+        assertThat(batch.getDemandes()).isEqualTo(2);
+        assertThat(batch.getTotalAmount()).isEqualByComparingTo("330.00");
+        List<String> exported = Files.readAllLines(exportDir.resolve(batch.getFileName()));
+        assertThat(exported).containsExactly(
+                "payment_reference,demande_id,employee_id,beneficiary_name,beneficiary_email,amount",
+                batchId + "-1,1,E1,Employé 1,user1@example.com,80.00",
+                batchId + "-2,2,E2,Employé 2,user2@example.com,250.00");
+        assertThat(demandes.get(2).getStatus()).isEqualTo(DemandeStatus.SUBMITTED);
+
+        // Retour de la banque : premier virement accepté, second rejeté, une référence inconnue
+        String statusFile = "reference,status,reason\n"
+                + batchId + "-1,ACSC\n"
+                + batchId + "-2,RJCT,Compte clôturé\n"
+                + "PAY20240101000000-9,OK\n"
+                + "ligne illisible\n";
+        PaymentReconciliationResult result = paymentBatchService.reconcile(
+                new ByteArrayInputStream(statusFile.getBytes(StandardCharsets.UTF_8)), ADMIN_ID, ADMIN_NAME);
+
+        assertThat(result.getConfirmed()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(1);
+        assertThat(result.getUnmatchedReferences()).containsExactly("PAY20240101000000-9");
+        assertThat(result.getInvalidLines()).isEqualTo(1);
+        Demande rejected = demandes.get(1);
+        assertThat(demandes.get(0).getStatus()).isEqualTo(DemandeStatus.PAID);
+        assertThat(rejected.getStatus()).isEqualTo(DemandeStatus.APPROVED);
+        assertThat(rejected.getPaymentReference()).isNull();
+        assertThat(rejected.getAdminComment()).isEqualTo("Payment rejected by the bank: Compte clôturé");
+        verify(demandeEventLog).record(eq(DemandeEventType.PAYMENT_REJECTED), any(), any(),
+                eq(ADMIN_ID), eq(ADMIN_NAME), anyString());
+
+        // Fichier perdu : reconstruit depuis les références du lot, sans le paiement rejeté
+        Files.delete(exportDir.resolve(batch.getFileName()));
+        paymentBatchService.getExportFile(batchId);
+        assertThat(Files.readAllLines(exportDir.resolve(batch.getFileName()))).containsExactly(
+                "payment_reference,demande_id,employee_id,beneficiary_name,beneficiary_email,amount",
+                batchId + "-1,1,E1,Employé 1,user1@example.com,80.00");
+
+        // Le paiement rejeté est repris par le lot suivant, sous un autre identifiant
+        PaymentBatchDto next = paymentBatchService.exportApproved(ADMIN_ID, ADMIN_NAME);
+        assertThat(next.getBatchId()).isNotEqualTo(batchId);
+        assertThat(next.getDemandes()).isEqualTo(1);
+        assertThat(rejected.getStatus()).isEqualTo(DemandeStatus.PAID);
+        assertThat(rejected.getPaymentReference()).isEqualTo(next.getBatchId() + "-2");
+    }
+
+    @Test
+    void contradictoryStatusFileIsRefusedBeforeAnyChange() {
+        givenExportQueries();
+        String batchId = paymentBatchService.exportApproved(ADMIN_ID, ADMIN_NAME).getBatchId();
+
+        // Tranches d'une ligne : sans lecture préalable, la première serait déjà appliquée
+        String statusFile = batchId + "-1,ACSC\n"
+                + batchId + "-2,RJCT\n"
+                + batchId + "-1,RJCT,Compte clôturé\n";
+        assertThatThrownBy(() -> paymentBatchService.reconcile(
+                new ByteArrayInputStream(statusFile.getBytes(StandardCharsets.UTF_8)), ADMIN_ID, ADMIN_NAME))
+                .hasMessage("Bank status file lists payment " + batchId + "-1 as both accepted and rejected");
+
+        assertThat(demandes.get(0).getStatus()).isEqualTo(DemandeStatus.PAID);
+        assertThat(demandes.get(1).getStatus()).isEqualTo(DemandeStatus.PAID);
+        verify(demandeEventLog, never()).record(eq(DemandeEventType.PAYMENT_REJECTED), any(), any(),
+                any(), any(), any());
+    }
+
+    @Test
+    void repeatedRejectionIsAppliedOnce() {
+        givenRepositoryQueries();
+        String batchId = paymentBatchService.exportApproved(ADMIN_ID, ADMIN_NAME).getBatchId();
+
+        String statusFile = batchId + "-2,RJCT,Compte clôturé\n"
+                + batchId + "-2,RJCT,Compte clôturé\n";
+        PaymentReconciliationResult result = paymentBatchService.reconcile(
+                new ByteArrayInputStream(statusFile.getBytes(StandardCharsets.UTF_8)), ADMIN_ID, ADMIN_NAME);
+
+        assertThat(result.getRejected()).isEqualTo(1);
+        assertThat(result.getUnmatchedReferences()).isEmpty();
+        assertThat(demandes.get(1).getStatus()).isEqualTo(DemandeStatus.APPROVED);
+        verify(demandeEventLog).record(eq(DemandeEventType.PAYMENT_REJECTED), any(), any(),
+                eq(ADMIN_ID), eq(ADMIN_NAME), anyString());
+    }
+
+    @Test
+    void unknownBatchIsNotFound() {
+        assertThatThrownBy(() -> paymentBatchService.getExportFile("../../etc/passwd"))
+                .hasMessage("Payment batch not found: ../../etc/passwd");
+        // Aucune demande sous ce préfixe (réponse par défaut du repository)
+        assertThatThrownBy(() -> paymentBatchService.getExportFile("PAY20240101000000-0A1B2C3D"))
+                .hasMessage("Payment batch not found: PAY20240101000000-0A1B2C3D");
+    }
+
+    private void givenExportQueries() {
+        when(demandeRepository.findByStatusAndIdGreaterThanOrderByIdAsc(any(), any(), any())).thenAnswer(invocation -> {
+            DemandeStatus status = invocation.getArgument(0);
+            return page(demande -> demande.getStatus() == status, invocation.getArgument(1), invocation.getArgument(2));
+        });
+        when(demandeRepository.findByPaymentReferenceStartingWithAndIdGreaterThanOrderByIdAsc(any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    String prefix = invocation.getArgument(0);
+                    return page(demande -> demande.getPaymentReference() != null
+                                    && demande.getPaymentReference().startsWith(prefix),
+                            invocation.getArgument(1), invocation.getArgument(2));
+                });
+    }
+
+    private void givenRepositoryQueries() {
+        givenExportQueries();
+        when(demandeRepository.findByPaymentReferenceIn(any())).thenAnswer(invocation -> {
+            Collection<String> references = invocation.getArgument(0);
+            return demandes.stream().filter(demande -> references.contains(demande.getPaymentReference())).toList();
+        });
+    }
+
+    private List<Demande> page(Predicate<Demande> filter, Long afterId, Pageable pageable) {
+        return demandes.stream()
+                .filter(demande -> demande.getId() > afterId && filter.test(demande))
+                .limit(pageable.getPageSize())
+                .toList();
+    }
+
+    private static Demande demande(Long id, DemandeStatus status, BigDecimal requested, BigDecimal approved) {
+        return Demande.builder()
+                .id(id)
+                .userId(id)
+                .employeeId("E" + id)
+                .userName("Employé " + id)
+                .userEmail("user" + id + "@example.com")
+                .prestationId(1L)
+                .status(status)
+                .requestedAmount(requested)
+                .approvedAmount(approved)
+                .build();
+    }
+}
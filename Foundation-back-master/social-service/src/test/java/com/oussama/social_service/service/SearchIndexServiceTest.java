@@ -0,0 +1,120 @@
+package com.oussama.social_service.service;
+
+import com.oussama.social_service.enums.AvisStatus;
+import com.oussama.social_service.enums.DemandeStatus;
+import com.oussama.social_service.event.AvisChangedEvent;
+import com.oussama.social_service.event.AvisSnapshot;
+import com.oussama.social_service.event.DemandeChangedEvent;
+import com.oussama.social_service.event.DemandeSnapshot;
+import com.oussama.social_service.repository.AvisRepository;
+import com.oussama.social_service.repository.DemandeRepository;
+import com.oussama.social_service.repository.projection.DemandeSearchRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SearchIndexServiceTest {
+
+    @Mock
+    private DemandeRepository demandeRepository;
+
+    @Mock
+    private AvisRepository avisRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SearchIndexService searchIndexService;
+
+    @BeforeEach
+    void setUp() {
+        searchIndexService = new SearchIndexService(demandeRepository, avisRepository, transactionManager);
+    }
+
+    @Test
+    void demandeChangesUpdateTheIndex() {
+        DemandeSnapshot created = demande(1L, "Loyer impayé");
+        searchIndexService.onDemandeChanged(DemandeChangedEvent.created(created));
+        assertThat(searchIndexService.searchDemandes("loyer")).containsExactly(1L);
+
+        DemandeSnapshot updated = demande(1L, "Frais de scolarité");
+        searchIndexService.onDemandeChanged(new DemandeChangedEvent(created, updated));
+        assertThat(searchIndexService.searchDemandes("loyer")).isEmpty();
+        assertThat(searchIndexService.searchDemandes("scolar")).containsExactly(1L);
+
+        searchIndexService.onDemandeChanged(DemandeChangedEvent.deleted(updated));
+        assertThat(searchIndexService.searchDemandes("scolar")).isEmpty();
+    }
+
+    @Test
+    void onlyApprovedAvisAreSearchable() {
+        AvisSnapshot pending = avis(5L, AvisStatus.PENDING, false);
+        searchIndexService.onAvisChanged(AvisChangedEvent.created(pending));
+        assertThat(searchIndexService.searchAvis("accueil")).isEmpty();
+
+        AvisSnapshot published = avis(5L, AvisStatus.PUBLISHED, true);
+        searchIndexService.onAvisChanged(new AvisChangedEvent(pending, published));
+        assertThat(searchIndexService.searchAvis("accueil chal")).containsExactly(5L);
+
+        searchIndexService.onAvisChanged(new AvisChangedEvent(published, avis(5L, AvisStatus.REJECTED, false)));
+        assertThat(searchIndexService.searchAvis("accueil")).isEmpty();
+    }
+
+    @Test
+    void changesReceivedDuringRebuildAreReplayedOnTheNewIndex() {
+        when(demandeRepository.streamSearchFields()).thenAnswer(invocation -> {
+            // Demande créée pendant la lecture : absente des lignes chargées
+            searchIndexService.onDemandeChanged(DemandeChangedEvent.created(demande(2L, "Naissance")));
+            return Stream.of(row(1L, "Mariage"));
+        });
+        when(avisRepository.streamApprovedSearchFields()).thenReturn(Stream.empty());
+
+        searchIndexService.rebuild();
+
+        assertThat(searchIndexService.searchDemandes("mariage")).containsExactly(1L);
+        assertThat(searchIndexService.searchDemandes("naissance")).containsExactly(2L);
+        assertThat(searchIndexService.getStats()).containsEntry("demandes", 2);
+    }
+
+    private static DemandeSnapshot demande(Long id, String justification) {
+        return new DemandeSnapshot(id, 7L, "karim@example.com", 1L, DemandeStatus.DRAFT, null, null, null, null,
+                null, null, null, "Karim", justification, null);
+    }
+
+    private static AvisSnapshot avis(Long id, AvisStatus status, boolean approved) {
+        return new AvisSnapshot(id, 7L, 1L, 5, status, approved, null, "Karim", "Accueil chaleureux", "karim@example.com");
+    }
+
+    private static DemandeSearchRow row(Long id, String justification) {
+        return new DemandeSearchRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getUserName() {
+                return "Karim";
+            }
+
+            @Override
+            public String getUserEmail() {
+                return "karim@example.com";
+            }
+
+            @Override
+            public String getJustification() {
+                return justification;
+            }
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package com.oussama.social_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextIndexTest {
+
+    @Test
+    void everyQueryWordIsMatchedAsAPrefixIgnoringAccentsAndCase() {
+        TextIndex index = new TextIndex();
+        index.put(1L, "Demande de remboursement", "Élodie Martin");
+        index.put(2L, "Demande d'aide au logement", "Cœur Dupont");
+        index.put(3L, "Remboursement des frais médicaux", null);
+
+        assertThat(index.search("dem rembours")).containsExactly(1L);
+        assertThat(index.search("REMBOURS")).containsExactly(3L, 1L);
+        assertThat(index.search("elo")).containsExactly(1L);
+        assertThat(index.search("coeur")).containsExactly(2L);
+        assertThat(index.search("medicaux")).containsExactly(3L);
+        assertThat(index.search("dem inconnu")).isEmpty();
+    }
+
+    @Test
+    void tooShortQueryWordsAreIgnored() {
+        TextIndex index = new TextIndex();
+        index.put(1L, "Demande de remboursement");
+
+        assertThat(index.search("d")).isEmpty();
+        assertThat(index.search("d rem")).containsExactly(1L);
+    }
+
+    @Test
+    void putReplacesTheTermsOfADocumentAndRemoveDropsUnusedTerms() {
+        TextIndex index = new TextIndex();
+        index.put(1L, "Aide au logement");
+        index.put(2L, "Aide scolaire");
+
+        index.put(1L, "Transport");
+        assertThat(index.search("logement")).isEmpty();
+        assertThat(index.search("transport")).containsExactly(1L);
+        assertThat(index.search("aide")).containsExactly(2L);
+
+        index.remove(2L);
+        assertThat(index.search("aide")).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.termCount()).isEqualTo(1);
+    }
+
+    @Test
+    void foldingDropsAccentsCaseAndLigatures() {
+        assertThat(TextFolding.terms("  L'Œuvre sociale, été 2024 ! ")).containsExactly("l", "oeuvre", "sociale", "ete", "2024");
+        assertThat(TextFolding.terms(" ")).isEmpty();
+    }
+}
@@ -0,0 +1,127 @@
+package com.oussama.social_service.service.impl;
+
+import com.oussama.social_service.dto.AvisDto;
+import com.oussama.social_service.dto.DemandeDto;
+import com.oussama.social_service.dto.PageResponse;
+import com.oussama.social_service.entity.Avis;
+import com.oussama.social_service.entity.Demande;
+import com.oussama.social_service.entity.Prestation;
+import com.oussama.social_service.enums.AvisStatus;
+import com.oussama.social_service.enums.DemandeStatus;
+import com.oussama.social_service.repository.AvisRepository;
+import com.oussama.social_service.repository.DemandeRepository;
+import com.oussama.social_service.repository.PrestationRepository;
+import com.oussama.social_service.service.DemandeEventLog;
+import com.oussama.social_service.service.PrestationCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SocialServiceImplTest {
+
+    private static final String USER_EMAIL = "user@example.com";
+
+    @Mock
+    private PrestationRepository prestationRepository;
+
+    @Mock
+    private DemandeRepository demandeRepository;
+
+    @Mock
+    private AvisRepository avisRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DemandeEventLog demandeEventLog;
+
+    private SocialServiceImpl socialService;
+
+    @BeforeEach
+    void setUp() {
+        PrestationCatalog prestationCatalog = new PrestationCatalog(prestationRepository);
+        socialService = new SocialServiceImpl(demandeRepository, avisRepository, prestationCatalog, eventPublisher, demandeEventLog);
+    }
+
+    @Test
+    void getUserDemandesResolvesTitlesFromTheCatalog() {
+        // 50 demandes réparties sur 5 prestations
+        List<Demande> demandes = IntStream.range(0, 50)
+                .mapToObj(i -> Demande.builder()
+                        .id((long) i)
+                        .userEmail(USER_EMAIL)
+                        .prestationId((long) (i % 5) + 1)
+                        .status(DemandeStatus.SUBMITTED)
+                        .build())
+                .toList();
+        Pageable pageable = PageRequest.of(0, 50);
+        when(demandeRepository.findByUserEmail(USER_EMAIL, pageable))
+                .thenReturn(new PageImpl<>(demandes, pageable, demandes.size()));
+        when(prestationRepository.findAll()).thenReturn(prestations(1, 2, 3, 4, 5));
+
+        PageResponse<DemandeDto> page = socialService.getUserDemandes(USER_EMAIL, null, 1, 50);
+
+        assertThat(page.getContent()).hasSize(50);
+        assertThat(page.getContent()).extracting(DemandeDto::getPrestationTitle)
+                .allMatch(title -> title.startsWith("Prestation "));
+        verify(prestationRepository, times(1)).findAll();
+        verify(prestationRepository, never()).findById(any());
+
+        // Deuxième page : le catalogue est déjà chargé
+        socialService.getUserDemandes(USER_EMAIL, null, 1, 50);
+        verify(prestationRepository, times(1)).findAll();
+        verify(prestationRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void getUserAvisResolvesTitlesFromTheCatalog() {
+        List<Avis> avisList = IntStream.range(0, 20)
+                .mapToObj(i -> Avis.builder()
+                        .id((long) i)
+                        .userEmail(USER_EMAIL)
+                        .prestationId((long) (i % 4) + 1)
+                        .rating(4)
+                        .status(AvisStatus.PUBLISHED)
+                        .build())
+                .toList();
+        when(avisRepository.findByUserEmail(USER_EMAIL)).thenReturn(avisList);
+        when(prestationRepository.findAll()).thenReturn(prestations(1, 2, 3));
+
+        List<AvisDto> result = socialService.getUserAvis(USER_EMAIL);
+
+        assertThat(result).hasSize(20);
+        // La prestation 4 n'existe plus
+        assertThat(result).filteredOn(avis -> avis.getPrestationId().equals(4L))
+                .extracting(AvisDto::getPrestationTitle)
+                .containsOnly("Unknown");
+        verify(prestationRepository, times(1)).findAll();
+        verify(prestationRepository, never()).findById(eq(1L));
+    }
+
+    private List<Prestation> prestations(long... ids) {
+        return Arrays.stream(ids)
+                .mapToObj(id -> Prestation.builder().id(id).title("Prestation " + id).build())
+                .toList();
+    }
+}